@@ -6,29 +6,42 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
 import pt.psoft.g1.psoftg1.authormanagement.services.AuthorService;
 import pt.psoft.g1.psoftg1.authormanagement.services.CreateAuthorRequest;
 import pt.psoft.g1.psoftg1.authormanagement.services.UpdateAuthorRequest;
 import pt.psoft.g1.psoftg1.bookmanagement.api.BookView;
 import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewMapper;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
+import pt.psoft.g1.psoftg1.shared.api.ConditionalRequests;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.VersionedView;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCache;
+import pt.psoft.g1.psoftg1.shared.model.SparseField;
 import pt.psoft.g1.psoftg1.shared.services.ConcurrencyService;
 import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Tag(name = "Author", description = "Endpoints for managing Authors")
 @RestController
@@ -40,6 +53,8 @@ public class AuthorController {
     private final ConcurrencyService concurrencyService;
     private final FileStorageService fileStorageService;
     private final BookViewMapper bookViewMapper;
+    private final ViewCache<AuthorView> authorViewCache;
+    private final NegativeCache negativeCache;
 
     // Create with JSON
     @Operation(summary = "Creates a new Author with JSON body")
@@ -125,34 +140,59 @@ public class AuthorController {
     @Operation(summary = "Know an author’s detail given its author number")
     @GetMapping(value = "/{authorNumber}")
     public ResponseEntity<AuthorView> findByAuthorNumber(
-            @PathVariable("authorNumber") @Parameter(description = "The number of the Author to find") final Long authorNumber) {
+            @PathVariable("authorNumber") @Parameter(description = "The number of the Author to find") final Long authorNumber,
+            final WebRequest request) {
 
-        final var author = authorService.findByAuthorNumber(authorNumber)
-                .orElseThrow(() -> new NotFoundException(Author.class, authorNumber));
+        final var notModified = ConditionalRequests.<AuthorView>notModified(request,
+                () -> negativeCache.find(NegativeCache.AUTHORS, String.valueOf(authorNumber),
+                        () -> authorService.findVersionByAuthorNumber(authorNumber)));
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        final var cached = authorViewCache.get(String.valueOf(authorNumber), () -> {
+            final var author = findExistingAuthor(authorNumber)
+                    .orElseThrow(() -> new NotFoundException(Author.class, authorNumber));
+            return new VersionedView<>(author.getVersion(), authorViewMapper.toAuthorView(author));
+        });
 
         return ResponseEntity.ok()
-                .eTag(Long.toString(author.getVersion()))
-                .body(authorViewMapper.toAuthorView(author));
+                .eTag(Long.toString(cached.version()))
+                .body(cached.view());
     }
 
-    @Operation(summary = "Search authors by name")
+    @Operation(summary = "Search authors by name, optionally only some ?fields=authorNumber,name")
     @GetMapping
-    public ListResponse<AuthorView> findByName(@RequestParam("name") final String name) {
+    public ListResponse<?> findByName(@RequestParam("name") final String name,
+            @RequestParam(value = "fields", required = false) final String fields) {
+
+        final Set<AuthorField> selected = SparseField.parse(fields, AuthorField.class);
+        if (!selected.isEmpty()) {
+            return new ListResponse<>(negativeCache.search(NegativeCache.AUTHOR_SEARCHES, name,
+                    () -> authorService.findFieldsByName(name, selected)));
+        }
 
-        final var authors = authorService.findByName(name);
+        final var authors = negativeCache.search(NegativeCache.AUTHOR_SEARCHES, name,
+                () -> authorService.findByName(name));
         return new ListResponse<>(authorViewMapper.toAuthorView(authors));
     }
 
     // Know the books of an Author
-    @Operation(summary = "Know the books of an author")
+    @Operation(summary = "Know the books of an author, optionally only some ?fields=isbn,title")
     @GetMapping("/{authorNumber}/books")
-    public ListResponse<BookView> getBooksByAuthorNumber(
-            @PathVariable("authorNumber") @Parameter(description = "The number of the Author to find") final Long authorNumber) {
+    public ListResponse<?> getBooksByAuthorNumber(
+            @PathVariable("authorNumber") @Parameter(description = "The number of the Author to find") final Long authorNumber,
+            @RequestParam(value = "fields", required = false) final String fields) {
 
         // Checking if author exists with this id
-        authorService.findByAuthorNumber(authorNumber)
+        findExistingAuthor(authorNumber)
                 .orElseThrow(() -> new NotFoundException(Author.class, authorNumber));
 
+        final Set<BookField> selected = SparseField.parse(fields, BookField.class);
+        if (!selected.isEmpty()) {
+            return new ListResponse<>(authorService.findBookFieldsByAuthorNumber(authorNumber, selected));
+        }
+
         return new ListResponse<>(bookViewMapper.toBookView(authorService.findBooksByAuthorNumber(authorNumber)));
     }
 
@@ -169,13 +209,19 @@ public class AuthorController {
     }
 
     // get - Photo
+    // Streamed from the file (with Range support) instead of read into memory,
+    // also by the ETag filter. Each upload gets a new file name, so the name is
+    // a strong ETag. The URL stays the same when the photo is replaced, so
+    // caches must revalidate it on every use (no-cache), which a 304 answers.
     @Operation(summary = "Gets a author photo")
     @GetMapping("/{authorNumber}/photo")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<byte[]> getSpecificAuthorPhoto(
-            @PathVariable("authorNumber") @Parameter(description = "The number of the Author to find") final Long authorNumber) {
+    public ResponseEntity<Resource> getSpecificAuthorPhoto(
+            @PathVariable("authorNumber") @Parameter(description = "The number of the Author to find") final Long authorNumber,
+            final ServletWebRequest request) {
+        ShallowEtagHeaderFilter.disableContentCaching(request.getRequest());
 
-        Author authorDetails = authorService.findByAuthorNumber(authorNumber)
+        Author authorDetails = findExistingAuthor(authorNumber)
                 .orElseThrow(() -> new NotFoundException(Author.class, authorNumber));
 
         // In case the user has no photo, just return a 200 OK without body
@@ -184,24 +230,38 @@ public class AuthorController {
         }
 
         String photoFile = authorDetails.getPhoto().getPhotoFile();
-        byte[] image = this.fileStorageService.getFile(photoFile);
-        String fileFormat = this.fileStorageService.getExtension(authorDetails.getPhoto().getPhotoFile())
+        String fileFormat = this.fileStorageService.getExtension(photoFile)
                 .orElseThrow(() -> new ValidationException("Unable to get file extension"));
+        Optional<Resource> image = this.fileStorageService.getFileResource(photoFile);
 
-        if (image == null) {
+        if (image.isEmpty()) {
             return ResponseEntity.ok().build();
         }
 
+        long lastModified;
+        try {
+            lastModified = image.get().lastModified();
+        } catch (IOException e) {
+            return ResponseEntity.ok().build();
+        }
+        CacheControl cacheControl = CacheControl.noCache();
+        if (request.checkNotModified(photoFile, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(photoFile).cacheControl(cacheControl).build();
+        }
+
         return ResponseEntity.ok()
                 .contentType(fileFormat.equals("png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG)
-                .body(image);
+                .eTag(photoFile)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .body(image.get());
     }
 
     // Co-authors and their respective books
     @Operation(summary = "Get co-authors and their respective books for a specific author")
     @GetMapping("/{authorNumber}/coauthors")
     public AuthorCoAuthorBooksView getAuthorWithCoAuthors(@PathVariable("authorNumber") Long authorNumber) {
-        var author = authorService.findByAuthorNumber(authorNumber)
+        var author = findExistingAuthor(authorNumber)
                 .orElseThrow(() -> new NotFoundException("Author not found"));
         var coAuthors = authorService.findCoAuthorsByAuthorNumber(authorNumber);
         List<CoAuthorView> coAuthorViews = new ArrayList<>();
@@ -232,4 +292,13 @@ public class AuthorController {
 
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Finds an author for a read, answering author numbers recently not found
+     * from the negative cache.
+     */
+    private Optional<Author> findExistingAuthor(Long authorNumber) {
+        return negativeCache.find(NegativeCache.AUTHORS, String.valueOf(authorNumber),
+                () -> authorService.findByAuthorNumber(authorNumber));
+    }
 }
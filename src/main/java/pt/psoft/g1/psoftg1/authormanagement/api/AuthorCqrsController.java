@@ -15,21 +15,25 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.commands.CreateAuthorCommand;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.commands.UpdateAuthorCommand;
+import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries.FindAuthorFieldsByNameQuery;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries.FindAuthorsByNameQuery;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries.GetAuthorByNumberQuery;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries.GetCoAuthorsByAuthorNumberQuery;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries.GetTopAuthorsByLendingsQuery;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
 import pt.psoft.g1.psoftg1.authormanagement.services.CreateAuthorRequest;
 import pt.psoft.g1.psoftg1.authormanagement.services.UpdateAuthorRequest;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.CommandBus;
 import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.QueryBus;
+import pt.psoft.g1.psoftg1.shared.model.SparseField;
 import pt.psoft.g1.psoftg1.shared.services.ConcurrencyService;
 import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * CQRS-based controller for Author management.
@@ -162,9 +166,14 @@ public class AuthorCqrsController {
                 .body(authorViewMapper.toAuthorView(author));
     }
 
-    @Operation(summary = "Search authors by name (CQRS)")
+    @Operation(summary = "Search authors by name, optionally only some ?fields=authorNumber,name (CQRS)")
     @GetMapping
-    public ListResponse<AuthorView> findByName(@RequestParam("name") final String name) {
+    public ListResponse<?> findByName(@RequestParam("name") final String name,
+            @RequestParam(value = "fields", required = false) final String fields) {
+        final Set<AuthorField> selected = SparseField.parse(fields, AuthorField.class);
+        if (!selected.isEmpty()) {
+            return new ListResponse<>(queryBus.dispatch(new FindAuthorFieldsByNameQuery(name, selected)));
+        }
         FindAuthorsByNameQuery query = new FindAuthorsByNameQuery(name);
         List<Author> authors = queryBus.dispatch(query);
         return new ListResponse<>(authorViewMapper.toAuthorView(authors));
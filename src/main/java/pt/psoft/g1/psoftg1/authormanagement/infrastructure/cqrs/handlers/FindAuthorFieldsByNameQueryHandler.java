@@ -0,0 +1,34 @@
+package pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.handlers;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries.FindAuthorFieldsByNameQuery;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.QueryHandler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query handler for finding authors by name prefix with a sparse fieldset.
+ *
+ * Reads only the selected columns of the matching authors instead of loading
+ * them.
+ */
+@Component
+@RequiredArgsConstructor
+public class FindAuthorFieldsByNameQueryHandler
+        implements QueryHandler<FindAuthorFieldsByNameQuery, List<Map<String, Object>>> {
+
+    private static final Logger log = LoggerFactory.getLogger(FindAuthorFieldsByNameQueryHandler.class);
+
+    private final AuthorRepository authorRepository;
+
+    @Override
+    public List<Map<String, Object>> handle(FindAuthorFieldsByNameQuery query) {
+        log.debug("Handling FindAuthorFieldsByNameQuery for name: {}, fields: {}", query.getName(), query.getFields());
+        return authorRepository.searchFieldsByNameStartsWith(query.getName(), query.getFields());
+    }
+}
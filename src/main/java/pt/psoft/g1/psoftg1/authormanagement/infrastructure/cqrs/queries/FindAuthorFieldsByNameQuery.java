@@ -0,0 +1,24 @@
+package pt.psoft.g1.psoftg1.authormanagement.infrastructure.cqrs.queries;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Query to find authors by name (prefix search), reading only the selected
+ * fields of each author (a sparse fieldset).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FindAuthorFieldsByNameQuery implements Query<List<Map<String, Object>>> {
+
+    private String name;
+    private Set<AuthorField> fields;
+}
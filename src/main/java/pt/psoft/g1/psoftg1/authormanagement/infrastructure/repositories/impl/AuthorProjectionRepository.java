@@ -0,0 +1,18 @@
+package pt.psoft.g1.psoftg1.authormanagement.infrastructure.repositories.impl;
+
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads only the selected fields of authors, so list screens that need a few
+ * columns never load biographies they do not show.
+ */
+public interface AuthorProjectionRepository {
+
+    @Transactional(readOnly = true)
+    List<Map<String, Object>> searchFieldsByNameStartsWith(String name, Set<AuthorField> fields);
+}
@@ -0,0 +1,42 @@
+package pt.psoft.g1.psoftg1.authormanagement.infrastructure.repositories.impl;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class AuthorProjectionRepositoryImpl implements AuthorProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> searchFieldsByNameStartsWith(String name, Set<AuthorField> fields) {
+        if (fields.isEmpty()) {
+            return List.of();
+        }
+        List<AuthorField> columns = List.copyOf(fields);
+        List<Object[]> rows = entityManager.createQuery("SELECT "
+                        + columns.stream().map(AuthorField::path).collect(Collectors.joining(", "))
+                        + " FROM Author a WHERE a.name.nameFolded LIKE :name ESCAPE '\\'", Object[].class)
+                .setParameter("name", FoldedText.prefixPattern(name))
+                .getResultList();
+
+        List<Map<String, Object>> authors = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> author = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                author.put(columns.get(i).fieldName(), row[i]);
+            }
+            authors.add(author);
+        }
+        return authors;
+    }
+}
@@ -4,17 +4,33 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface SpringDataAuthorRepository extends AuthorRepository, CrudRepository<Author, Long> {
+public interface SpringDataAuthorRepository extends AuthorRepository, CrudRepository<Author, Long>,
+        AuthorProjectionRepository {
         @Override
         Optional<Author> findByAuthorNumber(Long authorNumber);
 
+        @Override
+        @Query("SELECT a.version FROM Author a WHERE a.authorNumber = :authorNumber")
+        Optional<Long> findVersionByAuthorNumber(Long authorNumber);
+
+        // Matches the folded name (see FoldedText) by prefix
+        @Override
+        default List<Author> searchByNameNameStartsWith(String name) {
+                return searchByNameFoldedLike(FoldedText.prefixPattern(name));
+        }
+
+        @Query("SELECT a FROM Author a WHERE a.name.nameFolded LIKE :pattern ESCAPE '\\'")
+        List<Author> searchByNameFoldedLike(@Param("pattern") String pattern);
+
         // NOTE: This query is disabled because the Lending entity is in a separate
         // microservice.
         // In a microservices architecture, cross-service queries should be handled via
@@ -5,8 +5,6 @@
  */
 package pt.psoft.g1.psoftg1.authormanagement.infrastructure.saga.steps;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +13,9 @@ import pt.psoft.g1.psoftg1.authormanagement.api.AuthorViewAMQP;
 import pt.psoft.g1.psoftg1.authormanagement.infrastructure.saga.CreateAuthorSagaContext;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
-import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEvent;
-import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEventRepository;
 import pt.psoft.g1.psoftg1.shared.infrastructure.saga.SagaStep;
+import pt.psoft.g1.psoftg1.shared.model.AuthorEvents;
+import pt.psoft.g1.psoftg1.shared.services.OutboxEventService;
 
 /**
  * Step 3: Publish AuthorCreated event to Outbox.
@@ -34,8 +32,7 @@ public class PublishAuthorCreatedEventStep implements SagaStep<CreateAuthorSagaC
 
     private static final Logger log = LoggerFactory.getLogger(PublishAuthorCreatedEventStep.class);
 
-    private final OutboxEventRepository outboxEventRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventService outboxEventService;
 
     @Override
     public boolean execute(CreateAuthorSagaContext context) {
@@ -52,28 +49,19 @@ public class PublishAuthorCreatedEventStep implements SagaStep<CreateAuthorSagaC
                     author.getPhotoURI(),
                     author.getVersion());
 
-            // Serialize to JSON
-            String payload = objectMapper.writeValueAsString(authorView);
-
-            // Create outbox event
-            OutboxEvent event = new OutboxEvent(
+            // Save to outbox (encoded with the configured payload codec and
+            // published asynchronously by OutboxPublisher)
+            outboxEventService.saveEvent(
                     "Author",
                     author.getAuthorNumber().toString(),
                     "AuthorCreatedEvent",
-                    payload,
-                    RabbitmqConfig.AUTHOR_FANOUT_EXCHANGE_CREATED,
-                    "author.created");
-
-            // Save to outbox (will be published asynchronously by OutboxPublisher)
-            outboxEventRepository.save(event);
+                    authorView,
+                    RabbitmqConfig.EVENTS_EXCHANGE,
+                    AuthorEvents.AUTHOR_CREATED);
 
             log.info("Saved AuthorCreated event to outbox for author: {}", author.getAuthorNumber());
             return true;
 
-        } catch (JsonProcessingException e) {
-            context.setErrorMessage("Failed to serialize author event: " + e.getMessage());
-            log.error("Failed to serialize AuthorCreated event: {}", e.getMessage(), e);
-            return false;
         } catch (Exception e) {
             context.setErrorMessage("Failed to save author event to outbox: " + e.getMessage());
             log.error("Failed to save AuthorCreated event to outbox: {}", e.getMessage(), e);
@@ -3,12 +3,20 @@ package pt.psoft.g1.psoftg1.authormanagement.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import org.hibernate.StaleObjectStateException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pt.psoft.g1.psoftg1.authormanagement.services.UpdateAuthorRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCacheEntityListener;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCacheEntityListener;
 import pt.psoft.g1.psoftg1.shared.model.EntityWithPhoto;
 import pt.psoft.g1.psoftg1.shared.model.Name;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({ ViewCacheEntityListener.class, NegativeCacheEntityListener.class })
+@Table(indexes = @Index(name = "idx_author_name_folded", columnList = "NAME_FOLDED"))
 public class Author extends EntityWithPhoto {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
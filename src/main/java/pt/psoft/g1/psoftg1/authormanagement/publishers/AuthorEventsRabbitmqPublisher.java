@@ -1,23 +1,29 @@
 package pt.psoft.g1.psoftg1.authormanagement.publishers;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import pt.psoft.g1.psoftg1.authormanagement.api.AuthorViewAMQP;
 import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
+import pt.psoft.g1.psoftg1.shared.model.AuthorEvents;
 
 /**
  * RabbitMQ implementation of AuthorEventsPublisher.
  * 
- * Publishes author events to FanoutExchanges for broadcast to ALL instances.
- * Uses FanoutExchange instead of DirectExchange to ensure all LMS-Books
- * instances receive all events and can sync their local databases.
+ * Publishes each author event exactly once to the "LMS.events" topic exchange,
+ * using the event type as routing key. The broker fans it out to all LMS-Books
+ * instance queues and to the legacy author fanouts and "LMS.books" direct
+ * exchange (see {@link RabbitmqConfig}).
  */
 @Profile("!test")
 @Component
 public class AuthorEventsRabbitmqPublisher implements AuthorEventsPublisher {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthorEventsRabbitmqPublisher.class);
+
     private final RabbitTemplate rabbitTemplate;
 
     @Value("${spring.application.instance-id:default}")
@@ -29,49 +35,22 @@ public class AuthorEventsRabbitmqPublisher implements AuthorEventsPublisher {
 
     @Override
     public void sendAuthorCreated(AuthorViewAMQP authorView) {
-        // Publish to FanoutExchange (broadcast to all instances)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.AUTHOR_FANOUT_EXCHANGE_CREATED,
-                "", // Fanout ignores routing key
-                authorView);
-        // Also publish to DirectExchange for other services
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.EXCHANGE_NAME,
-                "author.created",
-                authorView);
-        System.out.println("[" + instanceId + "] Published AUTHOR_CREATED event for author number: "
-                + authorView.getAuthorNumber());
+        publish(AuthorEvents.AUTHOR_CREATED, authorView);
     }
 
     @Override
     public void sendAuthorUpdated(AuthorViewAMQP authorView) {
-        // Publish to FanoutExchange (broadcast to all instances)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.AUTHOR_FANOUT_EXCHANGE_UPDATED,
-                "", // Fanout ignores routing key
-                authorView);
-        // Also publish to DirectExchange for other services
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.EXCHANGE_NAME,
-                "author.updated",
-                authorView);
-        System.out.println("[" + instanceId + "] Published AUTHOR_UPDATED event for author number: "
-                + authorView.getAuthorNumber());
+        publish(AuthorEvents.AUTHOR_UPDATED, authorView);
     }
 
     @Override
     public void sendAuthorDeleted(AuthorViewAMQP authorView) {
-        // Publish to FanoutExchange (broadcast to all instances)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.AUTHOR_FANOUT_EXCHANGE_DELETED,
-                "", // Fanout ignores routing key
-                authorView);
-        // Also publish to DirectExchange for other services
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.EXCHANGE_NAME,
-                "author.deleted",
-                authorView);
-        System.out.println("[" + instanceId + "] Published AUTHOR_DELETED event for author number: "
-                + authorView.getAuthorNumber());
+        publish(AuthorEvents.AUTHOR_DELETED, authorView);
+    }
+
+    private void publish(String routingKey, AuthorViewAMQP authorView) {
+        rabbitTemplate.convertAndSend(RabbitmqConfig.EVENTS_EXCHANGE, routingKey, authorView);
+        log.debug("[{}] Published {} event for author number: {}", instanceId, routingKey,
+                authorView.getAuthorNumber());
     }
 }
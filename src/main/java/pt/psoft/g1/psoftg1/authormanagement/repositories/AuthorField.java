@@ -0,0 +1,31 @@
+package pt.psoft.g1.psoftg1.authormanagement.repositories;
+
+import pt.psoft.g1.psoftg1.shared.model.SparseField;
+
+/**
+ * The fields of an author a sparse fieldset can select, with the JPQL path of
+ * each relative to an author a.
+ */
+public enum AuthorField implements SparseField {
+    AUTHOR_NUMBER("authorNumber", "a.authorNumber"),
+    NAME("name", "a.name.name"),
+    BIO("bio", "a.bio.bio"),
+    PHOTO("photo", "a.photoURI");
+
+    private final String fieldName;
+    private final String path;
+
+    AuthorField(String fieldName, String path) {
+        this.fieldName = fieldName;
+        this.path = path;
+    }
+
+    @Override
+    public String fieldName() {
+        return fieldName;
+    }
+
+    public String path() {
+        return path;
+    }
+}
@@ -6,13 +6,23 @@ import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface AuthorRepository {
 
     Optional<Author> findByAuthorNumber(Long authorNumber);
+    Optional<Long> findVersionByAuthorNumber(Long authorNumber);
     List<Author> searchByNameNameStartsWith(String name);
     List<Author> searchByNameName(String name);
+
+    /**
+     * Sparse fieldset variant of {@link #searchByNameNameStartsWith}: reads
+     * only the selected fields of each author, as a map from field name to
+     * value in the order of {@link AuthorField}.
+     */
+    List<Map<String, Object>> searchFieldsByNameStartsWith(String name, Set<AuthorField> fields);
     Author save(Author author);
     Iterable<Author> findAll();
     Page<AuthorLendingView> findTopAuthorByLendings (Pageable pageableRules);
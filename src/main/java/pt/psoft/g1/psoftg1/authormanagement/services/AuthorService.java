@@ -2,10 +2,14 @@ package pt.psoft.g1.psoftg1.authormanagement.services;
 
 import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface AuthorService {
 
@@ -13,8 +17,15 @@ public interface AuthorService {
 
     Optional<Author> findByAuthorNumber(Long authorNumber);
 
+    Optional<Long> findVersionByAuthorNumber(Long authorNumber);
+
     List<Author> findByName(String name);
 
+    /**
+     * Like {@link #findByName}, reading only the selected fields.
+     */
+    List<Map<String, Object>> findFieldsByName(String name, Set<AuthorField> fields);
+
     Author create(CreateAuthorRequest resource);
 
     Author partialUpdate(Long authorNumber, UpdateAuthorRequest resource, long desiredVersion);
@@ -23,6 +34,11 @@ public interface AuthorService {
 
     List<Book> findBooksByAuthorNumber(Long authorNumber);
 
+    /**
+     * Like {@link #findBooksByAuthorNumber}, reading only the selected fields.
+     */
+    List<Map<String, Object>> findBookFieldsByAuthorNumber(Long authorNumber, Set<BookField> fields);
+
     List<Author> findCoAuthorsByAuthorNumber(Long authorNumber);
 
     Optional<Author> removeAuthorPhoto(Long authorNumber, long desiredVersion);
@@ -8,14 +8,18 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorField;
 import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -38,12 +42,24 @@ public class AuthorServiceImpl implements AuthorService {
         return authorRepository.findByAuthorNumber(authorNumber);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionByAuthorNumber(final Long authorNumber) {
+        return authorRepository.findVersionByAuthorNumber(authorNumber);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Author> findByName(String name) {
         return authorRepository.searchByNameNameStartsWith(name);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByName(String name, Set<AuthorField> fields) {
+        return authorRepository.searchFieldsByNameStartsWith(name, fields);
+    }
+
     @Override
     public Author create(final CreateAuthorRequest resource) {
         /*
@@ -119,6 +135,12 @@ public class AuthorServiceImpl implements AuthorService {
         return bookRepository.findBooksByAuthorNumber(authorNumber);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findBookFieldsByAuthorNumber(Long authorNumber, Set<BookField> fields) {
+        return bookRepository.findFieldsByAuthorNumber(authorNumber, fields);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Author> findCoAuthorsByAuthorNumber(Long authorNumber) {
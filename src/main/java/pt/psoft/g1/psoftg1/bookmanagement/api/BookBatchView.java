@@ -0,0 +1,56 @@
+package pt.psoft.g1.psoftg1.bookmanagement.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answer to a multi-get of books: the books found by ISBN, in the order they
+ * were asked for, and the ISBNs not found. The books are full views or, for a
+ * sparse fieldset, maps of the selected fields.
+ */
+@Schema(description = "The books found and the ISBNs not found by a multi-get")
+public record BookBatchView<T>(Map<String, T> found, List<String> missing) {
+
+    /**
+     * Trims the requested ISBNs and drops blanks and duplicates.
+     *
+     * @throws IllegalArgumentException if more than maxSize ISBNs remain
+     */
+    public static List<String> requestedIsbns(List<String> isbns, int maxSize) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String isbn : isbns) {
+            if (isbn != null && !isbn.isBlank()) {
+                requested.add(isbn.trim());
+            }
+        }
+        if (requested.size() > maxSize) {
+            throw new IllegalArgumentException(
+                    String.format("At most %d ISBNs can be requested at once, got %d", maxSize, requested.size()));
+        }
+        return List.copyOf(requested);
+    }
+
+    /**
+     * @param isbns  The requested ISBNs
+     * @param byIsbn The books found, by ISBN
+     */
+    public static <T> BookBatchView<T> of(List<String> isbns, Map<String, T> byIsbn) {
+        Map<String, T> found = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String isbn : isbns) {
+            T book = byIsbn.get(isbn);
+            if (book != null) {
+                found.put(isbn, book);
+            } else {
+                missing.add(isbn);
+            }
+        }
+        return new BookBatchView<>(found, missing);
+    }
+}
@@ -0,0 +1,98 @@
+package pt.psoft.g1.psoftg1.bookmanagement.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.ChangeFeed;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Change feed of the catalog, for clients that cannot consume the broker.
+ *
+ * Streams the outbox events (books and authors created, ...) after an offset,
+ * then each new one as it commits, as Server-Sent Events or as one JSON line
+ * per event. Every event carries its offset; a client that reconnects passes
+ * the last one it got (since=, or Last-Event-ID for SSE) and resumes there.
+ * Without an offset only new events are streamed, e.g. right after loading a
+ * catalog snapshot.
+ *
+ * @see ChangeFeed
+ */
+@Tag(name = "Book changes", description = "Change feed of the catalog")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/books/changes")
+public class BookChangesController {
+
+    private final ChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+
+    @Value("${changes.timeout:30m}")
+    private Duration timeout;
+
+    @Operation(summary = "Stream the catalog changes after an offset as Server-Sent Events")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(value = "since", required = false) final Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) final Long lastEventId) {
+        final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribe(emitter, lastEventId != null ? lastEventId : since, change -> emitter.send(SseEmitter.event()
+                .id(Long.toString(change.offset()))
+                .name(change.eventType())
+                .data(change, MediaType.APPLICATION_JSON)));
+        return emitter;
+    }
+
+    @Operation(summary = "Stream the catalog changes after an offset as newline-delimited JSON")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamLines(
+            @RequestParam(value = "since", required = false) final Long since) {
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.toMillis());
+        subscribe(emitter, since, change -> {
+            // One write per line, so a line is never split across flushes
+            final byte[] json = objectMapper.writeValueAsBytes(change);
+            final byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            emitter.send(line, MediaType.APPLICATION_NDJSON);
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private void subscribe(ResponseBodyEmitter emitter, Long since, ChangeWriter writer) {
+        if (since != null && since < 0) {
+            throw new IllegalArgumentException("The offset must not be negative");
+        }
+        final var subscription = changeFeed.subscribe(since, new ChangeFeed.ChangeSink() {
+            @Override
+            public void send(ChangeFeed.Change change) throws IOException {
+                writer.write(change);
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+    }
+
+    @FunctionalInterface
+    private interface ChangeWriter {
+        void write(ChangeFeed.Change change) throws IOException;
+    }
+}
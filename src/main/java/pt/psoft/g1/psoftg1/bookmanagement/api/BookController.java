@@ -1,9 +1,13 @@
 package pt.psoft.g1.psoftg1.bookmanagement.api;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,16 +19,27 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.publishers.BookEventsPublisher;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 import pt.psoft.g1.psoftg1.bookmanagement.services.BookService;
 import pt.psoft.g1.psoftg1.bookmanagement.services.CreateBookRequest;
 import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
+import pt.psoft.g1.psoftg1.shared.api.ConditionalRequests;
+import pt.psoft.g1.psoftg1.shared.api.EncodedResponses;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.EncodedViewCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.VersionedView;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCache;
+import pt.psoft.g1.psoftg1.shared.model.SparseField;
 
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -50,6 +65,12 @@ public class BookController {
     private final BookService bookService;
     private final BookViewMapper bookViewMapper;
     private final BookEventsPublisher bookEventsPublisher;
+    private final ViewCache<BookView> bookViewCache;
+    private final EncodedViewCache encodedBookViewCache;
+    private final NegativeCache negativeCache;
+
+    @Value("${books.batch.max-size:100}")
+    private int batchMaxSize;
 
     @Operation(summary = "Register a new Book with JSON")
     @PutMapping(value = "/{isbn}", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -78,14 +99,8 @@ public class BookController {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
-        // Publish event to RabbitMQ
-        try {
-            BookViewAMQP bookViewAMQP = bookViewMapper.toBookViewAMQP(book);
-            bookEventsPublisher.sendBookCreated(bookViewAMQP);
-        } catch (Exception e) {
-            // Log but don't fail the request if event publishing fails
-            System.err.println("Failed to publish book created event: " + e.getMessage());
-        }
+        // The BookCreated event is written to the outbox by the creation saga and
+        // published once by OutboxPublisher, so it is not published again here
 
         final var newBookUri = ServletUriComponentsBuilder.fromCurrentRequestUri()
                 .pathSegment(book.getIsbn())
@@ -96,16 +111,76 @@ public class BookController {
                 .body(bookViewMapper.toBookView(book));
     }
 
-    @Operation(summary = "Gets a specific Book by ISBN")
+    @Operation(summary = "Gets a specific Book by ISBN", responses = @ApiResponse(responseCode = "200",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = BookView.class))))
     @GetMapping(value = "/{isbn}")
-    public ResponseEntity<BookView> findByIsbn(@PathVariable final String isbn) {
+    public ResponseEntity<byte[]> findByIsbn(@PathVariable final String isbn, final WebRequest request) {
         System.out.println("Received request to find book with ISBN: " + isbn);
+        if (!bookViewCache.isEnabled()) {
+            // Without the view cache the version is read first, and the book
+            // is only loaded when the serialized view is not current. Unknown
+            // ISBNs are ruled out by the existence filter without a query
+            final var version = bookService.findVersionByIsbn(isbn);
+            final var notModified = ConditionalRequests.<byte[]>notModified(request, () -> version);
+            if (notModified.isPresent()) {
+                return notModified.get();
+            }
+            final var encoded = encodedBookViewCache.get(isbn,
+                    version.orElseThrow(() -> new NotFoundException(Book.class, isbn)),
+                    () -> loadView(isbn));
+            return EncodedResponses.ok(encoded, request);
+        }
+
+        // Only a conditional request reads the version
+        final var notModified = ConditionalRequests.<byte[]>notModified(request,
+                () -> bookService.findVersionByIsbn(isbn));
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        // The view cache is evicted on every change, so the version of its
+        // view tells whether the serialized one is current
+        final var view = bookViewCache.get(isbn, () -> loadView(isbn));
+        final var encoded = encodedBookViewCache.get(isbn, view.version(), () -> view);
+
+        return EncodedResponses.ok(encoded, request);
+    }
+
+    private VersionedView<BookView> loadView(String isbn) {
         final var book = bookService.findByIsbn(isbn);
-        BookView bookView = bookViewMapper.toBookView(book);
+        return new VersionedView<>(book.getVersion(), bookViewMapper.toBookView(book));
+    }
 
-        return ResponseEntity.ok()
-                .eTag(Long.toString(book.getVersion()))
-                .body(bookView);
+    @Operation(summary = "Gets several Books by ISBN, e.g. ?isbn=a,b,c, optionally only some ?fields=isbn,title")
+    @GetMapping(value = "/batch")
+    public ResponseEntity<BookBatchView<?>> findByIsbns(@RequestParam("isbn") final List<String> isbns,
+            @RequestParam(value = "fields", required = false) final String fields) {
+        return doFindByIsbns(isbns, fields);
+    }
+
+    @Operation(summary = "Gets several Books by ISBN, given as a JSON array, optionally only some ?fields=isbn,title")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookBatchView<?>> findByIsbnsFromJson(@RequestBody final List<String> isbns,
+            @RequestParam(value = "fields", required = false) final String fields) {
+        return doFindByIsbns(isbns, fields);
+    }
+
+    private ResponseEntity<BookBatchView<?>> doFindByIsbns(List<String> isbns, String fields) {
+        final var requested = BookBatchView.requestedIsbns(isbns, batchMaxSize);
+        final Set<BookField> selected = SparseField.parse(fields, BookField.class);
+        if (!selected.isEmpty()) {
+            // The ISBN keys the answer, so it is always selected
+            final Set<BookField> withIsbn = EnumSet.of(BookField.ISBN);
+            withIsbn.addAll(selected);
+            final var books = bookService.findFieldsByIsbns(requested, withIsbn).stream()
+                    .collect(Collectors.toMap(book -> (String) book.get(BookField.ISBN.fieldName()),
+                            Function.identity()));
+            return ResponseEntity.ok(BookBatchView.of(requested, books));
+        }
+        final var books = bookService.findByIsbns(requested).stream()
+                .collect(Collectors.toMap(Book::getIsbn, bookViewMapper::toBookView));
+        return ResponseEntity.ok(BookBatchView.of(requested, books));
     }
 
     @Operation(summary = "Updates a specific Book with JSON")
@@ -161,13 +236,37 @@ public class BookController {
                 .body(bookViewMapper.toBookView(book));
     }
 
-    @Operation(summary = "Gets Books by title, genre, or author name")
+    @Operation(summary = "Gets Books by title, genre, or author name, optionally only some ?fields=isbn,title")
     @GetMapping
-    public ResponseEntity<List<BookView>> findBooks(
+    public ResponseEntity<List<?>> findBooks(
             @RequestParam(value = "title", required = false) final String title,
             @RequestParam(value = "genre", required = false) final String genre,
-            @RequestParam(value = "authorName", required = false) final String authorName) {
+            @RequestParam(value = "authorName", required = false) final String authorName,
+            @RequestParam(value = "fields", required = false) final String fields) {
+
+        // Searches that recently found nothing are answered without a query
+        final String searchKey = "title=" + title + "&genre=" + genre + "&authorName=" + authorName;
+        final Set<BookField> selected = SparseField.parse(fields, BookField.class);
+        if (!selected.isEmpty()) {
+            List<Map<String, Object>> books = negativeCache.search(NegativeCache.BOOK_SEARCHES, searchKey,
+                    () -> bookService.searchFields(title, genre, authorName, selected));
+            if (books.isEmpty()) {
+                throw new NotFoundException("No books found with the provided criteria");
+            }
+            return ResponseEntity.ok(books);
+        }
+
+        List<Book> books = negativeCache.search(NegativeCache.BOOK_SEARCHES, searchKey,
+                () -> searchBooks(title, genre, authorName));
+
+        if (books.isEmpty()) {
+            throw new NotFoundException("No books found with the provided criteria");
+        }
 
+        return ResponseEntity.ok(bookViewMapper.toBookView(books));
+    }
+
+    private List<Book> searchBooks(final String title, final String genre, final String authorName) {
         // This method does an 'OR' join of the criteria
         List<Book> booksByTitle = null;
         if (title != null) {
@@ -195,15 +294,9 @@ public class BookController {
             bookSet.addAll(booksByAuthorName);
         }
 
-        List<Book> books = bookSet.stream()
+        return bookSet.stream()
                 .sorted(Comparator.comparing(b -> b.getTitle().toString()))
                 .collect(Collectors.toList());
-
-        if (books.isEmpty()) {
-            throw new NotFoundException("No books found with the provided criteria");
-        }
-
-        return ResponseEntity.ok(bookViewMapper.toBookView(books));
     }
 
     @Operation(summary = "Health check endpoint")
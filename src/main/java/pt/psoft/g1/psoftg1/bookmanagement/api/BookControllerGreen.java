@@ -21,6 +21,9 @@ import pt.psoft.g1.psoftg1.bookmanagement.services.CreateBookRequest;
 import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
+import pt.psoft.g1.psoftg1.shared.api.ConditionalRequests;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.VersionedView;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCache;
 
 import java.util.Comparator;
 import java.util.HashSet;
@@ -52,6 +55,10 @@ public class BookControllerGreen {
     private final BookService bookService;
     private final BookViewMapper bookViewMapper;
     private final BookEventsPublisher bookEventsPublisher;
+    private final ViewCache<BookView> bookViewCache;
+
+    @Value("${books.batch.max-size:100}")
+    private int batchMaxSize;
 
     /**
      * Feature flag to simulate errors for rollback testing
@@ -121,14 +128,8 @@ public class BookControllerGreen {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
-        // Publish event to RabbitMQ
-        try {
-            BookViewAMQP bookViewAMQP = bookViewMapper.toBookViewAMQP(book);
-            bookEventsPublisher.sendBookCreated(bookViewAMQP);
-        } catch (Exception e) {
-            // Log but don't fail the request if event publishing fails
-            System.err.println("[GREEN] Failed to publish book created event: " + e.getMessage());
-        }
+        // The BookCreated event is written to the outbox by the creation saga and
+        // published once by OutboxPublisher, so it is not published again here
 
         final var newBookUri = ServletUriComponentsBuilder.fromCurrentRequestUri()
                 .pathSegment(book.getIsbn())
@@ -151,7 +152,7 @@ public class BookControllerGreen {
 
     @Operation(summary = "[GREEN] Gets a specific Book by ISBN")
     @GetMapping(value = "/{isbn}")
-    public ResponseEntity<BookViewGreen> findByIsbn(@PathVariable final String isbn) {
+    public ResponseEntity<BookViewGreen> findByIsbn(@PathVariable final String isbn, final WebRequest request) {
         System.out.println("[GREEN] Received request to find book with ISBN: " + isbn);
 
         if (simulateError) {
@@ -160,22 +161,58 @@ public class BookControllerGreen {
                     "[GREEN ERROR] Simulated error for automatic rollback testing.");
         }
 
-        final var book = bookService.findByIsbn(isbn);
-        BookView bookView = bookViewMapper.toBookView(book);
+        final var notModified = ConditionalRequests.<BookViewGreen>notModified(request,
+                () -> bookService.findVersionByIsbn(isbn));
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        final var cached = bookViewCache.get(isbn, () -> {
+            final var book = bookService.findByIsbn(isbn);
+            return new VersionedView<>(book.getVersion(), bookViewMapper.toBookView(book));
+        });
 
         BookViewGreen greenResponse = new BookViewGreen(
-                bookView,
+                cached.view(),
                 "GREEN",
                 greenVersion,
                 "Book retrieved successfully from GREEN deployment");
 
         return ResponseEntity.ok()
-                .eTag(Long.toString(book.getVersion()))
+                .eTag(Long.toString(cached.version()))
                 .header("X-Deployment-Slot", "green")
                 .header("X-Deployment-Version", greenVersion)
                 .body(greenResponse);
     }
 
+    @Operation(summary = "[GREEN] Gets several Books by ISBN, e.g. ?isbn=a,b,c")
+    @GetMapping(value = "/batch")
+    public ResponseEntity<BookBatchView<BookView>> findByIsbns(@RequestParam("isbn") final List<String> isbns) {
+        return doFindByIsbns(isbns);
+    }
+
+    @Operation(summary = "[GREEN] Gets several Books by ISBN, given as a JSON array")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookBatchView<BookView>> findByIsbnsFromJson(@RequestBody final List<String> isbns) {
+        return doFindByIsbns(isbns);
+    }
+
+    private ResponseEntity<BookBatchView<BookView>> doFindByIsbns(List<String> isbns) {
+        if (simulateError) {
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "[GREEN ERROR] Simulated error for automatic rollback testing.");
+        }
+
+        final var requested = BookBatchView.requestedIsbns(isbns, batchMaxSize);
+        final var books = bookService.findByIsbns(requested).stream()
+                .collect(Collectors.toMap(Book::getIsbn, bookViewMapper::toBookView));
+        return ResponseEntity.ok()
+                .header("X-Deployment-Slot", "green")
+                .header("X-Deployment-Version", greenVersion)
+                .body(BookBatchView.of(requested, books));
+    }
+
     @Operation(summary = "[GREEN] Updates a specific Book with JSON")
     @PatchMapping(value = "/{isbn}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<BookViewGreen> updateBookFromJson(@PathVariable final String isbn,
@@ -14,17 +14,22 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.commands.CreateBookCommand;
 import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.commands.UpdateBookCommand;
 import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.queries.GetBookByIsbnQuery;
+import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.queries.SearchBookFieldsQuery;
 import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.queries.SearchBooksQuery;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.publishers.BookEventsPublisher;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 import pt.psoft.g1.psoftg1.bookmanagement.services.CreateBookRequest;
 import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.CommandBus;
 import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.QueryBus;
+import pt.psoft.g1.psoftg1.shared.model.SparseField;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * REST Controller for Book Management using CQRS pattern.
@@ -78,13 +83,8 @@ public class BookCqrsController {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
-        // Publish event to RabbitMQ
-        try {
-            BookViewAMQP bookViewAMQP = bookViewMapper.toBookViewAMQP(book);
-            bookEventsPublisher.sendBookCreated(bookViewAMQP);
-        } catch (Exception e) {
-            System.err.println("Failed to publish book created event: " + e.getMessage());
-        }
+        // The BookCreated event is written to the outbox by the creation saga and
+        // published once by OutboxPublisher, so it is not published again here
 
         final var newBookUri = ServletUriComponentsBuilder.fromCurrentRequestUri()
                 .pathSegment(book.getIsbn())
@@ -169,13 +169,25 @@ public class BookCqrsController {
 
     /**
      * Searches Books using CQRS Query pattern.
+     * With ?fields=isbn,title only those fields are read and returned.
      */
-    @Operation(summary = "Gets Books by title, genre, or author name (CQRS)")
+    @Operation(summary = "Gets Books by title, genre, or author name, optionally only some ?fields=isbn,title (CQRS)")
     @GetMapping
-    public ResponseEntity<List<BookView>> findBooks(
+    public ResponseEntity<List<?>> findBooks(
             @RequestParam(value = "title", required = false) final String title,
             @RequestParam(value = "genre", required = false) final String genre,
-            @RequestParam(value = "authorName", required = false) final String authorName) {
+            @RequestParam(value = "authorName", required = false) final String authorName,
+            @RequestParam(value = "fields", required = false) final String fields) {
+
+        final Set<BookField> selected = SparseField.parse(fields, BookField.class);
+        if (!selected.isEmpty()) {
+            List<Map<String, Object>> books = queryBus.dispatch(
+                    new SearchBookFieldsQuery(title, genre, authorName, selected));
+            if (books.isEmpty()) {
+                throw new NotFoundException("No books found with the provided criteria");
+            }
+            return ResponseEntity.ok(books);
+        }
 
         // Create and dispatch the query
         SearchBooksQuery query = new SearchBooksQuery(title, genre, authorName);
@@ -30,6 +30,6 @@ public class FindBooksByAuthorQueryHandler implements QueryHandler<FindBooksByAu
     public List<Book> handle(FindBooksByAuthorQuery query) {
         log.debug("Handling FindBooksByAuthorQuery for author: {}", query.getAuthorName());
 
-        return bookRepository.findByAuthorName(query.getAuthorName() + "%");
+        return bookRepository.findByAuthorName(query.getAuthorName());
     }
 }
@@ -0,0 +1,36 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.handlers;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.queries.SearchBookFieldsQuery;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.QueryHandler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query handler for searching books by multiple criteria with a sparse
+ * fieldset.
+ *
+ * Matches the same books as SearchBooksQueryHandler, sorted by title, but
+ * reads only the selected columns instead of loading the books.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchBookFieldsQueryHandler implements QueryHandler<SearchBookFieldsQuery, List<Map<String, Object>>> {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchBookFieldsQueryHandler.class);
+
+    private final BookRepository bookRepository;
+
+    @Override
+    public List<Map<String, Object>> handle(SearchBookFieldsQuery query) {
+        log.debug("Handling SearchBookFieldsQuery - title: {}, genre: {}, author: {}, fields: {}",
+                query.getTitle(), query.getGenre(), query.getAuthorName(), query.getFields());
+        return bookRepository.searchFields(query.getTitle(), query.getGenre(), query.getAuthorName(),
+                query.getFields());
+    }
+}
@@ -51,7 +51,7 @@ public class SearchBooksQueryHandler implements QueryHandler<SearchBooksQuery, L
 
         // Search by author name
         if (query.getAuthorName() != null) {
-            List<Book> booksByAuthor = bookRepository.findByAuthorName(query.getAuthorName() + "%");
+            List<Book> booksByAuthor = bookRepository.findByAuthorName(query.getAuthorName());
             bookSet.addAll(booksByAuthor);
         }
 
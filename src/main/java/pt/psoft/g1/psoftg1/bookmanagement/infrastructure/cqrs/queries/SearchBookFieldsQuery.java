@@ -0,0 +1,26 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.cqrs.queries;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cqrs.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Query to search books by multiple criteria, reading only the selected
+ * fields of each book (a sparse fieldset).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchBookFieldsQuery implements Query<List<Map<String, Object>>> {
+
+    private String title;
+    private String genre;
+    private String authorName;
+    private Set<BookField> fields;
+}
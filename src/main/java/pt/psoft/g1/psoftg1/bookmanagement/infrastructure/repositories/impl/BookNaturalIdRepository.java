@@ -0,0 +1,30 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.repositories.impl;
+
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks books up by their natural id, the ISBN, so repeated lookups are
+ * answered by the second-level cache instead of a query, and lookups of
+ * ISBNs that do not exist by the BookExistenceFilter. Multi-gets skip the
+ * ISBNs the filter rules out and load the rest in one query; version lookups
+ * of ISBNs it rules out need no query either.
+ *
+ * Transactional like the other repository methods, as the Hibernate session
+ * is only open for the length of a transaction.
+ */
+public interface BookNaturalIdRepository {
+
+    @Transactional(readOnly = true)
+    Optional<Book> findByIsbn(String isbn);
+
+    @Transactional(readOnly = true)
+    Optional<Long> findVersionByIsbn(String isbn);
+
+    @Transactional(readOnly = true)
+    List<Book> findWithAuthorsByIsbnIn(Collection<String> isbns);
+}
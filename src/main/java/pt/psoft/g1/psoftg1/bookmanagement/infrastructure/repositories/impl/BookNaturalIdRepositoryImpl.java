@@ -0,0 +1,81 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.repositories.impl;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Isbn;
+import pt.psoft.g1.psoftg1.shared.infrastructure.bloom.BookExistenceFilter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class BookNaturalIdRepositoryImpl implements BookNaturalIdRepository {
+
+    private final EntityManager entityManager;
+    private final ObjectProvider<BookExistenceFilter> existenceFilter;
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        final Isbn naturalId;
+        try {
+            naturalId = new Isbn(isbn);
+        } catch (IllegalArgumentException e) {
+            // No book can have an invalid ISBN
+            return Optional.empty();
+        }
+        BookExistenceFilter filter = existenceFilter.getIfAvailable();
+        if (filter != null && !filter.mightExist(isbn)) {
+            return Optional.empty();
+        }
+        Optional<Book> book = entityManager.unwrap(Session.class).bySimpleNaturalId(Book.class)
+                .loadOptional(naturalId);
+        if (filter != null && book.isEmpty()) {
+            filter.falsePositive();
+        }
+        return book;
+    }
+
+    @Override
+    public Optional<Long> findVersionByIsbn(String isbn) {
+        BookExistenceFilter filter = existenceFilter.getIfAvailable();
+        if (filter != null && !filter.mightExist(isbn)) {
+            return Optional.empty();
+        }
+        Optional<Long> version = entityManager.createQuery("SELECT b.version FROM Book b " +
+                        "WHERE b.isbn.isbn = :isbn", Long.class)
+                .setParameter("isbn", isbn)
+                .getResultStream()
+                .findFirst();
+        if (filter != null && version.isEmpty()) {
+            filter.falsePositive();
+        }
+        return version;
+    }
+
+    @Override
+    public List<Book> findWithAuthorsByIsbnIn(Collection<String> isbns) {
+        BookExistenceFilter filter = existenceFilter.getIfAvailable();
+        List<String> candidates = isbns.stream()
+                .filter(isbn -> filter == null || filter.mightExist(isbn))
+                .toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        List<Book> books = entityManager.createQuery("SELECT DISTINCT b FROM Book b " +
+                        "JOIN FETCH b.genre " +
+                        "LEFT JOIN FETCH b.authors " +
+                        "WHERE b.isbn.isbn IN :isbns", Book.class)
+                .setParameter("isbns", candidates)
+                .getResultList();
+        if (filter != null) {
+            for (int i = books.size(); i < candidates.size(); i++) {
+                filter.falsePositive();
+            }
+        }
+        return books;
+    }
+}
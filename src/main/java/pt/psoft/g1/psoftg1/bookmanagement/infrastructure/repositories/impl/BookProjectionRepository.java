@@ -0,0 +1,25 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.repositories.impl;
+
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads only the selected fields of books, so list screens that need a few
+ * columns never load descriptions or authors they do not show.
+ */
+public interface BookProjectionRepository {
+
+    @Transactional(readOnly = true)
+    List<Map<String, Object>> searchFields(String title, String genre, String authorName, Set<BookField> fields);
+
+    @Transactional(readOnly = true)
+    List<Map<String, Object>> findFieldsByIsbnIn(Collection<String> isbns, Set<BookField> fields);
+
+    @Transactional(readOnly = true)
+    List<Map<String, Object>> findFieldsByAuthorNumber(Long authorNumber, Set<BookField> fields);
+}
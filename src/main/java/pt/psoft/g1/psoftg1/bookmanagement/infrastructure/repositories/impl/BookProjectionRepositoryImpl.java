@@ -0,0 +1,102 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.repositories.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> searchFields(String title, String genre, String authorName,
+            Set<BookField> fields) {
+        // Same 'OR' of the criteria as the searches by title, genre and author name
+        List<String> criteria = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (title != null) {
+            criteria.add("b.title.titleFolded LIKE :title ESCAPE '\\'");
+            parameters.put("title", FoldedText.prefixPattern(title));
+        }
+        if (genre != null) {
+            criteria.add("g.genreFolded LIKE :genre ESCAPE '\\'");
+            parameters.put("genre", FoldedText.prefixPattern(genre));
+        }
+        if (authorName != null) {
+            criteria.add("b IN (SELECT ab FROM Book ab JOIN ab.authors a "
+                    + "WHERE a.name.nameFolded LIKE :authorName ESCAPE '\\')");
+            parameters.put("authorName", FoldedText.prefixPattern(authorName));
+        }
+        if (criteria.isEmpty()) {
+            return List.of();
+        }
+        return project(String.join(" OR ", criteria), parameters, fields);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIsbnIn(Collection<String> isbns, Set<BookField> fields) {
+        if (isbns.isEmpty()) {
+            return List.of();
+        }
+        return project("b.isbn.isbn IN :isbns", Map.of("isbns", isbns), fields);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByAuthorNumber(Long authorNumber, Set<BookField> fields) {
+        return project("b IN (SELECT ab FROM Book ab JOIN ab.authors a WHERE a.authorNumber = :authorNumber)",
+                Map.of("authorNumber", authorNumber), fields);
+    }
+
+    /**
+     * Selects the ISBN and the selected columns of the matching books, sorted
+     * by title, then the names of their authors if selected.
+     */
+    private List<Map<String, Object>> project(String where, Map<String, Object> parameters, Set<BookField> fields) {
+        List<BookField> columns = fields.stream().filter(field -> field.path() != null).toList();
+        StringBuilder select = new StringBuilder("SELECT b.isbn.isbn");
+        columns.forEach(field -> select.append(", ").append(field.path()));
+        TypedQuery<Object[]> query = entityManager.createQuery(select
+                + " FROM Book b JOIN b.genre g WHERE " + where + " ORDER BY b.title.title", Object[].class);
+        parameters.forEach(query::setParameter);
+        List<Object[]> rows = query.getResultList();
+
+        Map<String, List<String>> authors = fields.contains(BookField.AUTHORS)
+                ? authorNames(rows.stream().map(row -> (String) row[0]).toList())
+                : Map.of();
+        List<Map<String, Object>> books = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> book = new LinkedHashMap<>();
+            for (BookField field : fields) {
+                book.put(field.fieldName(), field == BookField.AUTHORS
+                        ? authors.getOrDefault((String) row[0], List.of())
+                        : row[columns.indexOf(field) + 1]);
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    private Map<String, List<String>> authorNames(List<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Map.of();
+        }
+        return entityManager.createQuery("SELECT b.isbn.isbn, a.name.name FROM Book b JOIN b.authors a " +
+                        "WHERE b.isbn.isbn IN :isbns", Object[].class)
+                .setParameter("isbns", isbns)
+                .getResultList().stream()
+                .collect(Collectors.groupingBy(row -> (String) row[0],
+                        Collectors.mapping(row -> (String) row[1], Collectors.toList())));
+    }
+}
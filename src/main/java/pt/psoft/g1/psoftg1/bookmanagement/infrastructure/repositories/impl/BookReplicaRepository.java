@@ -0,0 +1,22 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.repositories.impl;
+
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository.ReplicaUpdate;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Applies replicated book updates last-writer-wins, a whole batch of them in
+ * one JDBC batch of conditional updates.
+ *
+ * The statements bypass the persistence context, which is flushed once
+ * before them; only the books they updated are then detached from it and
+ * evicted from the second-level cache, so the other entities of the
+ * transaction stay managed.
+ */
+public interface BookReplicaRepository {
+
+    @Transactional
+    Set<String> updateAllIfNewer(Collection<ReplicaUpdate> updates);
+}
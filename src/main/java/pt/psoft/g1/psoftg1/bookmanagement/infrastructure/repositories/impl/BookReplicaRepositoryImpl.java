@@ -0,0 +1,83 @@
+package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.repositories.impl;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Title;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository.ReplicaUpdate;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class BookReplicaRepositoryImpl implements BookReplicaRepository {
+
+    private static final String UPDATE_IF_NEWER = "UPDATE BOOK " +
+            "SET TITLE = ?, TITLE_FOLDED = ?, DESCRIPTION = ?, GENRE_PK = ?, VERSION = ? " +
+            "WHERE ISBN = ? AND (VERSION IS NULL OR VERSION < ?)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Set<String> updateAllIfNewer(Collection<ReplicaUpdate> updates) {
+        if (updates.isEmpty()) {
+            return Set.of();
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        session.flush();
+
+        List<ReplicaUpdate> batch = List.copyOf(updates);
+        int[] counts = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_IF_NEWER)) {
+                for (ReplicaUpdate update : batch) {
+                    Title title = new Title(update.title());
+                    statement.setString(1, title.toString());
+                    statement.setString(2, title.getTitleFolded());
+                    statement.setString(3, update.description());
+                    statement.setObject(4, entityManager.getEntityManagerFactory().getPersistenceUnitUtil()
+                            .getIdentifier(update.genre()));
+                    statement.setLong(5, update.version());
+                    statement.setString(6, update.isbn());
+                    statement.setLong(7, update.version());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+
+        Set<String> updated = new LinkedHashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                updated.add(batch.get(i).isbn());
+            }
+        }
+        if (!updated.isEmpty()) {
+            forget(session, updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Detaches the updated books loaded in this session and evicts them from
+     * the second-level cache, so they are read again as updated.
+     */
+    private void forget(SessionImplementor session, Set<String> isbns) {
+        List<Long> pks = entityManager.createQuery("SELECT b.pk FROM Book b WHERE b.isbn.isbn IN :isbns", Long.class)
+                .setParameter("isbns", isbns)
+                .getResultList();
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Book.class);
+        for (Long pk : pks) {
+            Object loaded = session.getPersistenceContextInternal().getEntity(new EntityKey(pk, persister));
+            if (loaded != null) {
+                session.detach(loaded);
+            }
+            entityManager.getEntityManagerFactory().getCache().evict(Book.class, pk);
+        }
+    }
+}
@@ -8,16 +8,19 @@ import org.springframework.data.repository.query.Param;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Isbn;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-public interface SpringDataBookRepository extends BookRepository, CrudRepository<Book, Isbn> {
+public interface SpringDataBookRepository extends BookRepository, CrudRepository<Book, Isbn>,
+        BookNaturalIdRepository, BookProjectionRepository, BookReplicaRepository {
 
+    @Override
     @Query("SELECT b " +
             "FROM Book b " +
-            "WHERE b.isbn.isbn = :isbn")
-    Optional<Book> findByIsbn(@Param("isbn") String isbn);
+            "WHERE b.isbn.isbn IN :isbns")
+    List<Book> findByIsbnIn(@Param("isbns") Collection<String> isbns);
 
     // @Override
     // @Query("SELECT new
@@ -30,23 +33,37 @@ public interface SpringDataBookRepository extends BookRepository, CrudRepository
     // Page<BookCountDTO> findTop5BooksLent(@Param("oneYearAgo") LocalDate
     // oneYearAgo, Pageable pageable);
 
+    // The searches match the folded forms (see FoldedText) by prefix
+
     @Override
+    default List<Book> findByGenre(String genre) {
+        return findByGenreFoldedLike(FoldedText.prefixPattern(genre));
+    }
+
     @Query("SELECT b " +
             "FROM Book b " +
-            "WHERE b.genre.genre LIKE %:genre%")
-    List<Book> findByGenre(@Param("genre") String genre);
+            "WHERE b.genre.genreFolded LIKE :pattern ESCAPE '\\'")
+    List<Book> findByGenreFoldedLike(@Param("pattern") String pattern);
 
     @Override
-    @Query("SELECT b FROM Book b WHERE b.title.title LIKE %:title%")
-    List<Book> findByTitle(@Param("title") String title);
+    default List<Book> findByTitle(String title) {
+        return findByTitleFoldedLike(FoldedText.prefixPattern(title));
+    }
+
+    @Query("SELECT b FROM Book b WHERE b.title.titleFolded LIKE :pattern ESCAPE '\\'")
+    List<Book> findByTitleFoldedLike(@Param("pattern") String pattern);
 
     @Override
+    default List<Book> findByAuthorName(String authorName) {
+        return findByAuthorNameFoldedLike(FoldedText.prefixPattern(authorName));
+    }
+
     @Query(value = "SELECT b.* " +
             "FROM Book b " +
             "JOIN BOOK_AUTHORS on b.pk = BOOK_AUTHORS.BOOK_PK " +
             "JOIN AUTHOR a on BOOK_AUTHORS.AUTHORS_AUTHOR_NUMBER = a.AUTHOR_NUMBER " +
-            "WHERE a.NAME LIKE :authorName", nativeQuery = true)
-    List<Book> findByAuthorName(@Param("authorName") String authorName);
+            "WHERE a.NAME_FOLDED LIKE :pattern ESCAPE '\\'", nativeQuery = true)
+    List<Book> findByAuthorNameFoldedLike(@Param("pattern") String pattern);
 
     @Override
     @Query(value = "SELECT b.* " +
@@ -5,30 +5,46 @@
  */
 package pt.psoft.g1.psoftg1.bookmanagement.infrastructure.saga.steps;
 
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.stereotype.Component;
 import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.saga.CreateBookSagaContext;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookTombstone;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookTombstoneRepository;
 import pt.psoft.g1.psoftg1.shared.infrastructure.saga.SagaStep;
 
+import java.util.Optional;
+
 /**
  * Step 2: Create the Book entity.
  * 
  * Creates the Book entity in the database using validated data from the
- * context.
+ * context. A book re-created after its ISBN was deleted through replication
+ * starts above the deleted version (see {@link BookTombstone}); only the book
+ * sync of the database-per-instance profile deletes books that way, so the
+ * tombstone is not looked up otherwise.
  * 
  * Compensation: Delete the created Book from the database.
  */
 @Component
-@RequiredArgsConstructor
 public class CreateBookStep implements SagaStep<CreateBookSagaContext> {
 
     private static final Logger log = LoggerFactory.getLogger(CreateBookStep.class);
 
     private final BookRepository bookRepository;
+    private final BookTombstoneRepository tombstoneRepository;
+    private final boolean replicated;
+
+    public CreateBookStep(BookRepository bookRepository, BookTombstoneRepository tombstoneRepository,
+            Environment environment) {
+        this.bookRepository = bookRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.replicated = environment.acceptsProfiles(Profiles.of("database-per-instance"));
+    }
 
     @Override
     public boolean execute(CreateBookSagaContext context) {
@@ -42,8 +58,13 @@ public class CreateBookStep implements SagaStep<CreateBookSagaContext> {
                     context.getResolvedGenre(),
                     context.getResolvedAuthors(),
                     context.getPhotoURI());
+            Optional<BookTombstone> tombstone = replicated
+                    ? tombstoneRepository.findById(context.getIsbn())
+                    : Optional.empty();
+            tombstone.ifPresent(deleted -> newBook.startAfterDeletedVersion(deleted.getVersion()));
 
             Book savedBook = bookRepository.save(newBook);
+            tombstone.ifPresent(tombstoneRepository::delete);
             context.setCreatedBook(savedBook);
 
             log.info("Book created successfully with ISBN: {}", savedBook.getIsbn());
@@ -59,7 +59,7 @@ public class PublishBookCreatedEventStep implements SagaStep<CreateBookSagaConte
                     book.getIsbn(),
                     "BookCreatedEvent",
                     bookView,
-                    RabbitmqConfig.EXCHANGE_NAME,
+                    RabbitmqConfig.EVENTS_EXCHANGE,
                     BookEvents.BOOK_CREATED);
 
             log.info("Saved BookCreated event to outbox for book: {}", book.getIsbn());
@@ -1,29 +1,78 @@
 package pt.psoft.g1.psoftg1.bookmanagement.listeners;
 
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Description;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Title;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCacheInvalidator;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventStore;
+import pt.psoft.g1.psoftg1.shared.infrastructure.latency.EventLatencyTracker;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookDigestService;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookTombstone;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookTombstoneRepository;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
 
 import java.util.ArrayList;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * RabbitMQ Listener for Book events.
- * 
+ *
  * NOTE: This listener is DISABLED when using shared database architecture.
  * When all microservice instances share the same database, synchronization
  * via events is not needed - the database itself provides consistency.
- * 
+ *
  * This listener is only needed in the database-per-instance architecture
  * where each instance has its own database and needs to sync through events.
- * 
+ *
+ * Events are sharded by ISBN over several queues, each consumed by its own
+ * container (see RabbitmqConfig.BookSyncConfig), so different books sync in
+ * parallel while the events of one book stay in order.
+ *
+ * Messages are consumed in batches (see
+ * {@link RabbitmqConfig#BATCH_LISTENER_CONTAINER_FACTORY}): the ISBNs and
+ * genres of a whole batch are resolved with one query each and the changes are
+ * written in a single transaction, so a replica catching up drains its queues
+ * quickly. Within a batch, i.e. within the batch receive timeout, the events of
+ * one ISBN are conflated so a burst of updates is written once, with the newest
+ * version. Updates are last-writer-wins on the book version.
+ *
+ * Deletes leave a {@link BookTombstone} with the deleted version, so a create
+ * or update that arrives after the delete, such as a retried message, is
+ * dropped instead of bringing the book back.
+ *
+ * If the batch transaction fails, the messages are applied one by one so that
+ * a single bad message does not discard the rest of the batch; the ones that
+ * still fail are returned to the caller, which schedules a delayed retry (see
+ * RabbitmqConfig.BookSyncConfig).
+ *
+ * The receive and apply times of every event are recorded in the
+ * {@link EventLatencyTracker}, together with the timestamps the publisher
+ * stamped on it.
+ *
+ * Events are delivered at least once, so redeliveries are dropped up front by
+ * the {@link ProcessedEventStore}, without any database access.
+ *
  * To enable: change Profile to "database-per-instance" or remove the profile
  */
 @Profile("database-per-instance") // Disabled by default - enable for DB-per-instance architecture
@@ -31,116 +80,354 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class BookEventsListener {
 
+    private static final Logger log = LoggerFactory.getLogger(BookEventsListener.class);
+
     private final BookRepository bookRepository;
+    private final BookTombstoneRepository tombstoneRepository;
     private final GenreRepository genreRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcessedEventStore processedEventStore;
+    private final EventLatencyTracker latencyTracker;
+    private final BookDigestService digestService;
+    private final ViewCacheInvalidator viewCacheInvalidator;
+    private final NegativeCache negativeCache;
 
     @Value("${spring.application.instance-id:default}")
     private String instanceId;
 
     /**
-     * Handles BOOK_CREATED events from other instances.
-     * Creates the book in the local database if it doesn't exist.
+     * Handles a batch of book events from one shard queue.
+     *
+     * All events of a book arrive on the same shard, in publish order. The
+     * events of each ISBN are conflated into one pending change; the batch is
+     * only split where a book is re-created after being deleted, so the delete
+     * is applied first. Everything runs within one transaction.
+     *
+     * @param messages The events, with their routing key, message id and app id
+     *                 headers
+     * @return The events that could not be applied, to be retried later
      */
-    @RabbitListener(queues = "#{queueBookCreated.name}")
-    public void handleBookCreated(BookViewAMQP bookView) {
-        System.out.println("[" + instanceId + "] Received BOOK_CREATED event for ISBN: " + bookView.getIsbn());
+    public List<Message<BookViewAMQP>> handleBookEvents(List<Message<BookViewAMQP>> messages) {
+        long receivedAt = System.currentTimeMillis();
+        List<Message<BookViewAMQP>> fresh = processedEventStore.dropDuplicates(messages);
+        log.debug("[{}] Received {} book events ({} duplicates dropped)", instanceId, messages.size(),
+                messages.size() - fresh.size());
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
 
         try {
-            // Check if book already exists locally
-            Optional<Book> existingBook = bookRepository.findByIsbn(bookView.getIsbn());
-            if (existingBook.isPresent()) {
-                System.out.println("[" + instanceId + "] Book already exists locally, skipping: " + bookView.getIsbn());
-                return;
+            transactionTemplate.executeWithoutResult(status -> apply(fresh));
+            recordLatencies(fresh, receivedAt);
+            return List.of();
+        } catch (RuntimeException e) {
+            if (fresh.size() == 1) {
+                log.error("[{}] Failed to sync book: {} - {}", instanceId, fresh.get(0).getPayload().getIsbn(),
+                        e.getMessage());
+                return fresh;
             }
+            log.warn("[{}] Failed to sync batch of {} books, retrying one by one: {}",
+                    instanceId, fresh.size(), e.getMessage());
+        }
 
-            // Find or create genre
-            Optional<Genre> genre = genreRepository.findByString(bookView.getGenre());
-            if (genre.isEmpty()) {
-                System.out.println("[" + instanceId + "] Genre not found, creating: " + bookView.getGenre());
-                Genre newGenre = new Genre(bookView.getGenre());
-                genreRepository.save(newGenre);
-                genre = Optional.of(newGenre);
+        // Fall back to one transaction per message, still in order
+        List<Message<BookViewAMQP>> failed = new ArrayList<>();
+        for (Message<BookViewAMQP> message : fresh) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(List.of(message)));
+                recordLatencies(List.of(message), receivedAt);
+            } catch (RuntimeException e) {
+                log.error("[{}] Failed to sync book: {} - {}", instanceId, message.getPayload().getIsbn(),
+                        e.getMessage());
+                failed.add(message);
             }
+        }
+        return failed;
+    }
 
-            // Create book with minimal data (no authors for now, as they come from Author
-            // service)
-            // In a full implementation, you'd also sync authors via events
-            Book newBook = new Book(
-                    bookView.getIsbn(),
-                    bookView.getTitle(),
-                    bookView.getDescription(),
-                    genre.get(),
-                    new ArrayList<>(), // Authors would be synced separately
-                    null);
+    private void recordLatencies(List<Message<BookViewAMQP>> messages, long receivedAt) {
+        long appliedAt = System.currentTimeMillis();
+        for (Message<BookViewAMQP> message : messages) {
+            Long createdAt = EventLatencyTracker.timestamp(
+                    message.getHeaders().get(EventLatencyTracker.CREATED_AT_HEADER));
+            Long publishedAt = EventLatencyTracker.timestamp(
+                    message.getHeaders().get(EventLatencyTracker.PUBLISHED_AT_HEADER));
+            latencyTracker.record(EventLatencyTracker.HOP_BROKER, publishedAt, receivedAt);
+            latencyTracker.record(EventLatencyTracker.HOP_APPLY, receivedAt, appliedAt);
+            latencyTracker.record(EventLatencyTracker.HOP_END_TO_END, createdAt, appliedAt);
+        }
+    }
 
-            bookRepository.save(newBook);
-            System.out.println("[" + instanceId + "] Book synchronized successfully: " + bookView.getIsbn());
+    private void apply(List<Message<BookViewAMQP>> messages) {
+        Map<String, PendingChange> segment = new LinkedHashMap<>();
+        int changes = 0;
+        for (Message<BookViewAMQP> message : messages) {
+            String eventType = eventType(message);
+            if (!isKnownEventType(eventType)) {
+                log.warn("[{}] Ignoring event of unknown type: {}", instanceId, eventType);
+                continue;
+            }
 
-        } catch (Exception e) {
-            System.err.println(
-                    "[" + instanceId + "] Failed to sync book: " + bookView.getIsbn() + " - " + e.getMessage());
+            BookViewAMQP bookView = message.getPayload();
+            PendingChange pending = segment.get(bookView.getIsbn());
+            if (pending != null && pending.isDelete() && !BookEvents.BOOK_DELETED.equals(eventType)) {
+                // A book re-created after a delete must not be merged into the delete
+                changes += applySegment(segment);
+                segment.clear();
+                pending = null;
+            }
+            segment.put(bookView.getIsbn(),
+                    pending == null ? new PendingChange(eventType, bookView) : pending.conflate(eventType, bookView));
         }
+        changes += applySegment(segment);
+
+        if (changes < messages.size()) {
+            log.debug("[{}] Conflated {} book events into {} changes", instanceId, messages.size(), changes);
+        }
+        processedEventStore.recordProcessed(messages);
     }
 
     /**
-     * Handles BOOK_UPDATED events from other instances.
-     * Updates the book in the local database.
+     * Applies one change per ISBN. The ISBNs of a segment are distinct, so the
+     * order between deletes, creates and updates does not matter.
      */
-    @RabbitListener(queues = "#{queueBookUpdated.name}")
-    public void handleBookUpdated(BookViewAMQP bookView) {
-        System.out.println("[" + instanceId + "] Received BOOK_UPDATED event for ISBN: " + bookView.getIsbn());
+    private int applySegment(Map<String, PendingChange> segment) {
+        if (segment.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<BookViewAMQP>> byType = segment.values().stream()
+                .collect(Collectors.groupingBy(PendingChange::eventType, LinkedHashMap::new,
+                        Collectors.mapping(PendingChange::bookView, Collectors.toList())));
 
-        try {
-            Optional<Book> existingBook = bookRepository.findByIsbn(bookView.getIsbn());
-            if (existingBook.isEmpty()) {
-                // Book doesn't exist locally, treat as create
-                System.out.println("[" + instanceId + "] Book not found locally, creating: " + bookView.getIsbn());
-                handleBookCreated(bookView);
+        byType.forEach((eventType, bookViews) -> {
+            switch (eventType) {
+                case BookEvents.BOOK_CREATED -> upsert(bookViews, false);
+                case BookEvents.BOOK_UPDATED -> upsert(bookViews, true);
+                default -> delete(bookViews);
+            }
+        });
+        return segment.size();
+    }
+
+    private static boolean isKnownEventType(String eventType) {
+        return BookEvents.BOOK_CREATED.equals(eventType)
+                || BookEvents.BOOK_UPDATED.equals(eventType)
+                || BookEvents.BOOK_DELETED.equals(eventType);
+    }
+
+    private static String eventType(Message<BookViewAMQP> message) {
+        String routingKey = message.getHeaders().get(AmqpHeaders.RECEIVED_ROUTING_KEY, String.class);
+        return routingKey != null ? routingKey : "";
+    }
+
+    /**
+     * Creates the missing books and, for updates, overwrites the existing ones
+     * whose version is older than the received one (last-writer-wins). The
+     * updates are one batch of conditional statements, so they need no read
+     * and cannot overwrite a newer local copy. Books deleted at the received
+     * version or later are skipped.
+     */
+    private void upsert(List<BookViewAMQP> bookViews, boolean applyUpdates) {
+        Map<String, BookViewAMQP> latestByIsbn = withoutDeleted(latestByIsbn(bookViews));
+        if (latestByIsbn.isEmpty()) {
+            return;
+        }
+        Map<String, Genre> genres = resolveGenres(latestByIsbn.values());
+
+        int updated = 0;
+        Map<String, BookViewAMQP> notUpdated = latestByIsbn;
+        if (applyUpdates) {
+            Set<String> updatedIsbns = updateAllIfNewer(latestByIsbn.values(), genres);
+            updated = updatedIsbns.size();
+            notUpdated = new LinkedHashMap<>(latestByIsbn);
+            notUpdated.keySet().removeAll(updatedIsbns);
+            if (notUpdated.isEmpty()) {
+                log.info("[{}] Synchronized {} of {} received books", instanceId, updated, bookViews.size());
                 return;
             }
+        }
+
+        Set<String> existingIsbns = bookRepository.findByIsbnIn(notUpdated.keySet()).stream()
+                .map(Book::getIsbn)
+                .collect(Collectors.toSet());
+
+        List<Book> newBooks = new ArrayList<>();
+        List<BookViewAMQP> newBookViews = new ArrayList<>();
+        for (BookViewAMQP bookView : notUpdated.values()) {
+            if (existingIsbns.contains(bookView.getIsbn())) {
+                log.debug("[{}] Skipping book, local copy is same or newer: {}", instanceId, bookView.getIsbn());
+                continue;
+            }
+            // Authors are synchronized separately through the author events
+            newBooks.add(Book.replicaOf(bookView.getIsbn(), bookView.getTitle(),
+                    bookView.getDescription(), genres.get(bookView.getGenre())));
+            newBookViews.add(bookView);
+        }
+        bookRepository.saveAll(newBooks);
 
-            // For updates, we need to be careful with version conflicts
-            // In a real implementation, you'd use vector clocks or similar
-            Book book = existingBook.get();
+        // New copies start at version 0; adopt the origin's version so later updates compare correctly
+        updateAllIfNewer(newBookViews.stream().filter(bookView -> version(bookView) > 0).toList(), genres);
 
-            // Only update if incoming version is newer
-            if (bookView.getVersion() != null && bookView.getVersion() > book.getVersion()) {
-                // Update book fields - this is a simplified sync
-                // A full implementation would update all fields
-                System.out.println("[" + instanceId + "] Book updated successfully: " + bookView.getIsbn());
+        log.info("[{}] Synchronized {} of {} received books", instanceId, updated + newBooks.size(), bookViews.size());
+    }
+
+    /**
+     * @return The ISBNs of the books updated
+     */
+    private Set<String> updateAllIfNewer(Collection<BookViewAMQP> bookViews, Map<String, Genre> genres) {
+        Map<String, BookViewAMQP> versioned = new LinkedHashMap<>();
+        List<BookRepository.ReplicaUpdate> updates = new ArrayList<>();
+        for (BookViewAMQP bookView : bookViews) {
+            if (bookView.getVersion() != null) {
+                versioned.put(bookView.getIsbn(), bookView);
+                // Same validation as the entity setters, since the update bypasses them
+                updates.add(new BookRepository.ReplicaUpdate(bookView.getIsbn(),
+                        new Title(bookView.getTitle()).toString(),
+                        new Description(bookView.getDescription()).toString(),
+                        genres.get(bookView.getGenre()), bookView.getVersion()));
+            }
+        }
+        if (updates.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> updated = bookRepository.updateAllIfNewer(updates);
+        if (!updated.isEmpty()) {
+            // Bulk updates bypass the entity listeners that maintain the digest and the caches
+            updated.forEach(isbn -> {
+                digestService.bookSaved(isbn, versioned.get(isbn).getVersion());
+                viewCacheInvalidator.bookChanged(isbn);
+            });
+            negativeCache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+        }
+        return updated;
+    }
+
+    /**
+     * Drops the changes a tombstone shows to predate the book's delete and
+     * clears the tombstones of the books re-created since.
+     */
+    private Map<String, BookViewAMQP> withoutDeleted(Map<String, BookViewAMQP> latestByIsbn) {
+        List<BookTombstone> tombstones = tombstoneRepository.findAllById(latestByIsbn.keySet());
+        if (tombstones.isEmpty()) {
+            return latestByIsbn;
+        }
+        Map<String, BookViewAMQP> live = new LinkedHashMap<>(latestByIsbn);
+        List<BookTombstone> cleared = new ArrayList<>();
+        for (BookTombstone tombstone : tombstones) {
+            if (tombstone.supersedes(live.get(tombstone.getIsbn()).getVersion())) {
+                log.debug("[{}] Skipping book deleted at version {}: {}", instanceId, tombstone.getVersion(),
+                        tombstone.getIsbn());
+                live.remove(tombstone.getIsbn());
             } else {
-                System.out.println(
-                        "[" + instanceId + "] Skipping update, local version is same or newer: " + bookView.getIsbn());
+                cleared.add(tombstone);
             }
+        }
+        tombstoneRepository.deleteAll(cleared);
+        return live;
+    }
+
+    /**
+     * Deletes the local copies and records a tombstone for every received
+     * ISBN, even if the book never arrived here. Deletes are last-writer-wins
+     * like updates: a local copy newer than the deleted version is kept, so
+     * replicas exchanging their books and tombstones (see
+     * BookAntiEntropyService) converge whatever order they apply them in.
+     */
+    private void delete(List<BookViewAMQP> bookViews) {
+        Map<String, Long> deletedVersions = new HashMap<>();
+        for (BookViewAMQP bookView : latestByIsbn(bookViews).values()) {
+            deletedVersions.put(bookView.getIsbn(), Math.max(version(bookView), 0L));
+        }
 
-        } catch (Exception e) {
-            System.err.println(
-                    "[" + instanceId + "] Failed to update book: " + bookView.getIsbn() + " - " + e.getMessage());
+        List<Book> books = new ArrayList<>();
+        for (Book book : bookRepository.findByIsbnIn(deletedVersions.keySet())) {
+            if (book.getVersion() != null && book.getVersion() > deletedVersions.get(book.getIsbn())) {
+                log.debug("[{}] Keeping book, local copy is newer than the delete: {}", instanceId, book.getIsbn());
+                deletedVersions.remove(book.getIsbn());
+            } else {
+                books.add(book);
+            }
         }
+
+        Map<String, BookTombstone> tombstones = new HashMap<>();
+        tombstoneRepository.findAllById(deletedVersions.keySet())
+                .forEach(tombstone -> tombstones.put(tombstone.getIsbn(), tombstone));
+        deletedVersions.forEach((isbn, version) -> {
+            BookTombstone tombstone = tombstones.get(isbn);
+            if (tombstone != null) {
+                tombstone.deletedAgain(version);
+            } else {
+                tombstones.put(isbn, new BookTombstone(isbn, version));
+            }
+        });
+
+        bookRepository.deleteAll(books);
+        tombstoneRepository.saveAll(tombstones.values());
+        log.info("[{}] Deleted {} of {} received books", instanceId, books.size(), bookViews.size());
     }
 
     /**
-     * Handles BOOK_DELETED events from other instances.
-     * Deletes the book from the local database.
+     * Collapses a batch to one message per ISBN, keeping the highest version.
      */
-    @RabbitListener(queues = "#{queueBookDeleted.name}")
-    public void handleBookDeleted(BookViewAMQP bookView) {
-        System.out.println("[" + instanceId + "] Received BOOK_DELETED event for ISBN: " + bookView.getIsbn());
+    private static Map<String, BookViewAMQP> latestByIsbn(List<BookViewAMQP> bookViews) {
+        Map<String, BookViewAMQP> latest = new LinkedHashMap<>();
+        for (BookViewAMQP bookView : bookViews) {
+            latest.merge(bookView.getIsbn(), bookView,
+                    (current, candidate) -> version(candidate) >= version(current) ? candidate : current);
+        }
+        return latest;
+    }
 
-        try {
-            Optional<Book> existingBook = bookRepository.findByIsbn(bookView.getIsbn());
-            if (existingBook.isEmpty()) {
-                System.out.println(
-                        "[" + instanceId + "] Book not found locally, nothing to delete: " + bookView.getIsbn());
-                return;
+    /**
+     * Loads all genres referenced by the batch with one query and creates the
+     * missing ones in bulk.
+     */
+    private Map<String, Genre> resolveGenres(Iterable<BookViewAMQP> bookViews) {
+        List<String> genreNames = new ArrayList<>();
+        bookViews.forEach(bookView -> {
+            if (bookView.getGenre() != null && !genreNames.contains(bookView.getGenre())) {
+                genreNames.add(bookView.getGenre());
             }
+        });
+
+        Map<String, Genre> genres = new LinkedHashMap<>();
+        for (Genre genre : genreRepository.findByStrings(genreNames)) {
+            genres.put(genre.toString(), genre);
+        }
+
+        List<Genre> missingGenres = genreNames.stream()
+                .filter(name -> !genres.containsKey(name))
+                .map(Genre::new)
+                .toList();
+        if (!missingGenres.isEmpty()) {
+            log.debug("[{}] Creating {} missing genres", instanceId, missingGenres.size());
+            genreRepository.saveAll(missingGenres).forEach(genre -> genres.put(genre.toString(), genre));
+        }
+        return genres;
+    }
 
-            bookRepository.delete(existingBook.get());
-            System.out.println("[" + instanceId + "] Book deleted successfully: " + bookView.getIsbn());
+    private static long version(BookViewAMQP bookView) {
+        return bookView.getVersion() != null ? bookView.getVersion() : -1L;
+    }
 
-        } catch (Exception e) {
-            System.err.println(
-                    "[" + instanceId + "] Failed to delete book: " + bookView.getIsbn() + " - " + e.getMessage());
+    /**
+     * The pending change of one ISBN within a batch. Consecutive creates and
+     * updates collapse into the newest version; a delete supersedes them.
+     */
+    private record PendingChange(String eventType, BookViewAMQP bookView) {
+
+        boolean isDelete() {
+            return BookEvents.BOOK_DELETED.equals(eventType);
+        }
+
+        PendingChange conflate(String nextEventType, BookViewAMQP next) {
+            if (BookEvents.BOOK_DELETED.equals(nextEventType)) {
+                return new PendingChange(nextEventType, next);
+            }
+            String mergedType = BookEvents.BOOK_CREATED.equals(eventType) && BookEvents.BOOK_CREATED.equals(nextEventType)
+                    ? BookEvents.BOOK_CREATED
+                    : BookEvents.BOOK_UPDATED;
+            return new PendingChange(mergedType, version(next) >= version(bookView) ? next : bookView);
         }
     }
 }
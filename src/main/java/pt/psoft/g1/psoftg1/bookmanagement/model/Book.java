@@ -4,19 +4,32 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import org.hibernate.StaleObjectStateException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.shared.infrastructure.bloom.BookExistenceEntityListener;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCacheEntityListener;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCacheEntityListener;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookDigestEntityListener;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+@EntityListeners({ BookExistenceEntityListener.class, BookDigestEntityListener.class,
+        ViewCacheEntityListener.class, NegativeCacheEntityListener.class })
 @Table(name = "Book", uniqueConstraints = {
         @UniqueConstraint(name = "uc_book_isbn", columnNames = { "ISBN" })
-})
+}, indexes = @Index(name = "idx_book_title_folded", columnList = "TITLE_FOLDED"))
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -26,6 +39,7 @@ public class Book {
     @Getter
     private Long version;
 
+    @NaturalId
     @Embedded
     Isbn isbn;
 
@@ -41,6 +55,7 @@ public class Book {
 
     @Getter
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Author> authors = new ArrayList<>();
 
     @Embedded
@@ -90,6 +105,46 @@ public class Book {
         // got ORM only
     }
 
+    /**
+     * Creates the local copy of a book received from another instance
+     * (database-per-instance replication). Authors are synchronized separately,
+     * so unlike the public constructor the author list may start empty.
+     */
+    public static Book replicaOf(String isbn, String title, String description, Genre genre) {
+        return replicaOf(isbn, title, description, genre, new ArrayList<>(), null);
+    }
+
+    /**
+     * Creates the local copy of a book loaded from another instance's catalog
+     * snapshot, keeping its authors and version.
+     */
+    public static Book replicaOf(String isbn, String title, String description, Genre genre, List<Author> authors,
+            Long version) {
+        if (genre == null)
+            throw new IllegalArgumentException("Genre cannot be null");
+        if (authors == null)
+            throw new IllegalArgumentException("Author list is null");
+
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        if (description != null)
+            book.setDescription(description);
+        book.setGenre(genre);
+        book.setAuthors(authors);
+        book.version = version;
+        return book;
+    }
+
+    /**
+     * Starts a new book above the version an earlier book with its ISBN was
+     * deleted at, so replicas that still hold the delete take it for a
+     * re-creation rather than a stale change. Only for books not yet persisted.
+     */
+    public void startAfterDeletedVersion(long deletedVersion) {
+        this.version = deletedVersion + 1;
+    }
+
     public void removePhoto(long desiredVersion) {
         if (desiredVersion != this.version) {
             throw new ConflictException("Provided version does not match latest version of this object");
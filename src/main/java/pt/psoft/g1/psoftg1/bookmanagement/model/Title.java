@@ -6,6 +6,7 @@ import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
 
 @Embeddable
 public class Title {
@@ -17,6 +18,11 @@ public class Title {
     @Getter
     String title;
 
+    /** The title as searched, see {@link FoldedText} */
+    @Column(name = "TITLE_FOLDED", length = TITLE_MAX_LENGTH)
+    @Getter
+    String titleFolded;
+
     protected Title() {}
 
     public Title(String title) {
@@ -37,6 +43,7 @@ public class Title {
         if(title.length() > TITLE_MAX_LENGTH)
             throw new IllegalArgumentException("Title has a maximum of " + TITLE_MAX_LENGTH + " characters");
         this.title = title.strip();
+        this.titleFolded = FoldedText.fold(this.title, TITLE_MAX_LENGTH);
     }
 
     public String toString() {
@@ -1,23 +1,30 @@
 package pt.psoft.g1.psoftg1.bookmanagement.publishers;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
 import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
+import pt.psoft.g1.psoftg1.shared.infrastructure.latency.EventLatencyTracker;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
 
 /**
  * RabbitMQ implementation of BookEventsPublisher.
- * Publishes book events to FanoutExchanges for broadcast to ALL instances.
  * 
- * Uses FanoutExchange instead of DirectExchange to ensure all LMS-Books
- * instances receive all events and can sync their local databases.
+ * Publishes each book event exactly once to the "LMS.events" topic exchange,
+ * using the event type as routing key. The broker fans it out to all LMS-Books
+ * instance queues and to the legacy exchanges used by other services
+ * (see {@link RabbitmqConfig}).
  */
 @Profile("!test")
 @Component
 public class BookEventsRabbitmqPublisher implements BookEventsPublisher {
 
+    private static final Logger log = LoggerFactory.getLogger(BookEventsRabbitmqPublisher.class);
+
     private final RabbitTemplate rabbitTemplate;
 
     @Value("${spring.application.instance-id:default}")
@@ -29,46 +36,28 @@ public class BookEventsRabbitmqPublisher implements BookEventsPublisher {
 
     @Override
     public void sendBookCreated(BookViewAMQP bookView) {
-        // Publish to FanoutExchange (broadcast to all instances)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.FANOUT_EXCHANGE_CREATED,
-                "", // Fanout ignores routing key
-                bookView);
-        // Also publish to DirectExchange for other services (e.g., Lending service)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.EXCHANGE_NAME,
-                "book.created",
-                bookView);
-        System.out.println("[" + instanceId + "] Published BOOK_CREATED event for ISBN: " + bookView.getIsbn());
+        publish(BookEvents.BOOK_CREATED, bookView);
     }
 
     @Override
     public void sendBookUpdated(BookViewAMQP bookView) {
-        // Publish to FanoutExchange (broadcast to all instances)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.FANOUT_EXCHANGE_UPDATED,
-                "", // Fanout ignores routing key
-                bookView);
-        // Also publish to DirectExchange for other services
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.EXCHANGE_NAME,
-                "book.updated",
-                bookView);
-        System.out.println("[" + instanceId + "] Published BOOK_UPDATED event for ISBN: " + bookView.getIsbn());
+        publish(BookEvents.BOOK_UPDATED, bookView);
     }
 
     @Override
     public void sendBookDeleted(BookViewAMQP bookView) {
-        // Publish to FanoutExchange (broadcast to all instances)
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.FANOUT_EXCHANGE_DELETED,
-                "", // Fanout ignores routing key
-                bookView);
-        // Also publish to DirectExchange for other services
-        rabbitTemplate.convertAndSend(
-                RabbitmqConfig.EXCHANGE_NAME,
-                "book.deleted",
-                bookView);
-        System.out.println("[" + instanceId + "] Published BOOK_DELETED event for ISBN: " + bookView.getIsbn());
+        publish(BookEvents.BOOK_DELETED, bookView);
+    }
+
+    private void publish(String routingKey, BookViewAMQP bookView) {
+        rabbitTemplate.convertAndSend(RabbitmqConfig.EVENTS_EXCHANGE, routingKey, bookView, message -> {
+            message.getMessageProperties().setHeader(BookEvents.SHARD_HEADER, BookEvents.shardOf(bookView.getIsbn()));
+            // Not sent through the outbox: created, committed and published at once
+            long now = System.currentTimeMillis();
+            message.getMessageProperties().setHeader(EventLatencyTracker.CREATED_AT_HEADER, now);
+            message.getMessageProperties().setHeader(EventLatencyTracker.PUBLISHED_AT_HEADER, now);
+            return message;
+        });
+        log.debug("[{}] Published {} event for ISBN: {}", instanceId, routingKey, bookView.getIsbn());
     }
 }
@@ -0,0 +1,36 @@
+package pt.psoft.g1.psoftg1.bookmanagement.repositories;
+
+import pt.psoft.g1.psoftg1.shared.model.SparseField;
+
+/**
+ * The fields of a book a sparse fieldset can select, with the JPQL path of
+ * each relative to a book b joined to its genre g. Authors are a collection
+ * and are read by a query of their own.
+ */
+public enum BookField implements SparseField {
+    ISBN("isbn", "b.isbn.isbn"),
+    TITLE("title", "b.title.title"),
+    GENRE("genre", "g.genre"),
+    DESCRIPTION("description", "b.description.description"),
+    AUTHORS("authors", null);
+
+    private final String fieldName;
+    private final String path;
+
+    BookField(String fieldName, String path) {
+        this.fieldName = fieldName;
+        this.path = path;
+    }
+
+    @Override
+    public String fieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return The JPQL path of the column, null for the authors
+     */
+    public String path() {
+        return path;
+    }
+}
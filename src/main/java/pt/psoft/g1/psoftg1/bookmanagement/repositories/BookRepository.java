@@ -2,9 +2,13 @@ package pt.psoft.g1.psoftg1.bookmanagement.repositories;
 
 import org.springframework.data.repository.query.Param;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 
 /**
@@ -13,15 +17,70 @@ import java.util.Optional;
 public interface BookRepository {
 
 
+    /**
+     * The searches by genre, title and author name find the books whose
+     * genre, title or name of an author starts with the given text, ignoring
+     * case and accents (see FoldedText).
+     */
     List<Book> findByGenre(@Param("genre") String genre);
     List<Book> findByTitle(@Param("title") String title);
     List<Book> findByAuthorName(@Param("authorName") String authorName);
     Optional<Book> findByIsbn(@Param("isbn") String isbn);
+
+    /**
+     * Reads only the version of a book, e.g. to answer a conditional request
+     * without loading the book and its authors.
+     */
+    Optional<Long> findVersionByIsbn(@Param("isbn") String isbn);
+    List<Book> findByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Loads the books with the given ISBNs and their genres and authors in
+     * one query, e.g. to answer a multi-get. Unknown ISBNs are skipped.
+     */
+    List<Book> findWithAuthorsByIsbnIn(Collection<String> isbns);
+
+    /**
+     * Sparse fieldset variants of the searches: read only the selected
+     * fields, e.g. never the description of a list that does not show it.
+     * Each book is a map from field name to value, in the order of
+     * {@link BookField}; the books are sorted by title.
+     *
+     * @param authorName Prefix of the name of an author of the books
+     */
+    List<Map<String, Object>> searchFields(String title, String genre, String authorName, Set<BookField> fields);
+    List<Map<String, Object>> findFieldsByIsbnIn(Collection<String> isbns, Set<BookField> fields);
+    List<Map<String, Object>> findFieldsByAuthorNumber(Long authorNumber, Set<BookField> fields);
     // Page<BookCountDTO> findTop5BooksLent(@Param("oneYearAgo") LocalDate oneYearAgo, Pageable pageable);
     List<Book> findBooksByAuthorNumber(Long authorNumber);
 
     // List<Book> searchBooks(pt.psoft.g1.psoftg1.shared.services.Page page, SearchBooksQuery query);
 
     Book save(Book book);
+    <S extends Book> Iterable<S> saveAll(Iterable<S> books);
     void delete(Book book);
+    void deleteAll(Iterable<? extends Book> books);
+
+    /**
+     * Overwrites the replicated fields of books and adopts the given versions,
+     * each only if it is newer than the stored one (last-writer-wins).
+     *
+     * @return The ISBNs of the updated books; the others do not exist or are
+     *         same or newer
+     */
+    Set<String> updateAllIfNewer(Collection<ReplicaUpdate> updates);
+
+    /**
+     * @return 1 if the book was updated, 0 if it does not exist or is same or newer
+     * @see #updateAllIfNewer(Collection)
+     */
+    default int updateIfNewer(String isbn, String title, String description, Genre genre, long version) {
+        return updateAllIfNewer(List.of(new ReplicaUpdate(isbn, title, description, genre, version))).size();
+    }
+
+    /**
+     * The replicated fields of a book at a version.
+     */
+    record ReplicaUpdate(String isbn, String title, String description, Genre genre, long version) {
+    }
 }
@@ -2,8 +2,13 @@ package pt.psoft.g1.psoftg1.bookmanagement.services;
 
 
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  *
@@ -12,10 +17,28 @@ public interface BookService {
     Book create(CreateBookRequest request, String isbn);
     Book save(Book book);
     Book findByIsbn(String isbn);
+    Optional<Long> findVersionByIsbn(String isbn);
+
+    /**
+     * @return The books with the given ISBNs, with their authors, loaded in
+     *         one query; unknown ISBNs are skipped
+     */
+    List<Book> findByIsbns(Collection<String> isbns);
+
+    /**
+     * Like {@link #findByIsbns}, reading only the selected fields.
+     */
+    List<Map<String, Object>> findFieldsByIsbns(Collection<String> isbns, Set<BookField> fields);
     Book update(UpdateBookRequest request, String currentVersion);
     List<Book> findByGenre(String genre);
     List<Book> findByTitle(String title);
     List<Book> findByAuthorName(String authorName);
+
+    /**
+     * Books matching any of the given criteria, sorted by title, reading only
+     * the selected fields.
+     */
+    List<Map<String, Object>> searchFields(String title, String genre, String authorName, Set<BookField> fields);
     // List<BookCountDTO> findTop5BooksLent();
     // Book removeBookPhoto(String isbn, long desiredVersion);
     // List<Book> getBooksSuggestionsForReader(String readerNumber);
@@ -12,6 +12,7 @@ import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.bookmanagement.infrastructure.saga.CreateBookSagaOrchestrator;
 import pt.psoft.g1.psoftg1.bookmanagement.model.*;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
 import lombok.RequiredArgsConstructor;
 import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
@@ -25,8 +26,11 @@ import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 
 //import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Book Service Implementation.
@@ -163,7 +167,13 @@ public class BookServiceImpl implements BookService {
 
 	@Override
 	public List<Book> findByAuthorName(String authorName) {
-		return bookRepository.findByAuthorName(authorName + "%");
+		return bookRepository.findByAuthorName(authorName);
+	}
+
+	@Override
+	public List<Map<String, Object>> searchFields(String title, String genre, String authorName,
+			Set<BookField> fields) {
+		return bookRepository.searchFields(title, genre, authorName, fields);
 	}
 
 	public Book findByIsbn(String isbn) {
@@ -171,6 +181,27 @@ public class BookServiceImpl implements BookService {
 				.orElseThrow(() -> new NotFoundException(Book.class, isbn));
 	}
 
+	@Override
+	public Optional<Long> findVersionByIsbn(String isbn) {
+		return bookRepository.findVersionByIsbn(isbn);
+	}
+
+	@Override
+	public List<Book> findByIsbns(Collection<String> isbns) {
+		if (isbns.isEmpty()) {
+			return List.of();
+		}
+		return bookRepository.findWithAuthorsByIsbnIn(isbns);
+	}
+
+	@Override
+	public List<Map<String, Object>> findFieldsByIsbns(Collection<String> isbns, Set<BookField> fields) {
+		if (isbns.isEmpty()) {
+			return List.of();
+		}
+		return bookRepository.findFieldsByIsbnIn(isbns, fields);
+	}
+
 	// public List<Book> getBooksSuggestionsForReader(String readerNumber) {
 	// List<Book> books = new ArrayList<>();
 
@@ -0,0 +1,78 @@
+package pt.psoft.g1.psoftg1.bootstrapping;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.CatalogSnapshotLoader;
+
+/**
+ * Bootstraps a new database-per-instance replica from a peer's catalog
+ * snapshot instead of replaying every event.
+ *
+ * When replication.bootstrap.peer-url is set, the book sync consumers are not
+ * started with the context (see RabbitmqConfig.BookSyncConfig). This runner
+ * declares the sync queues first, so events published from now on are
+ * buffered, then loads the peer's snapshot into the empty local database and
+ * only then starts the consumers. Events already contained in the snapshot
+ * are dropped by their producer watermark or applied idempotently.
+ *
+ * If the local catalog is not empty or the peer cannot be reached, the
+ * consumers are started without loading anything.
+ */
+@Component
+@RequiredArgsConstructor
+@Profile("database-per-instance & !test")
+@Order(2)
+public class ReplicaBootstrapper implements ApplicationRunner {
+
+    public static final String BOOK_SYNC_CONTAINER_PREFIX = "bookSync-";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaBootstrapper.class);
+
+    private final CatalogSnapshotLoader snapshotLoader;
+    private final AmqpAdmin amqpAdmin;
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final RestTemplateBuilder restTemplateBuilder;
+
+    @Value("${replication.bootstrap.peer-url:}")
+    private String peerUrl;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (peerUrl.isBlank()) {
+            return;
+        }
+
+        try {
+            if (snapshotLoader.isCatalogEmpty()) {
+                if (amqpAdmin instanceof RabbitAdmin rabbitAdmin) {
+                    rabbitAdmin.initialize();
+                }
+                long start = System.currentTimeMillis();
+                CatalogSnapshotLoader.Result result = restTemplateBuilder.build().execute(
+                        peerUrl + "/api/replication/snapshot", HttpMethod.GET, null,
+                        response -> snapshotLoader.load(response.getBody()));
+                log.info("Bootstrapped from {} in {} ms: {}", peerUrl, System.currentTimeMillis() - start, result);
+            } else {
+                log.info("Local catalog is not empty, skipping snapshot bootstrap");
+            }
+        } catch (RuntimeException e) {
+            log.error("Snapshot bootstrap from {} failed, syncing from events only: {}", peerUrl, e.getMessage());
+        } finally {
+            listenerEndpointRegistry.getListenerContainerIds().stream()
+                    .filter(id -> id.startsWith(BOOK_SYNC_CONTAINER_PREFIX))
+                    .forEach(id -> listenerEndpointRegistry.getListenerContainer(id).start());
+        }
+    }
+}
@@ -1,17 +1,37 @@
 package pt.psoft.g1.psoftg1.configuration;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.support.MessageBuilder;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+import pt.psoft.g1.psoftg1.bookmanagement.listeners.BookEventsListener;
+import pt.psoft.g1.psoftg1.bootstrapping.ReplicaBootstrapper;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecMessageConverter;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecRegistry;
+import pt.psoft.g1.psoftg1.shared.infrastructure.retry.DelayedRetryPublisher;
+import pt.psoft.g1.psoftg1.shared.model.AuthorEvents;
 import pt.psoft.g1.psoftg1.shared.model.BookEvents;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * RabbitMQ Configuration for Books Service.
  * 
@@ -26,6 +46,15 @@ import pt.psoft.g1.psoftg1.shared.model.BookEvents;
  * - Enable the BookEventsListener by setting profile "database-per-instance"
  * - Each instance receives events and syncs its local database
  * 
+ * Topology (single publish):
+ * - Every event is published ONCE to the "LMS.events" topic exchange with its
+ * event type as routing key (book.created, author.updated, ...)
+ * - Instance queues are bound directly to the topic exchange
+ * - The legacy exchanges used by other services (the "LMS.books" direct
+ * exchange and the per-event fanouts) are bound to the topic exchange with
+ * exchange-to-exchange bindings, so the broker fans the message out and
+ * existing consumers keep working unchanged
+ * 
  * Events published to other microservices:
  * - BOOK_CREATED
  * - BOOK_UPDATED
@@ -35,6 +64,15 @@ import pt.psoft.g1.psoftg1.shared.model.BookEvents;
 @Configuration
 public class RabbitmqConfig {
 
+    public static final String EVENTS_EXCHANGE = "LMS.events";
+
+    public static final String BOOK_SYNC_EXCHANGE = "LMS.books.sync";
+    public static final String BOOK_SYNC_RETRY_EXCHANGE = "LMS.books.sync.retry";
+    public static final String BOOK_SYNC_DEAD_LETTER_QUEUE = "LMS.books.sync.dlq";
+    public static final String BOOK_DIGEST_ROUTING_KEY = "replica.books.digest";
+
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchListenerContainerFactory";
+
     public static final String EXCHANGE_NAME = "LMS.books";
     public static final String FANOUT_EXCHANGE_CREATED = "LMS.books.created";
     public static final String FANOUT_EXCHANGE_UPDATED = "LMS.books.updated";
@@ -49,21 +87,30 @@ public class RabbitmqConfig {
     private String instanceId;
 
     /**
-     * JSON Message Converter for RabbitMQ.
-     * Enables automatic serialization/deserialization of objects.
+     * Content-type aware Message Converter for RabbitMQ.
+     * Publishes with the configured payload codec (JSON by default) and lets
+     * listeners decode JSON, CBOR or Smile messages, gzip-compressed or not.
      */
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(PayloadCodecRegistry payloadCodecRegistry) {
+        return new PayloadCodecMessageConverter(payloadCodecRegistry);
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
         return rabbitTemplate;
     }
 
+    /**
+     * Topic Exchange - the single entry point for all book and author events.
+     */
+    @Bean
+    public TopicExchange eventsExchange() {
+        return new TopicExchange(EVENTS_EXCHANGE);
+    }
+
     /**
      * Direct Exchange for backward compatibility with other services.
      */
@@ -107,6 +154,68 @@ public class RabbitmqConfig {
         return new FanoutExchange(AUTHOR_FANOUT_EXCHANGE_DELETED);
     }
 
+    /**
+     * Headers Exchange feeding the book sync shard queues of every instance
+     * (see {@link BookSyncConfig}). Routes on the shard header of book events.
+     */
+    @Bean
+    public HeadersExchange bookSyncExchange() {
+        return new HeadersExchange(BOOK_SYNC_EXCHANGE);
+    }
+
+    @Bean
+    public Binding bookSyncExchangeBinding(TopicExchange eventsExchange, HeadersExchange bookSyncExchange) {
+        return BindingBuilder.bind(bookSyncExchange).to(eventsExchange).with("book.*");
+    }
+
+    /**
+     * Exchange-to-exchange bindings feeding the legacy exchanges from the topic
+     * exchange. The routing key is preserved, so "LMS.books" consumers bound
+     * with "book.created" etc. still match.
+     */
+    @Bean
+    public Binding booksExchangeBookEventsBinding(TopicExchange eventsExchange, DirectExchange booksExchange) {
+        return BindingBuilder.bind(booksExchange).to(eventsExchange).with("book.*");
+    }
+
+    @Bean
+    public Binding booksExchangeAuthorEventsBinding(TopicExchange eventsExchange, DirectExchange booksExchange) {
+        return BindingBuilder.bind(booksExchange).to(eventsExchange).with("author.*");
+    }
+
+    @Bean
+    public Binding fanoutExchangeCreatedBinding(TopicExchange eventsExchange, FanoutExchange fanoutExchangeCreated) {
+        return BindingBuilder.bind(fanoutExchangeCreated).to(eventsExchange).with(BookEvents.BOOK_CREATED);
+    }
+
+    @Bean
+    public Binding fanoutExchangeUpdatedBinding(TopicExchange eventsExchange, FanoutExchange fanoutExchangeUpdated) {
+        return BindingBuilder.bind(fanoutExchangeUpdated).to(eventsExchange).with(BookEvents.BOOK_UPDATED);
+    }
+
+    @Bean
+    public Binding fanoutExchangeDeletedBinding(TopicExchange eventsExchange, FanoutExchange fanoutExchangeDeleted) {
+        return BindingBuilder.bind(fanoutExchangeDeleted).to(eventsExchange).with(BookEvents.BOOK_DELETED);
+    }
+
+    @Bean
+    public Binding authorFanoutExchangeCreatedBinding(TopicExchange eventsExchange,
+            FanoutExchange authorFanoutExchangeCreated) {
+        return BindingBuilder.bind(authorFanoutExchangeCreated).to(eventsExchange).with(AuthorEvents.AUTHOR_CREATED);
+    }
+
+    @Bean
+    public Binding authorFanoutExchangeUpdatedBinding(TopicExchange eventsExchange,
+            FanoutExchange authorFanoutExchangeUpdated) {
+        return BindingBuilder.bind(authorFanoutExchangeUpdated).to(eventsExchange).with(AuthorEvents.AUTHOR_UPDATED);
+    }
+
+    @Bean
+    public Binding authorFanoutExchangeDeletedBinding(TopicExchange eventsExchange,
+            FanoutExchange authorFanoutExchangeDeleted) {
+        return BindingBuilder.bind(authorFanoutExchangeDeleted).to(eventsExchange).with(AuthorEvents.AUTHOR_DELETED);
+    }
+
     @Profile("!test")
     @Configuration
     static class ReceiverConfig {
@@ -114,110 +223,274 @@ public class RabbitmqConfig {
         /**
          * Anonymous queues - each instance gets its own unique queue.
          * This ensures all instances receive all events (fan-out pattern).
+         * Book events are received through the shard queues of BookSyncConfig.
          */
-        @Bean(name = "queueBookCreated")
-        public Queue queueBookCreated() {
+        // Author Queues
+        @Bean(name = "queueAuthorCreated")
+        public Queue queueAuthorCreated() {
             return new AnonymousQueue();
         }
 
-        @Bean(name = "queueBookUpdated")
-        public Queue queueBookUpdated() {
+        @Bean(name = "queueAuthorUpdated")
+        public Queue queueAuthorUpdated() {
             return new AnonymousQueue();
         }
 
-        @Bean(name = "queueBookDeleted")
-        public Queue queueBookDeleted() {
+        @Bean(name = "queueAuthorDeleted")
+        public Queue queueAuthorDeleted() {
             return new AnonymousQueue();
         }
 
-        /**
-         * Bindings for Fanout Exchanges.
-         * Each queue is bound to its corresponding fanout exchange.
-         */
+        // Author Bindings to the topic exchange
         @Bean
-        public Binding bindingBookCreatedFanout(FanoutExchange fanoutExchangeCreated,
-                @Qualifier("queueBookCreated") Queue queueBookCreated) {
-            return BindingBuilder.bind(queueBookCreated)
-                    .to(fanoutExchangeCreated);
+        public Binding bindingAuthorCreated(TopicExchange eventsExchange,
+                @Qualifier("queueAuthorCreated") Queue queueAuthorCreated) {
+            return BindingBuilder.bind(queueAuthorCreated)
+                    .to(eventsExchange)
+                    .with(AuthorEvents.AUTHOR_CREATED);
         }
 
         @Bean
-        public Binding bindingBookUpdatedFanout(FanoutExchange fanoutExchangeUpdated,
-                @Qualifier("queueBookUpdated") Queue queueBookUpdated) {
-            return BindingBuilder.bind(queueBookUpdated)
-                    .to(fanoutExchangeUpdated);
+        public Binding bindingAuthorUpdated(TopicExchange eventsExchange,
+                @Qualifier("queueAuthorUpdated") Queue queueAuthorUpdated) {
+            return BindingBuilder.bind(queueAuthorUpdated)
+                    .to(eventsExchange)
+                    .with(AuthorEvents.AUTHOR_UPDATED);
         }
 
         @Bean
-        public Binding bindingBookDeletedFanout(FanoutExchange fanoutExchangeDeleted,
-                @Qualifier("queueBookDeleted") Queue queueBookDeleted) {
-            return BindingBuilder.bind(queueBookDeleted)
-                    .to(fanoutExchangeDeleted);
+        public Binding bindingAuthorDeleted(TopicExchange eventsExchange,
+                @Qualifier("queueAuthorDeleted") Queue queueAuthorDeleted) {
+            return BindingBuilder.bind(queueAuthorDeleted)
+                    .to(eventsExchange)
+                    .with(AuthorEvents.AUTHOR_DELETED);
         }
+    }
+
+    /**
+     * Changes of other instances sharing the database, for the in-memory
+     * state each instance keeps of the shared data: one anonymous queue per
+     * instance bound to the LMS.books.created/updated/deleted and
+     * LMS.authors.created/updated/deleted fanouts, consumed by a single
+     * listener (see
+     * RemoteChangeListener). With a database per instance the changes of other
+     * instances arrive through the book sync, which writes through this
+     * instance's entity manager.
+     */
+    @Profile("!database-per-instance & !test")
+    @Configuration
+    static class RemoteChangeConfig {
 
-        /**
-         * Bindings for Direct Exchange (backward compatibility).
-         */
         @Bean
-        public Binding bindingBookCreated(DirectExchange booksExchange,
-                @Qualifier("queueBookCreated") Queue queueBookCreated) {
-            return BindingBuilder.bind(queueBookCreated)
-                    .to(booksExchange)
-                    .with(BookEvents.BOOK_CREATED);
+        public Queue remoteChangeQueue() {
+            return new AnonymousQueue();
         }
 
         @Bean
-        public Binding bindingBookUpdated(DirectExchange booksExchange,
-                @Qualifier("queueBookUpdated") Queue queueBookUpdated) {
-            return BindingBuilder.bind(queueBookUpdated)
-                    .to(booksExchange)
-                    .with(BookEvents.BOOK_UPDATED);
+        public Declarables remoteChangeBindings(Queue remoteChangeQueue, FanoutExchange fanoutExchangeCreated,
+                FanoutExchange fanoutExchangeUpdated, FanoutExchange fanoutExchangeDeleted,
+                FanoutExchange authorFanoutExchangeCreated, FanoutExchange authorFanoutExchangeUpdated,
+                FanoutExchange authorFanoutExchangeDeleted) {
+            return new Declarables(
+                    BindingBuilder.bind(remoteChangeQueue).to(fanoutExchangeCreated),
+                    BindingBuilder.bind(remoteChangeQueue).to(fanoutExchangeUpdated),
+                    BindingBuilder.bind(remoteChangeQueue).to(fanoutExchangeDeleted),
+                    BindingBuilder.bind(remoteChangeQueue).to(authorFanoutExchangeCreated),
+                    BindingBuilder.bind(remoteChangeQueue).to(authorFanoutExchangeUpdated),
+                    BindingBuilder.bind(remoteChangeQueue).to(authorFanoutExchangeDeleted));
+        }
+    }
+
+    /**
+     * Book synchronization for the database-per-instance architecture.
+     *
+     * Each instance declares books.sync.shards anonymous queues and binds every
+     * shard bucket (see {@link BookEvents#shardOf(String)}) to exactly one of
+     * them, so all events of a book go to the same queue. Each queue has its own
+     * single-consumer batch container, which gives parallel consumption while
+     * keeping BOOK_CREATED/UPDATED/DELETED of the same ISBN in order.
+     *
+     * Messages that fail to sync are retried through TTL delay queues, one per
+     * books.sync.retry.delays tier, which dead-letter them back to their shard
+     * queue. After the last tier they end up in the shared
+     * {@link #BOOK_SYNC_DEAD_LETTER_QUEUE}. Unreadable messages go there
+     * directly.
+     *
+     * Replicas also exchange digests of their catalogs on
+     * {@link #BOOK_DIGEST_ROUTING_KEY} to detect and repair drift (see
+     * BookAntiEntropyService).
+     */
+    @Profile("database-per-instance & !test")
+    @Configuration
+    static class BookSyncConfig {
+
+        private static final Logger log = LoggerFactory.getLogger(BookSyncConfig.class);
+
+        /**
+         * Batch listener container factory used by BookEventsListener.
+         * The consumer collects up to books.sync.batch-size messages (or whatever
+         * arrived within books.sync.batch-receive-timeout ms) and hands them to
+         * the listener as one List, acknowledging them together.
+         */
+        @Bean(name = BATCH_LISTENER_CONTAINER_FACTORY)
+        public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+                SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                ConnectionFactory connectionFactory,
+                @Value("${books.sync.batch-size:100}") int batchSize,
+                @Value("${books.sync.batch-receive-timeout:200}") long receiveTimeout) {
+            SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+            configurer.configure(factory, connectionFactory);
+            factory.setBatchListener(true);
+            factory.setConsumerBatchEnabled(true);
+            factory.setBatchSize(batchSize);
+            factory.setPrefetchCount(batchSize);
+            factory.setReceiveTimeout(receiveTimeout);
+            // One consumer per shard queue, otherwise per-book ordering is lost
+            factory.setConcurrentConsumers(1);
+            factory.setMaxConcurrentConsumers(1);
+            return factory;
         }
 
         @Bean
-        public Binding bindingBookDeleted(DirectExchange booksExchange,
-                @Qualifier("queueBookDeleted") Queue queueBookDeleted) {
-            return BindingBuilder.bind(queueBookDeleted)
-                    .to(booksExchange)
-                    .with(BookEvents.BOOK_DELETED);
+        public Declarables bookSyncShards(HeadersExchange bookSyncExchange,
+                @Value("${books.sync.shards:4}") int shards) {
+            if (shards < 1 || shards > BookEvents.SHARD_BUCKETS) {
+                throw new IllegalArgumentException("books.sync.shards must be between 1 and " + BookEvents.SHARD_BUCKETS);
+            }
+
+            List<Declarable> declarables = new ArrayList<>();
+            List<Queue> queues = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                Queue queue = new AnonymousQueue();
+                queues.add(queue);
+                declarables.add(queue);
+            }
+            for (int bucket = 0; bucket < BookEvents.SHARD_BUCKETS; bucket++) {
+                declarables.add(BindingBuilder.bind(queues.get(bucket % shards))
+                        .to(bookSyncExchange)
+                        .where(BookEvents.SHARD_HEADER).matches(bucket));
+            }
+            return new Declarables(declarables);
         }
 
-        // Author Queues
-        @Bean(name = "queueAuthorCreated")
-        public Queue queueAuthorCreated() {
+        @Bean
+        public Queue bookDigestQueue() {
             return new AnonymousQueue();
         }
 
-        @Bean(name = "queueAuthorUpdated")
-        public Queue queueAuthorUpdated() {
-            return new AnonymousQueue();
+        @Bean
+        public Binding bookDigestBinding(TopicExchange eventsExchange,
+                @Qualifier("bookDigestQueue") Queue bookDigestQueue) {
+            return BindingBuilder.bind(bookDigestQueue)
+                    .to(eventsExchange)
+                    .with(BOOK_DIGEST_ROUTING_KEY);
         }
 
-        @Bean(name = "queueAuthorDeleted")
-        public Queue queueAuthorDeleted() {
-            return new AnonymousQueue();
+        @Bean
+        public HeadersExchange bookSyncRetryExchange() {
+            return new HeadersExchange(BOOK_SYNC_RETRY_EXCHANGE);
         }
 
-        // Author Bindings for Fanout Exchanges
         @Bean
-        public Binding bindingAuthorCreatedFanout(FanoutExchange authorFanoutExchangeCreated,
-                @Qualifier("queueAuthorCreated") Queue queueAuthorCreated) {
-            return BindingBuilder.bind(queueAuthorCreated)
-                    .to(authorFanoutExchangeCreated);
+        public Queue bookSyncDeadLetterQueue() {
+            return QueueBuilder.durable(BOOK_SYNC_DEAD_LETTER_QUEUE).build();
+        }
+
+        /**
+         * This instance's delay queues, shortest delay first. Expired messages
+         * are dead-lettered to the default exchange with the routing key they
+         * were retried with, which is the name of their shard queue.
+         */
+        @Bean
+        public Declarables bookSyncRetryQueues(HeadersExchange bookSyncRetryExchange,
+                @Value("${books.sync.retry.delays:1000,10000,60000}") long[] delays) {
+            List<Declarable> declarables = new ArrayList<>();
+            for (long delay : delays) {
+                Queue queue = new AnonymousQueue(new Base64UrlNamingStrategy("books.sync.retry." + delay + "ms."),
+                        Map.of("x-message-ttl", delay, "x-dead-letter-exchange", ""));
+                declarables.add(queue);
+                declarables.add(BindingBuilder.bind(queue)
+                        .to(bookSyncRetryExchange)
+                        .where(DelayedRetryPublisher.RETRY_TARGET_HEADER).matches(queue.getName()));
+            }
+            return new Declarables(declarables);
         }
 
         @Bean
-        public Binding bindingAuthorUpdatedFanout(FanoutExchange authorFanoutExchangeUpdated,
-                @Qualifier("queueAuthorUpdated") Queue queueAuthorUpdated) {
-            return BindingBuilder.bind(queueAuthorUpdated)
-                    .to(authorFanoutExchangeUpdated);
+        public DelayedRetryPublisher bookSyncRetryPublisher(RabbitTemplate rabbitTemplate,
+                @Qualifier("bookSyncRetryQueues") Declarables bookSyncRetryQueues) {
+            List<String> delayQueues = bookSyncRetryQueues.getDeclarablesByType(Queue.class).stream()
+                    .map(Queue::getName)
+                    .toList();
+            return new DelayedRetryPublisher(rabbitTemplate, BOOK_SYNC_RETRY_EXCHANGE, delayQueues,
+                    BOOK_SYNC_DEAD_LETTER_QUEUE);
         }
 
+        /**
+         * Registers one listener container per shard queue. The messages the
+         * listener could not apply are handed to the retry publisher. When
+         * bootstrapping from a peer's snapshot the containers start afterwards.
+         */
         @Bean
-        public Binding bindingAuthorDeletedFanout(FanoutExchange authorFanoutExchangeDeleted,
-                @Qualifier("queueAuthorDeleted") Queue queueAuthorDeleted) {
-            return BindingBuilder.bind(queueAuthorDeleted)
-                    .to(authorFanoutExchangeDeleted);
+        public RabbitListenerConfigurer bookSyncListeners(@Qualifier("bookSyncShards") Declarables bookSyncShards,
+                @Qualifier(BATCH_LISTENER_CONTAINER_FACTORY) SimpleRabbitListenerContainerFactory containerFactory,
+                BookEventsListener bookEventsListener,
+                MessageConverter messageConverter,
+                DelayedRetryPublisher bookSyncRetryPublisher,
+                @Value("${replication.bootstrap.peer-url:}") String bootstrapPeerUrl) {
+            return registrar -> {
+                List<Queue> queues = bookSyncShards.getDeclarablesByType(Queue.class);
+                for (int shard = 0; shard < queues.size(); shard++) {
+                    SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+                    endpoint.setId(ReplicaBootstrapper.BOOK_SYNC_CONTAINER_PREFIX + shard);
+                    endpoint.setQueues(queues.get(shard));
+                    // Started by the ReplicaBootstrapper once the snapshot is loaded
+                    endpoint.setAutoStartup(bootstrapPeerUrl.isBlank());
+                    endpoint.setMessageListener((BatchMessageListener) messages -> {
+                        Map<Object, Message> rawMessages = new IdentityHashMap<>();
+                        List<org.springframework.messaging.Message<BookViewAMQP>> events = toBookEvents(messages,
+                                messageConverter, rawMessages, bookSyncRetryPublisher);
+                        bookEventsListener.handleBookEvents(events)
+                                .forEach(failed -> bookSyncRetryPublisher.retry(rawMessages.get(failed)));
+                    });
+                    registrar.registerEndpoint(endpoint, containerFactory);
+                }
+            };
+        }
+
+        /**
+         * Converts raw AMQP messages to BookViewAMQP messages, keeping the
+         * headers the listener needs (event type, event id, the shard queue
+         * that keys the processed-event watermarks and the latency tracing
+         * timestamps) and remembering
+         * the raw message of each. Messages that cannot be converted are
+         * dead-lettered so they don't block the shard.
+         */
+        static List<org.springframework.messaging.Message<BookViewAMQP>> toBookEvents(
+                List<Message> messages, MessageConverter messageConverter, Map<Object, Message> rawMessages,
+                DelayedRetryPublisher retryPublisher) {
+            List<org.springframework.messaging.Message<BookViewAMQP>> events = new ArrayList<>(messages.size());
+            for (Message message : messages) {
+                MessageProperties properties = message.getMessageProperties();
+                properties.setInferredArgumentType(BookViewAMQP.class);
+                try {
+                    BookViewAMQP bookView = (BookViewAMQP) messageConverter.fromMessage(message);
+                    org.springframework.messaging.Message<BookViewAMQP> event = MessageBuilder.withPayload(bookView)
+                            .copyHeaders(properties.getHeaders())
+                            .setHeader(AmqpHeaders.RECEIVED_ROUTING_KEY,
+                                    DelayedRetryPublisher.originalRoutingKey(properties))
+                            .setHeader(AmqpHeaders.MESSAGE_ID, properties.getMessageId())
+                            .setHeader(AmqpHeaders.APP_ID, properties.getAppId())
+                            .setHeader(AmqpHeaders.CONSUMER_QUEUE, properties.getConsumerQueue())
+                            .build();
+                    events.add(event);
+                    rawMessages.put(event, message);
+                } catch (MessageConversionException | ClassCastException e) {
+                    log.error("Unreadable book event {}: {}", properties.getMessageId(), e.getMessage());
+                    retryPublisher.deadLetter(message, "Unreadable: " + e.getMessage());
+                }
+            }
+            return events;
         }
     }
 }
@@ -0,0 +1,75 @@
+package pt.psoft.g1.psoftg1.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import pt.psoft.g1.psoftg1.shared.infrastructure.routing.ReadYourWritesFilter;
+import pt.psoft.g1.psoftg1.shared.infrastructure.routing.ReplicaRoutingDataSource;
+import pt.psoft.g1.psoftg1.shared.infrastructure.routing.ReplicationHeartbeat;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas: with datasource.replicas.enabled=true, read-only
+ * transactions are served by the replicas at datasource.replicas.urls (same
+ * credentials as spring.datasource.*) and everything else by the primary at
+ * spring.datasource.url. See {@link ReplicaRoutingDataSource}.
+ *
+ * Replication itself is the database's business (e.g. PostgreSQL streaming
+ * replication); here only its lag is measured, by {@link ReplicationHeartbeat}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+            @Value("${datasource.replicas.urls:}") List<String> urls,
+            @Value("${datasource.replicas.max-lag:5s}") Duration maxLag) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim()).build();
+            String name = "replica-" + (replicas.size() + 1);
+            replica.setPoolName(name);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag.toMillis());
+    }
+
+    /**
+     * The DataSource of JPA and everything else: connections are only taken
+     * from the routing DataSource when first used, once the transaction has
+     * been marked read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicationHeartbeat replicationHeartbeat(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicationHeartbeat(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+}
@@ -0,0 +1,78 @@
+package pt.psoft.g1.psoftg1.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.SerializedSizeWeigher;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.FactoryBuilder;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache of the Book, Author and Genre entities, of
+ * the authors of each book and of the ISBN to book lookup.
+ *
+ * Each region is a Caffeine JCache cache bounded by memory: entries are
+ * weighed by their serialized size (see {@link SerializedSizeWeigher}) and
+ * the least recently used are evicted once a region exceeds its
+ * cache.entities.*.max-size budget.
+ *
+ * Every application context gets its own CacheManager, closed with it.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String BOOK_REGION = Book.class.getName();
+    public static final String BOOK_AUTHORS_REGION = Book.class.getName() + ".authors";
+    public static final String BOOK_NATURAL_ID_REGION = Book.class.getName() + "##NaturalId";
+    public static final String AUTHOR_REGION = Author.class.getName();
+    public static final String GENRE_REGION = Genre.class.getName();
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${cache.entities.book.max-size:16MB}") DataSize book,
+            @Value("${cache.entities.book-authors.max-size:4MB}") DataSize bookAuthors,
+            @Value("${cache.entities.book-natural-id.max-size:4MB}") DataSize bookNaturalId,
+            @Value("${cache.entities.author.max-size:8MB}") DataSize author,
+            @Value("${cache.entities.genre.max-size:1MB}") DataSize genre) {
+        Map<String, DataSize> budgets = new LinkedHashMap<>();
+        budgets.put(BOOK_REGION, book);
+        budgets.put(BOOK_AUTHORS_REGION, bookAuthors);
+        budgets.put(BOOK_NATURAL_ID_REGION, bookNaturalId);
+        budgets.put(AUTHOR_REGION, author);
+        budgets.put(GENRE_REGION, genre);
+
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("lms-books-" + UUID.randomUUID()), getClass().getClassLoader());
+        budgets.forEach((region, budget) -> cacheManager.createCache(region, regionConfiguration(budget)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(DataSize budget) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate already caches disassembled copies, no need to copy them again
+        configuration.setStoreByValue(false);
+        configuration.setMaximumWeight(OptionalLong.of(budget.toBytes()));
+        configuration.setWeigherFactory(Optional.of(FactoryBuilder.factoryOf(SerializedSizeWeigher.class)));
+        return configuration;
+    }
+}
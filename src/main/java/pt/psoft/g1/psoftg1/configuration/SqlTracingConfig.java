@@ -0,0 +1,46 @@
+package pt.psoft.g1.psoftg1.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import pt.psoft.g1.psoftg1.shared.infrastructure.sql.SqlStatementTracker;
+import pt.psoft.g1.psoftg1.shared.infrastructure.sql.TracingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Reports every statement run through the application's DataSource to the
+ * {@link SqlStatementTracker} (see /api/diagnostics/sql), unless
+ * sql.tracing.enabled=false.
+ *
+ * The DataSource bean is wrapped in a {@link TracingDataSource}. If it is a
+ * LazyConnectionDataSourceProxy (read replicas, see ReplicaRoutingConfig),
+ * its target is wrapped instead, so the connection wait is measured when a
+ * connection is actually taken from a pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTracingConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<SqlStatementTracker> tracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                if (bean instanceof LazyConnectionDataSourceProxy lazy) {
+                    lazy.setTargetDataSource(new TracingDataSource(lazy.getTargetDataSource(), tracker.getObject()));
+                    return lazy;
+                }
+                return new TracingDataSource(dataSource, tracker.getObject());
+            }
+        };
+    }
+}
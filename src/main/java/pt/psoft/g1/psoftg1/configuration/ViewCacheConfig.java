@@ -0,0 +1,115 @@
+package pt.psoft.g1.psoftg1.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorView;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookView;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.EncodedViewCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NearCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NoOpViewCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.TwoTierViewCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caches of the book and author views served by the controllers.
+ *
+ * With cache.views.enabled=true the views are cached in a near-cache per
+ * instance backed by Redis (spring.data.redis.*), invalidated over the Redis
+ * {@link #INVALIDATION_CHANNEL}. Otherwise no-op caches are used and every
+ * request reads the database.
+ *
+ * Independently of those, book views are also kept serialized per instance
+ * (cache.encoded.*), so hot books are served without mapping or serializing.
+ */
+@Configuration
+public class ViewCacheConfig {
+
+    public static final String BOOK_VIEWS = "books";
+    public static final String AUTHOR_VIEWS = "authors";
+    public static final String INVALIDATION_CHANNEL = "lms-books:views:invalidations";
+
+    @Bean
+    public EncodedViewCache encodedBookViewCache(ObjectMapper objectMapper,
+            @Value("${cache.encoded.enabled:true}") boolean enabled,
+            @Value("${cache.encoded.max-entries:1000}") int maxEntries,
+            @Value("${cache.encoded.ttl:30s}") Duration ttl,
+            @Value("${cache.encoded.gzip-min-size:1024}") int gzipMinSize) {
+        return new EncodedViewCache(BOOK_VIEWS, enabled, new NearCache<>(maxEntries, ttl.toMillis()), objectMapper,
+                gzipMinSize);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "cache.views.enabled", havingValue = "true")
+    static class RedisViewCacheConfig {
+
+        @Value("${spring.application.instance-id:default}")
+        private String instanceId;
+
+        @Value("${cache.views.ttl:10m}")
+        private Duration ttl;
+
+        @Value("${cache.views.near.max-entries:1000}")
+        private int nearMaxEntries;
+
+        @Value("${cache.views.near.ttl:30s}")
+        private Duration nearTtl;
+
+        @Value("${cache.views.redis-retry-after:30s}")
+        private Duration redisRetryAfter;
+
+        @Bean
+        public TwoTierViewCache<BookView> bookViewCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+            return create(BOOK_VIEWS, BookView.class, redisTemplate, objectMapper);
+        }
+
+        @Bean
+        public TwoTierViewCache<AuthorView> authorViewCache(StringRedisTemplate redisTemplate,
+                ObjectMapper objectMapper) {
+            return create(AUTHOR_VIEWS, AuthorView.class, redisTemplate, objectMapper);
+        }
+
+        @Bean
+        public RedisMessageListenerContainer viewCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                List<TwoTierViewCache<?>> caches) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener((message, pattern) -> {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                caches.forEach(cache -> cache.onInvalidation(body));
+            }, new ChannelTopic(INVALIDATION_CHANNEL));
+            return container;
+        }
+
+        private <V> TwoTierViewCache<V> create(String name, Class<V> viewType, StringRedisTemplate redisTemplate,
+                ObjectMapper objectMapper) {
+            return new TwoTierViewCache<>(name, viewType, new NearCache<>(nearMaxEntries, nearTtl.toMillis()),
+                    redisTemplate, objectMapper, ttl, INVALIDATION_CHANNEL, instanceId, redisRetryAfter);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "cache.views.enabled", havingValue = "false", matchIfMissing = true)
+    static class NoOpViewCacheConfig {
+
+        @Bean
+        public ViewCache<BookView> bookViewCache() {
+            return new NoOpViewCache<>(BOOK_VIEWS);
+        }
+
+        @Bean
+        public ViewCache<AuthorView> authorViewCache() {
+            return new NoOpViewCache<>(AUTHOR_VIEWS);
+        }
+    }
+}
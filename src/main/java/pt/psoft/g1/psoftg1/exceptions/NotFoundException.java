@@ -26,6 +26,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
+ * Thrown when a requested entity does not exist. Not found is an expected
+ * answer, often repeated for the same keys, so no stack trace is captured.
  *
  * @author pgsousa
  *
@@ -39,18 +41,18 @@ public class NotFoundException extends RuntimeException {
 	private static final long serialVersionUID = 1L;
 
 	public NotFoundException(final String string) {
-		super(string);
+		super(string, null, false, false);
 	}
 
 	public NotFoundException(final String string, final MalformedURLException ex) {
-		super(string, ex);
+		super(string, ex, false, false);
 	}
 
 	public NotFoundException(final Class<?> clazz, final long id) {
-		super(String.format("Entity %s with id %d not found", clazz.getSimpleName(), id));
+		this(String.format("Entity %s with id %d not found", clazz.getSimpleName(), id));
 	}
 
 	public NotFoundException(final Class<?> clazz, final String id) {
-		super(String.format("Entity %s with id %s not found", clazz.getSimpleName(), id));
+		this(String.format("Entity %s with id %s not found", clazz.getSimpleName(), id));
 	}
 }
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pt.psoft.g1.psoftg1.genremanagement.services.GenreService;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,6 +23,7 @@ public class GenreController {
 
     private final GenreService genreService;
     private final GenreViewMapper genreViewMapper;
+    private final NegativeCache negativeCache;
 
     @Operation(summary = "Get all genres")
     @GetMapping
@@ -36,7 +38,7 @@ public class GenreController {
     @Operation(summary = "Get genre by name")
     @GetMapping("/{name}")
     public ResponseEntity<GenreView> getGenreByName(@PathVariable String name) {
-        return genreService.findByString(name)
+        return negativeCache.find(NegativeCache.GENRES, name, () -> genreService.findByString(name))
                 .map(genre -> ResponseEntity.ok(genreViewMapper.toGenreView(genre)))
                 .orElse(ResponseEntity.notFound().build());
     }
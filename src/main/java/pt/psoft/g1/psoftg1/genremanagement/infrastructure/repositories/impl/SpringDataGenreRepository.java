@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +22,8 @@ public interface SpringDataGenreRepository extends GenreRepository, CrudReposito
     @Override
     @Query("SELECT g FROM Genre g WHERE g.genre = :genreName")
     Optional<Genre> findByString(@Param("genreName") @NotNull String genre);
+
+    @Override
+    @Query("SELECT g FROM Genre g WHERE g.genre IN :genreNames")
+    List<Genre> findByStrings(@Param("genreNames") Collection<String> genreNames);
 }
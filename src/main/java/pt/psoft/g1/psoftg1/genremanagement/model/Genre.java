@@ -3,9 +3,16 @@ package pt.psoft.g1.psoftg1.genremanagement.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCacheEntityListener;
 
 @Entity
-@Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(NegativeCacheEntityListener.class)
+@Table(indexes = @Index(name = "idx_genre_genre_folded", columnList = "GENRE_FOLDED"))
 public class Genre {
     @Transient
     private final int GENRE_MAX_LENGTH = 100;
@@ -18,6 +25,10 @@ public class Genre {
     @Getter
     String genre;
 
+    /** The genre as searched, see {@link FoldedText} */
+    @Column(name = "GENRE_FOLDED", length = GENRE_MAX_LENGTH)
+    String genreFolded;
+
     protected Genre(){}
 
     public Genre(String genre) {
@@ -32,6 +43,7 @@ public class Genre {
         if(genre.length() > GENRE_MAX_LENGTH)
             throw new IllegalArgumentException("Genre has a maximum of 4096 characters");
         this.genre = genre;
+        this.genreFolded = FoldedText.fold(genre, GENRE_MAX_LENGTH);
     }
 
     public String toString() {
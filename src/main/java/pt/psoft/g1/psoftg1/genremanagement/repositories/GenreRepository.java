@@ -2,6 +2,8 @@ package pt.psoft.g1.psoftg1.genremanagement.repositories;
 
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,7 +15,11 @@ public interface GenreRepository {
 
     Optional<Genre> findByString(String genreName);
 
+    List<Genre> findByStrings(Collection<String> genreNames);
+
     Genre save(Genre genre);
 
+    <S extends Genre> Iterable<S> saveAll(Iterable<S> genres);
+
     void delete(Genre genre);
 }
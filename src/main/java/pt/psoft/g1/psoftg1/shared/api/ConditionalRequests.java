@@ -0,0 +1,41 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for resources whose ETag is their version.
+ *
+ * Clients polling a resource send back the ETag they have in If-None-Match.
+ * When that is the current version the answer is a bodyless 304, decided with
+ * a version-only lookup instead of loading and serializing the resource.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * @param request       The current request
+     * @param versionLookup Reads the current version of the resource, empty if
+     *                      it does not exist; only called for conditional
+     *                      requests
+     * @return A 304 response if the client's copy is current, otherwise empty
+     *         and the resource must be served as usual
+     */
+    public static <T> Optional<ResponseEntity<T>> notModified(WebRequest request,
+            Supplier<Optional<Long>> versionLookup) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return Optional.empty();
+        }
+        return versionLookup.get()
+                .map(version -> Long.toString(version))
+                .filter(request::checkNotModified)
+                .map(eTag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+    }
+}
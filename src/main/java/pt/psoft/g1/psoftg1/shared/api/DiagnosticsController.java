@@ -0,0 +1,135 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pt.psoft.g1.psoftg1.shared.infrastructure.bloom.BookExistenceFilter;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.EncodedViewCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.NegativeCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.SecondLevelCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.ViewCache;
+import pt.psoft.g1.psoftg1.shared.infrastructure.latency.EventLatencyTracker;
+import pt.psoft.g1.psoftg1.shared.infrastructure.latency.LatencyHistogram;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookDigestService;
+import pt.psoft.g1.psoftg1.shared.infrastructure.routing.ReplicaRoutingDataSource;
+import pt.psoft.g1.psoftg1.shared.infrastructure.sql.SqlStatementTracker;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diagnostics Controller
+ *
+ * Read-only runtime statistics of this instance:
+ * - Event latency percentiles per hop (outbox -> broker -> consumers)
+ * - Root of the book digest tree, to compare replicas at a glance
+ * - Hit counters of the book and author view caches
+ * - Hit ratios and sizes of the second-level cache regions
+ * - Size and false positive rate of the book existence filter
+ * - Hit counters of the negative cache regions
+ * - Hit counters of the serialized book views
+ * - Connections handed out per replica and their lag, if reads are routed
+ * - SQL latency per statement shape and the recent slow queries
+ */
+@Tag(name = "Diagnostics", description = "Runtime statistics of this instance")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    private final EventLatencyTracker eventLatencyTracker;
+    private final BookDigestService bookDigestService;
+    private final List<ViewCache<?>> viewCaches;
+    private final SecondLevelCache secondLevelCache;
+    private final BookExistenceFilter bookExistenceFilter;
+    private final NegativeCache negativeCache;
+    private final EncodedViewCache encodedBookViewCache;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+    private final SqlStatementTracker sqlStatementTracker;
+
+    @Operation(summary = "Get event latency percentiles (ms) per hop")
+    @GetMapping("/event-latency")
+    public ResponseEntity<Map<String, LatencyHistogram.Snapshot>> getEventLatency() {
+        return ResponseEntity.ok(eventLatencyTracker.snapshot());
+    }
+
+    @Operation(summary = "Reset the event latency histograms")
+    @DeleteMapping("/event-latency")
+    public ResponseEntity<Void> resetEventLatency() {
+        eventLatencyTracker.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Get the book count and digest root of this instance")
+    @GetMapping("/book-digest")
+    public ResponseEntity<Map<String, Object>> getBookDigest() {
+        return ResponseEntity.ok(Map.of(
+                "books", bookDigestService.size(),
+                "treeHeight", bookDigestService.getTreeHeight(),
+                "root", Long.toHexString(bookDigestService.root())));
+    }
+
+    @Operation(summary = "Get the hit counters of the view caches")
+    @GetMapping("/view-cache")
+    public ResponseEntity<List<ViewCache.Stats>> getViewCacheStats() {
+        return ResponseEntity.ok(viewCaches.stream().map(ViewCache::stats).toList());
+    }
+
+    @Operation(summary = "Get the hit ratios and sizes of the second-level cache regions")
+    @GetMapping("/second-level-cache")
+    public ResponseEntity<List<SecondLevelCache.RegionStats>> getSecondLevelCacheStats() {
+        return ResponseEntity.ok(secondLevelCache.stats());
+    }
+
+    @Operation(summary = "Get the size and false positive rate of the book existence filter")
+    @GetMapping("/book-existence-filter")
+    public ResponseEntity<BookExistenceFilter.Stats> getBookExistenceFilterStats() {
+        return ResponseEntity.ok(bookExistenceFilter.stats());
+    }
+
+    @Operation(summary = "Get the hit counters of the negative cache regions")
+    @GetMapping("/negative-cache")
+    public ResponseEntity<List<NegativeCache.Stats>> getNegativeCacheStats() {
+        return ResponseEntity.ok(negativeCache.stats());
+    }
+
+    @Operation(summary = "Get the hit counters of the serialized book views")
+    @GetMapping("/encoded-view-cache")
+    public ResponseEntity<EncodedViewCache.Stats> getEncodedViewCacheStats() {
+        return ResponseEntity.ok(encodedBookViewCache.stats());
+    }
+
+    @Operation(summary = "Get the connections handed out by the primary and each read replica")
+    @GetMapping("/datasource-routing")
+    public ResponseEntity<ReplicaRoutingDataSource.Stats> getDataSourceRoutingStats() {
+        final ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        if (routing == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(routing.stats());
+    }
+
+    @Operation(summary = "Get the SQL latency (us), row counts and connection wait (us) per statement shape")
+    @GetMapping("/sql")
+    public ResponseEntity<Map<String, Object>> getSqlStats() {
+        return ResponseEntity.ok(Map.of(
+                "connectionWaitMicros", sqlStatementTracker.connectionWait(),
+                "statements", sqlStatementTracker.statements()));
+    }
+
+    @Operation(summary = "Get the recent slow queries, bind parameters masked")
+    @GetMapping("/sql/slow")
+    public ResponseEntity<List<SqlStatementTracker.SlowQuery>> getSlowQueries() {
+        return ResponseEntity.ok(sqlStatementTracker.slowQueries());
+    }
+
+    @Operation(summary = "Reset the SQL statistics and the slow query log")
+    @DeleteMapping("/sql")
+    public ResponseEntity<Void> resetSqlStats() {
+        sqlStatementTracker.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
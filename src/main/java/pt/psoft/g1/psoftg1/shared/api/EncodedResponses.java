@@ -0,0 +1,48 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import pt.psoft.g1.psoftg1.shared.infrastructure.cache.EncodedViewCache.EncodedView;
+
+/**
+ * Responses whose body is a view already serialized by
+ * {@link pt.psoft.g1.psoftg1.shared.infrastructure.cache.EncodedViewCache},
+ * written as is: gzipped if the client accepts it and a gzipped copy exists,
+ * with the version as ETag.
+ */
+public final class EncodedResponses {
+
+    private EncodedResponses() {
+    }
+
+    public static ResponseEntity<byte[]> ok(EncodedView view, WebRequest request) {
+        final var response = ResponseEntity.ok()
+                .eTag(Long.toString(view.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (view.isGzipped() && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(view.gzipped());
+        }
+        return response.body(view.json());
+    }
+
+    /**
+     * @param acceptEncoding e.g. "br, gzip;q=0.8", or null
+     * @return true if gzip (or any encoding) is listed without q=0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.CatalogSnapshotWriter;
+
+/**
+ * Replication Controller
+ *
+ * Serves the catalog snapshot new database-per-instance replicas bootstrap
+ * from (see pt.psoft.g1.psoftg1.bootstrapping.ReplicaBootstrapper).
+ */
+@Tag(name = "Replication", description = "Endpoints for bootstrapping database-per-instance replicas")
+@Profile("database-per-instance")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/replication")
+public class ReplicationController {
+
+    private final CatalogSnapshotWriter catalogSnapshotWriter;
+
+    @Operation(summary = "Stream a consistent catalog snapshot tagged with the outbox high-watermark")
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getSnapshot() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogSnapshotWriter::write);
+    }
+}
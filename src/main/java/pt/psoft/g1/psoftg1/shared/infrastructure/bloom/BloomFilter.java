@@ -0,0 +1,121 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.bloom;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal Bloom filter over String keys.
+ *
+ * Sized from the expected number of insertions and the target false positive
+ * probability. Uses a 64-bit FNV-1a hash split with the Kirsch-Mitzenmacher
+ * double hashing scheme, so only one pass over the key is needed per lookup.
+ *
+ * A negative answer is always exact; a positive answer may be a false
+ * positive. Not thread-safe; callers synchronize.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+    private long insertions;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) / 64)];
+        this.bitSize = bits.length * 64L;
+        this.hashFunctions = Math.max(1,
+                (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Adds a key to the filter.
+     *
+     * @param key The key
+     */
+    public void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitSize;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        insertions++;
+    }
+
+    /**
+     * Checks whether a key might have been added.
+     *
+     * @param key The key
+     * @return false if the key was definitely never added
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitSize;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the current false positive probability from the number of
+     * insertions so far.
+     *
+     * @return The estimated false positive probability
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions / bitSize), hashFunctions);
+    }
+
+    public long getInsertions() {
+        return insertions;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * @return Approximate memory used by the bit array, in bytes
+     */
+    public long getMemoryBytes() {
+        return bits.length * 8L;
+    }
+
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        // Final avalanche (from SplitMix64) so that both 32-bit halves are well mixed
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
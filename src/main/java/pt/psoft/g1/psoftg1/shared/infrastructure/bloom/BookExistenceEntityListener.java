@@ -0,0 +1,31 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.bloom;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+
+/**
+ * Reports persisted and removed books to the {@link BookExistenceFilter}.
+ * New books are reported when persisted rather than when inserted, so a
+ * lookup later in the same transaction, before the flush, still finds them.
+ * The filter is optional so JPA slice tests work without it.
+ */
+public class BookExistenceEntityListener {
+
+    private final ObjectProvider<BookExistenceFilter> existenceFilter;
+
+    public BookExistenceEntityListener(ObjectProvider<BookExistenceFilter> existenceFilter) {
+        this.existenceFilter = existenceFilter;
+    }
+
+    @PrePersist
+    void bookCreated(Book book) {
+        existenceFilter.ifAvailable(filter -> filter.bookCreated(book.getIsbn()));
+    }
+
+    @PostRemove
+    void bookDeleted(Book book) {
+        existenceFilter.ifAvailable(BookExistenceFilter::bookDeleted);
+    }
+}
@@ -0,0 +1,223 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.bloom;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link BloomFilter} of the ISBNs of all books, so lookups of
+ * ISBNs that do not exist (crawlers, the uniqueness check of a new book) are
+ * answered without a query.
+ *
+ * The filter is built from the database once the application is ready;
+ * until then every ISBN might exist. {@link BookExistenceEntityListener}
+ * adds the ISBN of every book as soon as it is persisted, long before its
+ * transaction commits, so no reader can see a book the filter does not know; a rollback
+ * only leaves a false positive. Books created by other instances sharing the
+ * database are added when their BOOK_CREATED event arrives (see
+ * RemoteChangeListener), so until then they are not found here.
+ *
+ * A Bloom filter cannot forget: deleted ISBNs stay in it and only raise the
+ * false positive rate. The filter is rebuilt, with room for twice the current
+ * books, once more books were added than it was sized for or once more than
+ * books.existence-filter.max-deleted-ratio of them were deleted.
+ */
+@Component
+public class BookExistenceFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BookExistenceFilter.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long minExpectedBooks;
+    private final double falsePositiveRate;
+    private final double maxDeletedRatio;
+
+    /** ISBNs persisted by transactions that have not completed yet */
+    private final Set<String> uncommitted = ConcurrentHashMap.newKeySet();
+
+    /** Guarded by this; null until built */
+    private BloomFilter filter;
+    /** Guarded by this; the filter being rebuilt, if any */
+    private BloomFilter next;
+    /** Guarded by this; books deleted since the filter was built */
+    private long deleted;
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public BookExistenceFilter(EntityManager entityManager, TransactionTemplate transactionTemplate,
+            @Value("${books.existence-filter.enabled:true}") boolean enabled,
+            @Value("${books.existence-filter.expected-books:100000}") long minExpectedBooks,
+            @Value("${books.existence-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${books.existence-filter.max-deleted-ratio:0.1}") double maxDeletedRatio) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.minExpectedBooks = minExpectedBooks;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxDeletedRatio = maxDeletedRatio;
+    }
+
+    /**
+     * @return false if no book with this ISBN exists, true if one might
+     */
+    public boolean mightExist(String isbn) {
+        synchronized (this) {
+            if (filter == null) {
+                return true;
+            }
+            if (filter.mightContain(isbn)) {
+                positives.increment();
+                return true;
+            }
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * Reports that an ISBN the filter said might exist was not found.
+     */
+    public synchronized void falsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    public void bookCreated(String isbn) {
+        synchronized (this) {
+            if (filter != null) {
+                filter.put(isbn);
+            }
+            if (next != null) {
+                next.put(isbn);
+            }
+            uncommitted.add(isbn);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    uncommitted.remove(isbn);
+                }
+            });
+        } else {
+            uncommitted.remove(isbn);
+        }
+    }
+
+    public synchronized void bookDeleted() {
+        deleted++;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${books.existence-filter.check-interval:60000}",
+            initialDelayString = "${books.existence-filter.check-interval:60000}")
+    public void rebuildIfStale() {
+        boolean stale;
+        synchronized (this) {
+            stale = filter != null && (filter.getInsertions() > filter.getExpectedInsertions()
+                    || deleted > maxDeletedRatio * filter.getInsertions());
+        }
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a new filter from the database and swaps it in. Books persisted
+     * meanwhile go to both filters, and the ones persisted before but not yet
+     * committed, which the scan may miss, are added up front.
+     */
+    public void rebuild() {
+        Long books = transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT COUNT(b) FROM Book b", Long.class)
+                .getSingleResult());
+        BloomFilter building = new BloomFilter(Math.max(minExpectedBooks, 2 * books), falsePositiveRate);
+        synchronized (this) {
+            if (next != null) {
+                return;
+            }
+            next = building;
+            uncommitted.forEach(building::put);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> isbns = entityManager.createQuery("SELECT b.isbn.isbn FROM Book b", String.class)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultStream()) {
+                    isbns.forEach(isbn -> {
+                        synchronized (this) {
+                            building.put(isbn);
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                next = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            filter = building;
+            next = null;
+            deleted = 0;
+        }
+        log.info("Built book existence filter over {} books, {} KB", building.getInsertions(),
+                building.getMemoryBytes() / 1024);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(filter != null, filter != null ? filter.getInsertions() : 0,
+                filter != null ? filter.getExpectedInsertions() : 0, deleted,
+                filter != null ? filter.getHashFunctions() : 0, filter != null ? filter.getMemoryBytes() : 0,
+                filter != null ? filter.expectedFalsePositiveProbability() : 0,
+                negatives.sum(), positives.sum(), falsePositives.sum());
+    }
+
+    /**
+     * Size and lookup counters of the filter. Insertions include ISBNs added
+     * more than once, e.g. by a rolled back creation.
+     */
+    public record Stats(boolean built, long insertions, long capacity, long deletedSinceBuilt, int hashFunctions,
+            long memoryBytes, double expectedFalsePositiveRate, long negatives, long positives,
+            long falsePositives) {
+
+        /**
+         * @return The share of the ISBNs reported as might exist that were not
+         *         found, 0 if none
+         */
+        @JsonProperty("observedFalsePositiveRate")
+        public double observedFalsePositiveRate() {
+            return positives == 0 ? 0 : (double) falsePositives / positives;
+        }
+    }
+}
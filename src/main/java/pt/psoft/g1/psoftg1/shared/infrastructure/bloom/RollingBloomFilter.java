@@ -0,0 +1,45 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.bloom;
+
+/**
+ * Bloom filter that forgets old keys.
+ *
+ * Keys are added to the current generation. When it reaches its capacity it
+ * becomes the previous generation and a fresh one takes its place, so the
+ * filter always remembers at least the last {@code capacity} keys (and at most
+ * twice that) while its memory and false positive rate stay bounded.
+ *
+ * Thread-safe.
+ */
+public class RollingBloomFilter {
+
+    private final long capacity;
+    private final double falsePositiveProbability;
+
+    private BloomFilter current;
+    private BloomFilter previous;
+
+    public RollingBloomFilter(long capacity, double falsePositiveProbability) {
+        this.capacity = capacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.current = new BloomFilter(capacity, falsePositiveProbability);
+    }
+
+    public synchronized void put(String key) {
+        if (current.getInsertions() >= capacity) {
+            previous = current;
+            current = new BloomFilter(capacity, falsePositiveProbability);
+        }
+        current.put(key);
+    }
+
+    public synchronized boolean mightContain(String key) {
+        return current.mightContain(key) || (previous != null && previous.mightContain(key));
+    }
+
+    /**
+     * @return Approximate memory used by both generations, in bytes
+     */
+    public synchronized long getMemoryBytes() {
+        return current.getMemoryBytes() + (previous != null ? previous.getMemoryBytes() : 0);
+    }
+}
@@ -0,0 +1,137 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of views already serialized to JSON, and gzipped when large enough,
+ * so a hit is written to the response as is instead of being mapped and
+ * serialized again.
+ *
+ * Entries are looked up by (key, version): an entry encoded at another
+ * version misses and is replaced, so a version bump needs no eviction.
+ * Changes that leave the version alone (e.g. a renamed author of a book) are
+ * evicted by {@link ViewCacheInvalidator}; entries also expire after a fixed
+ * time, like any {@link NearCache}, in case such a change happened elsewhere.
+ */
+public class EncodedViewCache {
+
+    private final String name;
+    private final boolean enabled;
+    private final NearCache<EncodedView> entries;
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+
+    private final AtomicLong evictionSequence = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder encodings = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param gzipMinSize Views of fewer JSON bytes are not gzipped, as the
+     *                    gzip header would outweigh the saving
+     */
+    public EncodedViewCache(String name, boolean enabled, NearCache<EncodedView> entries, ObjectMapper objectMapper,
+            int gzipMinSize) {
+        this.name = name;
+        this.enabled = enabled;
+        this.entries = entries;
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the encoded view of a key at a version, encoding and caching the
+     * view returned by the loader on a miss. The loader may return a newer
+     * version than asked for; it is cached under the version it has.
+     */
+    public EncodedView get(String key, long version, Supplier<? extends VersionedView<?>> loader) {
+        if (enabled) {
+            EncodedView cached = entries.get(key);
+            if (cached != null && cached.version() == version) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        long sequence = evictionSequence.get();
+        EncodedView encoded = encode(loader.get());
+        encodings.increment();
+        if (enabled && evictionSequence.get() == sequence) {
+            entries.put(key, encoded);
+            if (evictionSequence.get() != sequence) {
+                // Evicted while it was being encoded
+                entries.remove(key);
+            }
+        }
+        return encoded;
+    }
+
+    public void evict(String key) {
+        evictionSequence.incrementAndGet();
+        entries.remove(key);
+        evictions.increment();
+    }
+
+    public Stats stats() {
+        return new Stats(name, hits.sum(), encodings.sum(), evictions.sum(), entries.size());
+    }
+
+    private EncodedView encode(VersionedView<?> view) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(view.view());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] gzipped = json.length >= gzipMinSize ? gzip(json) : null;
+        // Incompressible views are not worth the Content-Encoding
+        return new EncodedView(view.version(), json, gzipped != null && gzipped.length < json.length ? gzipped : null);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A view serialized at a version. The arrays are shared by every request
+     * served from the cache and must not be modified.
+     *
+     * @param gzipped The JSON gzipped, or null if not worth it
+     */
+    public record EncodedView(long version, byte[] json, byte[] gzipped) {
+
+        public boolean isGzipped() {
+            return gzipped != null;
+        }
+    }
+
+    /**
+     * Lookup counters since startup. Encodings counts the misses, each of
+     * which serialized the view.
+     */
+    public record Stats(String name, long hits, long encodings, long evictions, int size) {
+    }
+}
@@ -0,0 +1,185 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Remembers, for a short time, the keys a read found nothing for, so clients
+ * retrying an unknown author number, genre or search do not cost a query each
+ * time. There is one size-bounded region per kind of lookup.
+ *
+ * Writes invalidate the keys they may have created both when they are flushed
+ * and after their transaction completes; a lookup that started before an
+ * invalidation of its region does not record its miss, as it may have missed
+ * the new entity. Entities created by other instances sharing the database
+ * are invalidated when their events arrive (see RemoteChangeListener); the
+ * TTL bounds the staleness of any invalidation missed.
+ */
+@Component
+public class NegativeCache {
+
+    public static final String AUTHORS = "authors";
+    public static final String AUTHOR_SEARCHES = "author-searches";
+    public static final String GENRES = "genres";
+    public static final String BOOK_SEARCHES = "book-searches";
+
+    private final Map<String, Region> regions = new LinkedHashMap<>();
+
+    public NegativeCache(@Value("${cache.negative.enabled:true}") boolean enabled,
+            @Value("${cache.negative.ttl:30s}") Duration ttl,
+            @Value("${cache.negative.max-entries:10000}") int maxEntries) {
+        int entries = enabled ? maxEntries : 0;
+        for (String name : List.of(AUTHORS, AUTHOR_SEARCHES, GENRES, BOOK_SEARCHES)) {
+            regions.put(name, new Region(name, new NearCache<>(entries, ttl.toMillis())));
+        }
+    }
+
+    /**
+     * @return The entity found by the loader, or empty without calling it if
+     *         the key was recently not found
+     */
+    public <T> Optional<T> find(String region, String key, Supplier<Optional<T>> loader) {
+        return lookup(region, key, loader, Optional::isEmpty, Optional.empty());
+    }
+
+    /**
+     * @return The results of the loader, or an empty list without calling it
+     *         if the search recently had none
+     */
+    public <T> List<T> search(String region, String key, Supplier<List<T>> loader) {
+        return lookup(region, key, loader, List::isEmpty, List.of());
+    }
+
+    private <T> T lookup(String name, String key, Supplier<T> loader, Predicate<T> isMissing, T missing) {
+        Region region = region(name);
+        if (region.entries.get(key) != null) {
+            region.hits.increment();
+            return missing;
+        }
+        long generation = region.generation();
+        T result = loader.get();
+        region.loads.increment();
+        if (isMissing.test(result)) {
+            region.recordMissing(key, generation);
+        }
+        return result;
+    }
+
+    /**
+     * Forgets that a key was not found, now and once the current transaction
+     * completes.
+     */
+    public void invalidate(String region, String key) {
+        Region target = region(region);
+        target.invalidate(key);
+        afterCompletion(() -> target.invalidate(key));
+    }
+
+    /**
+     * Forgets every key of a region, now and once the current transaction
+     * completes, e.g. when any search may now find something.
+     */
+    public void invalidateAll(String region) {
+        Region target = region(region);
+        target.invalidate(null);
+        afterCompletion(() -> target.invalidate(null));
+    }
+
+    public List<Stats> stats() {
+        return regions.values().stream().map(Region::stats).toList();
+    }
+
+    private Region region(String name) {
+        Region region = regions.get(name);
+        if (region == null) {
+            throw new IllegalArgumentException("Unknown negative cache region " + name);
+        }
+        return region;
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static final class Region {
+
+        private final String name;
+        private final NearCache<Boolean> entries;
+
+        /** Guarded by this; incremented by every invalidation */
+        private long generation;
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder recorded = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+
+        private Region(String name, NearCache<Boolean> entries) {
+            this.name = name;
+            this.entries = entries;
+        }
+
+        private synchronized long generation() {
+            return generation;
+        }
+
+        private synchronized void recordMissing(String key, long seenGeneration) {
+            if (generation == seenGeneration) {
+                entries.put(key, Boolean.TRUE);
+                recorded.increment();
+            }
+        }
+
+        /**
+         * @param key The key to forget, null for all
+         */
+        private synchronized void invalidate(String key) {
+            generation++;
+            if (key == null) {
+                entries.clear();
+            } else {
+                entries.remove(key);
+            }
+            invalidations.increment();
+        }
+
+        private Stats stats() {
+            return new Stats(name, hits.sum(), loads.sum(), recorded.sum(), invalidations.sum(), entries.size());
+        }
+    }
+
+    /**
+     * Counters of a region. Hits are lookups answered from the cache, loads
+     * the ones that read the database; recorded counts the misses remembered.
+     */
+    public record Stats(String region, long hits, long loads, long recorded, long invalidations, int size) {
+
+        /**
+         * @return The share of lookups answered from the cache, 0 if none
+         */
+        @JsonProperty("hitRatio")
+        public double hitRatio() {
+            long lookups = hits + loads;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
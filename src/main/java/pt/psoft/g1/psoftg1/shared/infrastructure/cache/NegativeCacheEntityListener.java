@@ -0,0 +1,39 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+
+/**
+ * Reports created and updated books, authors and genres to the
+ * {@link NegativeCache}, as they may now be found by lookups that found
+ * nothing before. Deletions cannot turn a miss into a hit.
+ */
+public class NegativeCacheEntityListener {
+
+    private final ObjectProvider<NegativeCache> negativeCache;
+
+    public NegativeCacheEntityListener(ObjectProvider<NegativeCache> negativeCache) {
+        this.negativeCache = negativeCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void saved(Object entity) {
+        negativeCache.ifAvailable(cache -> {
+            if (entity instanceof Book) {
+                cache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+            } else if (entity instanceof Author author) {
+                cache.invalidate(NegativeCache.AUTHORS, String.valueOf(author.getAuthorNumber()));
+                cache.invalidateAll(NegativeCache.AUTHOR_SEARCHES);
+                cache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+            } else if (entity instanceof Genre) {
+                cache.invalidateAll(NegativeCache.GENRES);
+                cache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * View cache used when caching is disabled: every lookup is a miss, though
+ * concurrent misses of the same key still share one load.
+ */
+public class NoOpViewCache<V> implements ViewCache<V> {
+
+    private final String name;
+    private final LongAdder misses = new LongAdder();
+    private final SingleFlight<String, VersionedView<V>> loads = new SingleFlight<>();
+
+    public NoOpViewCache(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public VersionedView<V> get(String key, Supplier<VersionedView<V>> loader) {
+        misses.increment();
+        return loads.execute(key, loader);
+    }
+
+    @Override
+    public void evict(String key) {
+        evictLocal(key);
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        // Nothing cached, but a load in flight may predate the change
+        loads.forget(key);
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(name, 0, 0, misses.sum(), loads.shared(), 0, 0);
+    }
+}
@@ -0,0 +1,154 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorViewAMQP;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+import pt.psoft.g1.psoftg1.shared.infrastructure.bloom.BookExistenceFilter;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.ChangeFeed;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEventRepository;
+import pt.psoft.g1.psoftg1.shared.model.AuthorEvents;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
+
+/**
+ * Applies the changes of other instances sharing the database to the
+ * in-memory state of this instance.
+ *
+ * Every instance consumes one anonymous queue bound to the book and author
+ * fanouts (see RabbitmqConfig.RemoteChangeConfig), so each change is received
+ * and decoded once, then dispatched:
+ * - updated and deleted books and authors are evicted from the second-level
+ * cache and their serialized views from the encoded view cache
+ * - created and updated books and authors invalidate the negative cache, as
+ * deletions cannot turn a miss into a hit; genres have no events of their
+ * own, and a book created elsewhere may have created its genre, so it also
+ * invalidates the genres
+ * - created books are added to the book existence filter
+ * - created books and authors, the events written through the outbox, are
+ * pushed to the change feed, read back from the shared outbox table by their
+ * message id (the outbox id); only when someone is subscribed
+ *
+ * The events of this instance are skipped, as its own writes already updated
+ * all of it.
+ */
+@Profile("!database-per-instance & !test")
+@Component
+public class RemoteChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteChangeListener.class);
+
+    private final SecondLevelCache secondLevelCache;
+    private final ViewCacheInvalidator viewCacheInvalidator;
+    private final NegativeCache negativeCache;
+    private final BookExistenceFilter existenceFilter;
+    private final ChangeFeed changeFeed;
+    private final OutboxEventRepository outboxRepository;
+    private final MessageConverter messageConverter;
+
+    @Value("${spring.application.instance-id:default}")
+    private String instanceId;
+
+    public RemoteChangeListener(SecondLevelCache secondLevelCache, ViewCacheInvalidator viewCacheInvalidator,
+            NegativeCache negativeCache, BookExistenceFilter existenceFilter, ChangeFeed changeFeed,
+            OutboxEventRepository outboxRepository, MessageConverter messageConverter) {
+        this.secondLevelCache = secondLevelCache;
+        this.viewCacheInvalidator = viewCacheInvalidator;
+        this.negativeCache = negativeCache;
+        this.existenceFilter = existenceFilter;
+        this.changeFeed = changeFeed;
+        this.outboxRepository = outboxRepository;
+        this.messageConverter = messageConverter;
+    }
+
+    @RabbitListener(queues = "#{remoteChangeQueue.name}")
+    public void handleEvent(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (instanceId.equals(properties.getAppId())) {
+            return;
+        }
+        try {
+            switch (properties.getReceivedRoutingKey()) {
+                case BookEvents.BOOK_CREATED -> {
+                    committedElsewhere(properties);
+                    bookCreated(read(message, BookViewAMQP.class));
+                }
+                case BookEvents.BOOK_UPDATED -> bookUpdated(read(message, BookViewAMQP.class));
+                case BookEvents.BOOK_DELETED -> bookDeleted(read(message, BookViewAMQP.class));
+                case AuthorEvents.AUTHOR_CREATED -> {
+                    committedElsewhere(properties);
+                    authorCreated(read(message, AuthorViewAMQP.class));
+                }
+                case AuthorEvents.AUTHOR_UPDATED -> authorUpdated(read(message, AuthorViewAMQP.class));
+                case AuthorEvents.AUTHOR_DELETED -> authorChanged(read(message, AuthorViewAMQP.class));
+                default -> {
+                    // Nothing held of it
+                }
+            }
+        } catch (MessageConversionException | ClassCastException e) {
+            log.error("Unreadable {} event {}: {}", properties.getReceivedRoutingKey(), properties.getMessageId(),
+                    e.getMessage());
+        }
+    }
+
+    private void bookCreated(BookViewAMQP book) {
+        if (book.getIsbn() != null) {
+            existenceFilter.bookCreated(book.getIsbn());
+        }
+        negativeCache.invalidateAll(NegativeCache.GENRES);
+        negativeCache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+    }
+
+    private void bookUpdated(BookViewAMQP book) {
+        secondLevelCache.bookChanged(book.getIsbn());
+        viewCacheInvalidator.bookChangedElsewhere(book.getIsbn());
+        negativeCache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+    }
+
+    private void bookDeleted(BookViewAMQP book) {
+        secondLevelCache.bookDeleted();
+        viewCacheInvalidator.bookChangedElsewhere(book.getIsbn());
+    }
+
+    private void authorCreated(AuthorViewAMQP author) {
+        negativeCache.invalidate(NegativeCache.AUTHORS, String.valueOf(author.getAuthorNumber()));
+        negativeCache.invalidateAll(NegativeCache.AUTHOR_SEARCHES);
+    }
+
+    private void authorUpdated(AuthorViewAMQP author) {
+        authorChanged(author);
+        negativeCache.invalidateAll(NegativeCache.AUTHOR_SEARCHES);
+        negativeCache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+    }
+
+    private void authorChanged(AuthorViewAMQP author) {
+        secondLevelCache.authorChanged(author.getAuthorNumber());
+        viewCacheInvalidator.authorChangedElsewhere(author.getAuthorNumber());
+    }
+
+    private void committedElsewhere(MessageProperties properties) {
+        if (changeFeed.getSubscriberCount() == 0) {
+            return;
+        }
+        long offset;
+        try {
+            offset = Long.parseLong(properties.getMessageId());
+        } catch (NumberFormatException e) {
+            log.debug("Skipping {} event without an outbox id", properties.getReceivedRoutingKey());
+            return;
+        }
+        outboxRepository.findById(offset).ifPresent(changeFeed::committed);
+    }
+
+    private <T> T read(Message message, Class<T> type) {
+        message.getMessageProperties().setInferredArgumentType(type);
+        return type.cast(messageConverter.fromMessage(message));
+    }
+}
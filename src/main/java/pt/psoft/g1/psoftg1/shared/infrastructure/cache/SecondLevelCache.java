@@ -0,0 +1,115 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.configuration.SecondLevelCacheConfig;
+
+import javax.cache.CacheManager;
+import java.util.List;
+
+/**
+ * Evicts books and authors changed by other instances from the Hibernate
+ * second-level cache, and reports the hit counters of its regions.
+ *
+ * Writes of this instance keep the cache up to date by themselves; see
+ * RemoteChangeListener for the changes of the others.
+ */
+@Component
+public class SecondLevelCache {
+
+    private final SessionFactory sessionFactory;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory, EntityManager entityManager,
+            CacheManager entityCacheManager) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.entityManager = entityManager;
+        this.cacheManager = entityCacheManager;
+    }
+
+    /**
+     * Evicts a book and its authors list. The ISBN still resolves to the same
+     * book, so its natural id entry is kept.
+     */
+    @Transactional(readOnly = true)
+    public void bookChanged(String isbn) {
+        List<Long> pks = entityManager.createQuery("SELECT b.pk FROM Book b WHERE b.isbn.isbn = :isbn", Long.class)
+                .setParameter("isbn", isbn)
+                .getResultList();
+        for (Long pk : pks) {
+            sessionFactory.getCache().evictEntityData(Book.class, pk);
+            sessionFactory.getCache().evictCollectionData(SecondLevelCacheConfig.BOOK_AUTHORS_REGION, pk);
+        }
+    }
+
+    /**
+     * Evicts every book. The primary key of a deleted book can no longer be
+     * looked up, and deletes are rare.
+     */
+    public void bookDeleted() {
+        sessionFactory.getCache().evictEntityData(Book.class);
+        sessionFactory.getCache().evictCollectionData(SecondLevelCacheConfig.BOOK_AUTHORS_REGION);
+        sessionFactory.getCache().evictNaturalIdData(Book.class);
+    }
+
+    public void authorChanged(Long authorNumber) {
+        sessionFactory.getCache().evictEntityData(Author.class, authorNumber);
+    }
+
+    public List<RegionStats> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return List.of(SecondLevelCacheConfig.BOOK_REGION, SecondLevelCacheConfig.BOOK_AUTHORS_REGION,
+                SecondLevelCacheConfig.BOOK_NATURAL_ID_REGION, SecondLevelCacheConfig.AUTHOR_REGION,
+                SecondLevelCacheConfig.GENRE_REGION).stream()
+                .map(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                    return regionStatistics == null
+                            ? new RegionStats(region, 0, 0, 0, weightedSize(region))
+                            : new RegionStats(region, regionStatistics.getHitCount(),
+                                    regionStatistics.getMissCount(), regionStatistics.getPutCount(),
+                                    weightedSize(region));
+                })
+                .toList();
+    }
+
+    /**
+     * @return The estimated size in bytes of a region, 0 if unknown
+     */
+    private long weightedSize(String name) {
+        javax.cache.Cache<Object, Object> region = cacheManager.getCache(name);
+        if (region == null) {
+            return 0;
+        }
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> cache = region.unwrap(Cache.class);
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * Counters of a region since startup. Hibernate only counts when
+     * hibernate.generate_statistics is on.
+     */
+    public record RegionStats(String region, long hits, long misses, long puts, long sizeInBytes) {
+
+        /**
+         * @return The share of lookups answered by the cache, 0 if none
+         */
+        @JsonProperty("hitRatio")
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Weighs cache entries by the size in bytes of their Java serialized form.
+ *
+ * Hibernate's second-level cache keys and entries are Serializable by
+ * contract, so this is a cheap and JDK independent estimate of the heap they
+ * hold, close enough to bound the memory of a region.
+ */
+public class SerializedSizeWeigher implements Weigher<Object, Object> {
+
+    /** Weight of an entry that cannot be serialized */
+    static final int UNKNOWN_WEIGHT = 1024;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return sizeOf(key) + sizeOf(value);
+    }
+
+    static int sizeOf(Object object) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            return UNKNOWN_WEIGHT;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, counter.count);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions for equal keys: the first caller of a key
+ * runs the supplier, callers arriving while it runs wait for it and share
+ * its result, or its exception. Once the execution completes the next caller
+ * starts a new one; nothing is cached.
+ *
+ * Keys must implement equals and hashCode, e.g. an ISBN or a query object.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            shared.increment();
+            return await(inFlight);
+        }
+
+        executions.increment();
+        try {
+            V value = supplier.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Makes the next caller of a key start a new execution instead of joining
+     * the one in flight, e.g. because the data it reads just changed. Callers
+     * already waiting still get the result of the current execution.
+     */
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    /**
+     * @return The number of times a supplier was run
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return The number of callers that shared another caller's execution
+     */
+    public long shared() {
+        return shared.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * View cache with two tiers: a small {@link NearCache} in each instance in
+ * front of Redis, which all instances share.
+ *
+ * A lookup tries the near-cache, then Redis, then the loader (the database).
+ * Loaded views are written to Redis as JSON with a TTL, so an instance that
+ * just started is served from Redis instead of the database. Evicting a key
+ * deletes it from Redis and publishes "instanceId|cacheName|key" on
+ * the invalidation channel; every other instance drops it from its
+ * near-cache when the message arrives (see {@link #onInvalidation(String)}).
+ *
+ * Concurrent misses of a key on this instance share one load of the view
+ * ({@link SingleFlight}), so a burst of requests for the same uncached key
+ * costs one query instead of one each. A view loaded while an eviction
+ * happens on this instance is returned but not cached, as it may predate the
+ * change. If Redis fails, both tiers are
+ * bypassed for cache.views.redis-retry-after, since the near-cache would miss
+ * the invalidations of the other instances meanwhile.
+ */
+public class TwoTierViewCache<V> implements ViewCache<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierViewCache.class);
+
+    private final String name;
+    private final NearCache<VersionedView<V>> nearCache;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final JavaType entryType;
+    private final Duration ttl;
+    private final String invalidationChannel;
+    private final String instanceId;
+    private final long redisRetryMillis;
+
+    private final SingleFlight<String, VersionedView<V>> loads = new SingleFlight<>();
+    private final AtomicLong evictionSequence = new AtomicLong();
+    private volatile long redisDownUntil;
+
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TwoTierViewCache(String name, Class<V> viewType, NearCache<VersionedView<V>> nearCache,
+            StringRedisTemplate redisTemplate, ObjectMapper objectMapper, Duration ttl,
+            String invalidationChannel, String instanceId, Duration redisRetryAfter) {
+        this.name = name;
+        this.nearCache = nearCache;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.entryType = objectMapper.getTypeFactory().constructParametricType(VersionedView.class, viewType);
+        this.ttl = ttl;
+        this.invalidationChannel = invalidationChannel;
+        this.instanceId = instanceId;
+        this.redisRetryMillis = redisRetryAfter.toMillis();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public VersionedView<V> get(String key, Supplier<VersionedView<V>> loader) {
+        if (isRedisDown()) {
+            misses.increment();
+            return loads.execute(key, loader);
+        }
+
+        VersionedView<V> cached = nearCache.get(key);
+        if (cached != null) {
+            nearHits.increment();
+            return cached;
+        }
+
+        long sequence = evictionSequence.get();
+        try {
+            String json = redisTemplate.opsForValue().get(redisKey(key));
+            cached = json != null ? read(key, json) : null;
+        } catch (DataAccessException e) {
+            markRedisDown(e);
+            misses.increment();
+            return loads.execute(key, loader);
+        }
+        if (cached != null) {
+            remoteHits.increment();
+            cacheLocally(key, cached, sequence);
+            return cached;
+        }
+
+        misses.increment();
+        return loads.execute(key, () -> loadAndCache(key, loader, sequence));
+    }
+
+    private VersionedView<V> loadAndCache(String key, Supplier<VersionedView<V>> loader, long sequence) {
+        VersionedView<V> loaded = loader.get();
+        if (loaded != null && evictionSequence.get() == sequence) {
+            try {
+                // Never overwrite: a newer view may have been stored meanwhile
+                redisTemplate.opsForValue().setIfAbsent(redisKey(key), objectMapper.writeValueAsString(loaded), ttl);
+            } catch (DataAccessException e) {
+                markRedisDown(e);
+                return loaded;
+            } catch (JsonProcessingException e) {
+                log.warn("Cannot cache {} view {}: {}", name, key, e.getMessage());
+                return loaded;
+            }
+            cacheLocally(key, loaded, sequence);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void evict(String key) {
+        evictLocal(key);
+        if (isRedisDown()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(redisKey(key));
+            redisTemplate.convertAndSend(invalidationChannel, instanceId + "|" + name + "|" + key);
+        } catch (DataAccessException e) {
+            markRedisDown(e);
+        }
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        evictionSequence.incrementAndGet();
+        loads.forget(key);
+        nearCache.remove(key);
+        evictions.increment();
+    }
+
+    /**
+     * Handles a message from the invalidation channel, ignoring the ones this
+     * instance published itself or that are meant for another cache.
+     */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length == 3 && !instanceId.equals(parts[0]) && name.equals(parts[1])) {
+            evictLocal(parts[2]);
+        }
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(name, nearHits.sum(), remoteHits.sum(), misses.sum(), loads.shared(), evictions.sum(),
+                nearCache.size());
+    }
+
+    private void cacheLocally(String key, VersionedView<V> view, long sequence) {
+        nearCache.put(key, view);
+        if (evictionSequence.get() != sequence) {
+            // Evicted while it was being loaded
+            nearCache.remove(key);
+        }
+    }
+
+    private VersionedView<V> read(String key, String json) {
+        try {
+            return objectMapper.readValue(json, entryType);
+        } catch (JsonProcessingException e) {
+            // E.g. written by an older version of the view: reload it
+            log.debug("Discarding unreadable {} view {}: {}", name, key, e.getMessage());
+            redisTemplate.delete(redisKey(key));
+            return null;
+        }
+    }
+
+    private String redisKey(String key) {
+        return "lms-books:views:" + name + ":" + key;
+    }
+
+    private boolean isRedisDown() {
+        return redisDownUntil > System.currentTimeMillis();
+    }
+
+    private void markRedisDown(DataAccessException e) {
+        if (!isRedisDown()) {
+            log.warn("Redis unavailable, bypassing the {} view cache for {} ms: {}", name, redisRetryMillis,
+                    e.getMessage());
+        }
+        redisDownUntil = System.currentTimeMillis() + redisRetryMillis;
+        nearCache.clear();
+    }
+}
@@ -0,0 +1,11 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+/**
+ * A cached API view together with the version of the entity it was built
+ * from, which the controllers return as the ETag.
+ *
+ * @param version The entity version
+ * @param view    The view, shared between requests and not to be modified
+ */
+public record VersionedView<V>(Long version, V view) {
+}
@@ -0,0 +1,62 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.function.Supplier;
+
+/**
+ * Cache of API views by key, e.g. book views by ISBN.
+ *
+ * @see TwoTierViewCache
+ * @see NoOpViewCache
+ */
+public interface ViewCache<V> {
+
+    /**
+     * @return The cache name, e.g. "books"
+     */
+    String getName();
+
+    /**
+     * @return false if every lookup goes straight to the loader
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the cached view of a key, loading and caching it on a miss.
+     * Concurrent misses of the same key share one load (see
+     * {@link SingleFlight}). Exceptions thrown by the loader (e.g. not found)
+     * are propagated to all of them and nothing is cached.
+     */
+    VersionedView<V> get(String key, Supplier<VersionedView<V>> loader);
+
+    /**
+     * Evicts a key from this instance and from every other instance. Lookups
+     * that start afterwards do not join a load already in flight.
+     */
+    void evict(String key);
+
+    /**
+     * Evicts a key from this instance only.
+     */
+    void evictLocal(String key);
+
+    Stats stats();
+
+    /**
+     * Lookup counters since startup. Of the misses, coalesced shared the load
+     * of a concurrent miss instead of loading themselves.
+     */
+    record Stats(String name, long nearHits, long remoteHits, long misses, long coalesced, long evictions,
+            int nearSize) {
+
+        /**
+         * @return The share of lookups answered by either tier, 0 if none
+         */
+        @JsonProperty("hitRatio")
+        public double hitRatio() {
+            long lookups = nearHits + remoteHits + misses;
+            return lookups == 0 ? 0 : (double) (nearHits + remoteHits) / lookups;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+
+/**
+ * Reports updated and deleted books and authors to the
+ * {@link ViewCacheInvalidator}. New entities have nothing cached, as misses
+ * are not cached.
+ */
+public class ViewCacheEntityListener {
+
+    private final ObjectProvider<ViewCacheInvalidator> invalidator;
+
+    public ViewCacheEntityListener(ObjectProvider<ViewCacheInvalidator> invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void changed(Object entity) {
+        if (entity instanceof Book book) {
+            invalidator.ifAvailable(service -> service.bookChanged(book.getIsbn()));
+        } else if (entity instanceof Author author) {
+            invalidator.ifAvailable(service -> service.authorChanged(author.getAuthorNumber()));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorView;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookView;
+
+import java.util.List;
+
+/**
+ * Evicts the cached views of changed books and authors once the change
+ * commits, on every instance.
+ *
+ * Called by {@link ViewCacheEntityListener} for every book or author written
+ * through the entity manager, and directly by writes that bypass it. Book
+ * views list their authors' names, so an author change also evicts the views
+ * of the author's books, serialized or not, as it does not bump their version.
+ * With caching disabled this only keeps later requests from joining a load
+ * that started before the change.
+ *
+ * The serialized views are kept per instance, so the changes made by other
+ * instances are evicted through RemoteChangeListener too.
+ */
+@Component
+public class ViewCacheInvalidator {
+
+    private final ViewCache<BookView> bookViewCache;
+    private final ViewCache<AuthorView> authorViewCache;
+    private final EncodedViewCache encodedBookViewCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+
+    public ViewCacheInvalidator(ViewCache<BookView> bookViewCache, ViewCache<AuthorView> authorViewCache,
+            EncodedViewCache encodedBookViewCache, EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.bookViewCache = bookViewCache;
+        this.authorViewCache = authorViewCache;
+        this.encodedBookViewCache = encodedBookViewCache;
+        this.entityManager = entityManager;
+        // Runs after the commit of the writing transaction, so it needs its own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public void bookChanged(String isbn) {
+        // Even without caching: a load in flight may have read the old book
+        afterCommit(() -> {
+            bookViewCache.evict(isbn);
+            encodedBookViewCache.evict(isbn);
+        });
+    }
+
+    public void authorChanged(Long authorNumber) {
+        afterCommit(() -> {
+            authorViewCache.evict(String.valueOf(authorNumber));
+            if (bookViewCache.isEnabled() || encodedBookViewCache.isEnabled()) {
+                isbnsOf(authorNumber).forEach(isbn -> {
+                    bookViewCache.evict(isbn);
+                    encodedBookViewCache.evict(isbn);
+                });
+            }
+        });
+    }
+
+    /**
+     * Evicts the serialized view of a book changed by another instance
+     * sharing the database. The view cache needs no eviction here: the
+     * writing instance already evicted its shared tier.
+     */
+    public void bookChangedElsewhere(String isbn) {
+        encodedBookViewCache.evict(isbn);
+    }
+
+    /**
+     * Evicts the serialized views of the books of an author changed by
+     * another instance sharing the database.
+     */
+    public void authorChangedElsewhere(Long authorNumber) {
+        if (encodedBookViewCache.isEnabled()) {
+            isbnsOf(authorNumber).forEach(encodedBookViewCache::evict);
+        }
+    }
+
+    private List<String> isbnsOf(Long authorNumber) {
+        return readTransaction.execute(status -> entityManager
+                .createQuery("SELECT b.isbn.isbn FROM Book b JOIN b.authors a WHERE a.authorNumber = :authorNumber",
+                        String.class)
+                .setParameter("authorNumber", authorNumber)
+                .getResultList());
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.codec;
+
+/**
+ * An encoded payload together with the metadata needed to decode it.
+ *
+ * @param body            The encoded (and possibly compressed) bytes
+ * @param contentType     MIME type of the codec that produced the body
+ * @param contentEncoding "gzip" when compressed, the charset for uncompressed
+ *                        JSON, or null for uncompressed binary formats
+ */
+public record EncodedPayload(byte[] body, String contentType, String contentEncoding) {
+
+    public boolean isCompressed() {
+        return PayloadCodecRegistry.GZIP_ENCODING.equals(contentEncoding);
+    }
+}
@@ -0,0 +1,38 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * PayloadCodec backed by a Jackson ObjectMapper.
+ *
+ * The same implementation serves JSON, CBOR and Smile; only the underlying
+ * JsonFactory differs.
+ */
+public class JacksonPayloadCodec implements PayloadCodec {
+
+    private final ObjectMapper objectMapper;
+    private final String contentType;
+
+    public JacksonPayloadCodec(ObjectMapper objectMapper, String contentType) {
+        this.objectMapper = objectMapper;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws IOException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Override
+    public Object decode(byte[] data, Type type) throws IOException {
+        return objectMapper.readValue(data, objectMapper.getTypeFactory().constructType(type));
+    }
+}
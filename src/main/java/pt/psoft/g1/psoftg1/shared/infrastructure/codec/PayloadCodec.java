@@ -0,0 +1,44 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Serialization format for event payloads (outbox rows and AMQP message
+ * bodies).
+ *
+ * Each codec is identified by the MIME content type it produces, so a
+ * consumer can pick the matching codec from the message's content-type
+ * header.
+ *
+ * @see PayloadCodecRegistry
+ */
+public interface PayloadCodec {
+
+    /**
+     * Gets the MIME content type written by this codec (e.g.,
+     * "application/json").
+     *
+     * @return The content type
+     */
+    String getContentType();
+
+    /**
+     * Serializes the payload.
+     *
+     * @param payload The object to serialize
+     * @return The encoded bytes
+     * @throws IOException if serialization fails
+     */
+    byte[] encode(Object payload) throws IOException;
+
+    /**
+     * Deserializes a payload.
+     *
+     * @param data The encoded bytes
+     * @param type The target type
+     * @return The decoded object
+     * @throws IOException if deserialization fails
+     */
+    Object decode(byte[] data, Type type) throws IOException;
+}
@@ -0,0 +1,104 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * AMQP MessageConverter that negotiates the payload format by content type.
+ *
+ * Outgoing messages are written with the registry's default codec, with the
+ * same content type and __TypeId__ headers as {@link Jackson2JsonMessageConverter}.
+ * Incoming messages are decoded with the codec matching their content-type
+ * header and gunzipped when their content-encoding is "gzip"; plain JSON is
+ * read by {@link Jackson2JsonMessageConverter}.
+ *
+ * A __TypeId__ header only selects classes of this application (or java.lang
+ * and java.util), so a message cannot make Jackson build arbitrary types.
+ */
+public class PayloadCodecMessageConverter implements MessageConverter {
+
+    /** Packages (and their subpackages) a __TypeId__ header may name */
+    private static final List<String> TRUSTED_PACKAGES = List.of("pt.psoft.g1.psoftg1.", "java.util.", "java.lang.");
+
+    private final PayloadCodecRegistry codecRegistry;
+    private final Jackson2JsonMessageConverter jsonConverter = new Jackson2JsonMessageConverter();
+    private final DefaultJackson2JavaTypeMapper typeMapper = new TrustedTypeMapper();
+
+    public PayloadCodecMessageConverter(PayloadCodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+        this.jsonConverter.setJavaTypeMapper(typeMapper);
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        EncodedPayload payload;
+        try {
+            payload = codecRegistry.encode(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode message payload", e);
+        }
+
+        messageProperties.setContentType(payload.contentType());
+        messageProperties.setContentEncoding(payload.contentEncoding());
+        messageProperties.setContentLength(payload.body().length);
+        typeMapper.fromJavaType(TypeFactory.defaultInstance().constructType(object.getClass()), messageProperties);
+        return new Message(payload.body(), messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        String contentType = properties.getContentType();
+        String contentEncoding = properties.getContentEncoding();
+        boolean compressed = PayloadCodecRegistry.GZIP_ENCODING.equalsIgnoreCase(contentEncoding);
+
+        if (!compressed && !isBinaryFormat(contentType)) {
+            return jsonConverter.fromMessage(message);
+        }
+
+        JavaType targetType = typeMapper.toJavaType(properties);
+        try {
+            return codecRegistry.decode(message.getBody(), contentType, contentEncoding, targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to decode " + contentType + " message payload", e);
+        }
+    }
+
+    /**
+     * DefaultJackson2JavaTypeMapper only trusts exact packages; this one
+     * trusts whole package trees and checks every type id header.
+     */
+    private static final class TrustedTypeMapper extends DefaultJackson2JavaTypeMapper {
+
+        TrustedTypeMapper() {
+            setTrustedPackages("*");
+        }
+
+        @Override
+        public JavaType toJavaType(MessageProperties properties) {
+            for (String header : new String[] { getClassIdFieldName(), getContentClassIdFieldName(),
+                    getKeyClassIdFieldName() }) {
+                String typeId = retrieveHeaderAsString(properties, header);
+                if (typeId != null && TRUSTED_PACKAGES.stream().noneMatch(typeId::startsWith)) {
+                    throw new IllegalArgumentException("The class '" + typeId + "' is not in the trusted packages: "
+                            + TRUSTED_PACKAGES);
+                }
+            }
+            return super.toJavaType(properties);
+        }
+    }
+
+    private static boolean isBinaryFormat(String contentType) {
+        return contentType != null
+                && (contentType.startsWith(PayloadCodecRegistry.CBOR) || contentType.startsWith(PayloadCodecRegistry.SMILE));
+    }
+}
@@ -0,0 +1,158 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Registry of the payload codecs supported for events.
+ *
+ * Producers encode with the configured default codec; consumers select the
+ * codec from the content type carried with the payload, so instances running
+ * different formats can still talk to each other.
+ *
+ * Configuration:
+ * - messaging.codec.format: json (default), cbor or smile
+ * - messaging.codec.compression-threshold: gzip bodies of at least this many
+ * bytes (0 disables compression, which is the default)
+ *
+ * JSON without compression stays the default so that external consumers of
+ * LMS.books keep receiving plain JSON.
+ */
+@Component
+public class PayloadCodecRegistry {
+
+    public static final String JSON = "application/json";
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String GZIP_ENCODING = "gzip";
+
+    private final Map<String, PayloadCodec> codecs = new LinkedHashMap<>();
+    private final PayloadCodec defaultCodec;
+    private final int compressionThreshold;
+
+    public PayloadCodecRegistry(ObjectMapper objectMapper,
+            @Value("${messaging.codec.format:json}") String format,
+            @Value("${messaging.codec.compression-threshold:0}") int compressionThreshold) {
+        register(new JacksonPayloadCodec(objectMapper, JSON));
+        register(new JacksonPayloadCodec(objectMapper.copyWith(new CBORFactory()), CBOR));
+        register(new JacksonPayloadCodec(objectMapper.copyWith(new SmileFactory()), SMILE));
+
+        this.defaultCodec = switch (format.toLowerCase(Locale.ROOT)) {
+            case "json" -> codecs.get(JSON);
+            case "cbor" -> codecs.get(CBOR);
+            case "smile" -> codecs.get(SMILE);
+            default -> throw new IllegalArgumentException("Unsupported messaging codec: " + format);
+        };
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    private void register(PayloadCodec codec) {
+        codecs.put(codec.getContentType(), codec);
+    }
+
+    /**
+     * Gets the codec used for new payloads.
+     *
+     * @return The default codec
+     */
+    public PayloadCodec getDefaultCodec() {
+        return defaultCodec;
+    }
+
+    /**
+     * Finds the codec for a content type. Parameters such as "; charset=UTF-8"
+     * are ignored and a missing content type is treated as JSON.
+     *
+     * @param contentType The MIME content type
+     * @return The matching codec
+     * @throws IllegalArgumentException if no codec is registered for the type
+     */
+    public PayloadCodec forContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return codecs.get(JSON);
+        }
+        String mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        PayloadCodec codec = codecs.get(mimeType);
+        if (codec == null) {
+            throw new IllegalArgumentException("No payload codec registered for content type: " + contentType);
+        }
+        return codec;
+    }
+
+    /**
+     * Encodes a payload with the default codec, compressing it when it reaches
+     * the configured threshold.
+     *
+     * @param payload The object to encode
+     * @return The encoded payload and its content type/encoding
+     * @throws IOException if serialization fails
+     */
+    public EncodedPayload encode(Object payload) throws IOException {
+        return wrap(defaultCodec.encode(payload), defaultCodec.getContentType());
+    }
+
+    /**
+     * Wraps an already serialized JSON document, applying the same compression
+     * policy as {@link #encode(Object)}.
+     *
+     * @param json The JSON document
+     * @return The encoded payload
+     * @throws IOException if compression fails
+     */
+    public EncodedPayload encodeJson(String json) throws IOException {
+        return wrap(json.getBytes(StandardCharsets.UTF_8), JSON);
+    }
+
+    /**
+     * Decodes a payload produced by any registered codec.
+     *
+     * @param body            The encoded bytes
+     * @param contentType     The payload content type
+     * @param contentEncoding The payload content encoding (may be null)
+     * @param type            The target type
+     * @return The decoded object
+     * @throws IOException if decompression or deserialization fails
+     */
+    public Object decode(byte[] body, String contentType, String contentEncoding, Type type) throws IOException {
+        byte[] data = GZIP_ENCODING.equalsIgnoreCase(contentEncoding) ? gunzip(body) : body;
+        return forContentType(contentType).decode(data, type);
+    }
+
+    private EncodedPayload wrap(byte[] body, String contentType) throws IOException {
+        if (compressionThreshold > 0 && body.length >= compressionThreshold) {
+            return new EncodedPayload(gzip(body), contentType, GZIP_ENCODING);
+        }
+        String encoding = JSON.equals(contentType) ? StandardCharsets.UTF_8.name() : null;
+        return new EncodedPayload(body, contentType, encoding);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, data.length / 2));
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}
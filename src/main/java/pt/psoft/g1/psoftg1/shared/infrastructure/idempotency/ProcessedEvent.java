@@ -0,0 +1,83 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.idempotency;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * An event processed within messaging.dedup.window ids of its producer's
+ * watermark.
+ *
+ * The Bloom filter of {@link ProcessedEventStore} only says an event might
+ * have been processed; this row is what confirms it before the event is
+ * dropped. Rows further below the watermark are pruned, as the watermark
+ * alone covers them.
+ *
+ * @see ProcessedEventStore
+ */
+@Entity
+@Table(name = "processed_events")
+@IdClass(ProcessedEvent.Key.class)
+public class ProcessedEvent implements Persistable<ProcessedEvent.Key> {
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor // JPA requires a no-arg constructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String producerId;
+        private long eventId;
+    }
+
+    /**
+     * Producer instance id (the AMQP app-id of its messages).
+     */
+    @Id
+    @Column(length = 100)
+    private String producerId;
+
+    @Id
+    private long eventId;
+
+    // Rows are only ever inserted, so saving one needs no lookup first
+    @Transient
+    private boolean isNew = true;
+
+    // JPA requires a no-arg constructor
+    protected ProcessedEvent() {
+    }
+
+    public ProcessedEvent(String producerId, long eventId) {
+        this.producerId = producerId;
+        this.eventId = eventId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(producerId, eventId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getProducerId() {
+        return producerId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+}
@@ -0,0 +1,25 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the recently processed events, by producer and event id.
+ */
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, ProcessedEvent.Key> {
+
+    @Query("SELECT e.eventId FROM ProcessedEvent e WHERE e.producerId = :producerId AND e.eventId IN :eventIds")
+    List<Long> findRecordedEventIds(@Param("producerId") String producerId,
+            @Param("eventIds") Collection<Long> eventIds);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent e WHERE e.producerId = :producerId AND e.eventId < :eventId")
+    int deleteBefore(@Param("producerId") String producerId, @Param("eventId") long eventId);
+}
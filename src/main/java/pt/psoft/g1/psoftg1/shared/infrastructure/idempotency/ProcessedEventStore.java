@@ -0,0 +1,295 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pt.psoft.g1.psoftg1.shared.infrastructure.bloom.RollingBloomFilter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which events have already been consumed, so redeliveries are
+ * dropped before they are applied.
+ *
+ * Every event published through the outbox carries its outbox id as AMQP
+ * message-id and the producer instance id as app-id. Outbox ids grow
+ * monotonically per producer, which allows a compact structure:
+ * - the highest id processed from each producer by each shard queue (the
+ * watermark), persisted in the same transaction as the changes the events
+ * caused, in one row per shard so the shard consumers never contend for it
+ * - the ids processed within the window below the watermarks, persisted
+ * with them ({@link ProcessedEvent})
+ * - a rolling Bloom filter of the recently processed ids
+ *
+ * An event is a duplicate when its id is more than messaging.dedup.window ids
+ * below the watermark of the shard it was consumed from, or when it lies
+ * inside the window and was recorded as processed. The shards consume at
+ * their own pace, so an event is only compared with the ids of its own
+ * shard. Only Bloom hits are confirmed against the recorded ids; a false
+ * positive costs a lookup, never the event.
+ *
+ * After a restart the Bloom filter is empty: events inside the window are
+ * applied again, which is safe because applying an event is idempotent.
+ * Messages without an outbox id (e.g. published directly) are never dropped.
+ *
+ * Configuration:
+ * - messaging.dedup.window: ids tracked below the watermark (default 100000)
+ * - messaging.dedup.false-positive-rate: Bloom filter target (default 0.001)
+ * - messaging.dedup.prune-interval: how often the processed ids below the
+ * window are deleted, in ms (default 600000)
+ */
+@Component
+public class ProcessedEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventStore.class);
+
+    /** Shard of the watermarks seeded from a snapshot */
+    static final String SEEDED_SHARD = "seeded";
+
+    private final ProcessedEventWatermarkRepository watermarkRepository;
+    private final ProcessedEventRepository processedEventRepository;
+    private final RollingBloomFilter recentlyProcessed;
+    private final long window;
+
+    private final Map<ProcessedEventWatermark.Key, Long> watermarks = new ConcurrentHashMap<>();
+    private volatile boolean watermarksLoaded;
+
+    public ProcessedEventStore(ProcessedEventWatermarkRepository watermarkRepository,
+            ProcessedEventRepository processedEventRepository,
+            @Value("${messaging.dedup.window:100000}") long window,
+            @Value("${messaging.dedup.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.watermarkRepository = watermarkRepository;
+        this.processedEventRepository = processedEventRepository;
+        this.window = window;
+        this.recentlyProcessed = new RollingBloomFilter(window, falsePositiveRate);
+    }
+
+    /**
+     * Checks whether an event was already processed. Once the watermarks are
+     * loaded, only accesses the database to confirm a Bloom filter hit.
+     *
+     * @param producerId The producer instance id (may be null)
+     * @param shard      The queue the event was consumed from
+     * @param eventId    The event id (may be null or non-numeric)
+     * @return true if the event is known to be a duplicate
+     */
+    public boolean isDuplicate(String producerId, String shard, String eventId) {
+        Long id = parseEventId(producerId, eventId);
+        if (id == null) {
+            return false;
+        }
+
+        long watermark = watermarkOf(producerId, shard);
+        if (id > watermark) {
+            return false;
+        }
+        if (id <= watermark - window) {
+            return true;
+        }
+        return recentlyProcessed.mightContain(key(producerId, id))
+                && processedEventRepository.existsById(new ProcessedEvent.Key(producerId, id));
+    }
+
+    /**
+     * Removes already processed events from a batch, including repeated
+     * deliveries within the batch itself.
+     *
+     * @param messages The received messages
+     * @return The messages that still need to be processed, in order
+     */
+    public <T> List<Message<T>> dropDuplicates(List<Message<T>> messages) {
+        List<Message<T>> fresh = new ArrayList<>(messages.size());
+        Set<String> seenInBatch = new HashSet<>();
+        for (Message<T> message : messages) {
+            String producerId = producerId(message);
+            String eventId = eventId(message);
+            Long id = parseEventId(producerId, eventId);
+
+            if ((id != null && !seenInBatch.add(key(producerId, id))) || isDuplicate(producerId, shard(message), eventId)) {
+                log.debug("Dropping duplicate event {} from {}", eventId, producerId);
+                continue;
+            }
+            fresh.add(message);
+        }
+        return fresh;
+    }
+
+    /**
+     * Records events as processed. Must run in the transaction that applies
+     * them: the watermarks and ids are persisted with it, and the in-memory
+     * state is only updated once it commits.
+     *
+     * @param messages The processed messages
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProcessed(Collection<? extends Message<?>> messages) {
+        Map<ProcessedEventWatermark.Key, Long> highestByShard = new HashMap<>();
+        Map<String, Set<Long>> idsByProducer = new HashMap<>();
+        List<String> keys = new ArrayList<>(messages.size());
+        for (Message<?> message : messages) {
+            String producerId = producerId(message);
+            Long id = parseEventId(producerId, eventId(message));
+            if (id != null) {
+                highestByShard.merge(new ProcessedEventWatermark.Key(producerId, shard(message)), id, Math::max);
+                idsByProducer.computeIfAbsent(producerId, producer -> new HashSet<>()).add(id);
+                keys.add(key(producerId, id));
+            }
+        }
+        if (idsByProducer.isEmpty()) {
+            return;
+        }
+
+        highestByShard.forEach((key, id) -> advance(key, id));
+        idsByProducer.forEach(this::record);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keys.forEach(recentlyProcessed::put);
+                highestByShard.forEach((key, id) -> watermarks.merge(key, id, Math::max));
+            }
+        });
+    }
+
+    /**
+     * Moves a producer's watermark up to an event id without the individual
+     * events having been seen, e.g. after loading a catalog snapshot that
+     * already contains their effects. Must run in the transaction that loads
+     * the snapshot.
+     *
+     * The seeded watermark counts for every shard. Only ids more than
+     * messaging.dedup.window below it are dropped from then on; the ones
+     * within the window are applied again, which covers events that
+     * committed out of id order.
+     *
+     * @param producerId The producer instance id
+     * @param watermark  The highest event id covered
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void seedWatermark(String producerId, long watermark) {
+        advance(new ProcessedEventWatermark.Key(producerId, SEEDED_SHARD), watermark);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                watermarks().merge(new ProcessedEventWatermark.Key(producerId, SEEDED_SHARD), watermark,
+                        Math::max);
+            }
+        });
+    }
+
+    /**
+     * Only the consumer of the shard writes its row, so reading and saving
+     * it cannot lose an update.
+     */
+    private void advance(ProcessedEventWatermark.Key key, long id) {
+        ProcessedEventWatermark watermark = watermarkRepository.findById(key)
+                .orElseGet(() -> new ProcessedEventWatermark(key.getProducerId(), key.getShard(), id));
+        watermark.advanceTo(id);
+        watermarkRepository.save(watermark);
+    }
+
+    /**
+     * Records the ids of events, skipping the ones already recorded: within
+     * the window, events are applied again after a restart or when their
+     * Bloom filter entry has rolled out.
+     */
+    private void record(String producerId, Set<Long> ids) {
+        Set<Long> unrecorded = new HashSet<>(ids);
+        processedEventRepository.findRecordedEventIds(producerId, ids).forEach(unrecorded::remove);
+        processedEventRepository.saveAll(unrecorded.stream().map(id -> new ProcessedEvent(producerId, id)).toList());
+    }
+
+    /**
+     * Deletes the recorded ids more than messaging.dedup.window below their
+     * producer's highest watermark. A shard lagging that far behind applies
+     * the events of the pruned ids again, which is safe.
+     */
+    @Scheduled(fixedDelayString = "${messaging.dedup.prune-interval:600000}")
+    @Transactional
+    public void pruneProcessedEvents() {
+        Map<String, Long> highestByProducer = new HashMap<>();
+        watermarks().forEach((key, watermark) -> highestByProducer.merge(key.getProducerId(), watermark, Math::max));
+        highestByProducer.forEach((producerId, watermark) -> {
+            int deleted = processedEventRepository.deleteBefore(producerId, watermark - window);
+            if (deleted > 0) {
+                log.debug("Pruned {} processed events of {}", deleted, producerId);
+            }
+        });
+    }
+
+    /**
+     * @return Approximate memory used by the Bloom filter, in bytes
+     */
+    public long getMemoryBytes() {
+        return recentlyProcessed.getMemoryBytes();
+    }
+
+    /**
+     * @return The watermark of a shard, raised to the producer's seeded one;
+     *         0 if neither exists
+     */
+    private long watermarkOf(String producerId, String shard) {
+        Map<ProcessedEventWatermark.Key, Long> loaded = watermarks();
+        return Math.max(loaded.getOrDefault(new ProcessedEventWatermark.Key(producerId, shard), 0L),
+                loaded.getOrDefault(new ProcessedEventWatermark.Key(producerId, SEEDED_SHARD), 0L));
+    }
+
+    private Map<ProcessedEventWatermark.Key, Long> watermarks() {
+        if (!watermarksLoaded) {
+            synchronized (this) {
+                if (!watermarksLoaded) {
+                    watermarkRepository.findAll().forEach(watermark -> watermarks.merge(
+                            new ProcessedEventWatermark.Key(watermark.getProducerId(), watermark.getShard()),
+                            watermark.getHighWatermark(), Math::max));
+                    watermarksLoaded = true;
+                    log.info("Loaded {} processed event watermarks", watermarks.size());
+                }
+            }
+        }
+        return watermarks;
+    }
+
+    private static String producerId(Message<?> message) {
+        return message.getHeaders().get(AmqpHeaders.APP_ID, String.class);
+    }
+
+    private static String shard(Message<?> message) {
+        String queue = message.getHeaders().get(AmqpHeaders.CONSUMER_QUEUE, String.class);
+        return queue != null ? queue : "";
+    }
+
+    private static String eventId(Message<?> message) {
+        return message.getHeaders().get(AmqpHeaders.MESSAGE_ID, String.class);
+    }
+
+    private static Long parseEventId(String producerId, String eventId) {
+        if (producerId == null || eventId == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String key(String producerId, long eventId) {
+        return producerId + ':' + eventId;
+    }
+}
@@ -0,0 +1,95 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.idempotency;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Highest event id processed from a producer by one shard consumer.
+ *
+ * Event ids are outbox ids, which grow monotonically per producer, so any
+ * event far enough below the watermark of the shard it was consumed from is
+ * known to be a redelivery. Each shard queue has a single consumer, so every
+ * row has one writer and the shards never wait for each other's locks.
+ *
+ * @see ProcessedEventStore
+ */
+@Entity
+@Table(name = "processed_event_shard_watermarks")
+@IdClass(ProcessedEventWatermark.Key.class)
+public class ProcessedEventWatermark {
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor // JPA requires a no-arg constructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String producerId;
+        private String shard;
+    }
+
+    /**
+     * Producer instance id (the AMQP app-id of its messages).
+     */
+    @Id
+    @Column(length = 100)
+    private String producerId;
+
+    /**
+     * The queue the events were consumed from, or the writer that seeded the
+     * watermark.
+     */
+    @Id
+    @Column(length = 255)
+    private String shard;
+
+    @Column(nullable = false)
+    private long highWatermark;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // JPA requires a no-arg constructor
+    protected ProcessedEventWatermark() {
+    }
+
+    public ProcessedEventWatermark(String producerId, String shard, long highWatermark) {
+        this.producerId = producerId;
+        this.shard = shard;
+        this.highWatermark = highWatermark;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Raises the watermark; lower ids are ignored.
+     *
+     * @param eventId The processed event id
+     */
+    public void advanceTo(long eventId) {
+        if (eventId > highWatermark) {
+            this.highWatermark = eventId;
+            this.updatedAt = Instant.now();
+        }
+    }
+
+    public String getProducerId() {
+        return producerId;
+    }
+
+    public String getShard() {
+        return shard;
+    }
+
+    public long getHighWatermark() {
+        return highWatermark;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
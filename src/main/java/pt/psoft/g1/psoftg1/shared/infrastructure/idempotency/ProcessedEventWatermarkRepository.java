@@ -0,0 +1,11 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the per-producer and shard processed event watermarks.
+ */
+@Repository
+public interface ProcessedEventWatermarkRepository extends JpaRepository<ProcessedEventWatermark, ProcessedEventWatermark.Key> {
+}
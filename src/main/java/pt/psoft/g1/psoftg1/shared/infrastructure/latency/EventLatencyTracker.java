@@ -0,0 +1,92 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.latency;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms for each hop an event takes from the outbox to the
+ * consumers.
+ *
+ * Every event is stamped with epoch-millisecond headers along the way:
+ * {@link #CREATED_AT_HEADER} when the outbox row is written,
+ * {@link #COMMITTED_AT_HEADER} when its transaction commits and
+ * {@link #PUBLISHED_AT_HEADER} when the poller sends it. Consumers add the
+ * receive and apply times, which gives the hops:
+ * <ul>
+ * <li>{@link #HOP_COMMIT}: rest of the business transaction</li>
+ * <li>{@link #HOP_OUTBOX_POLL}: waiting for the outbox poller</li>
+ * <li>{@link #HOP_BROKER}: broker routing, queueing and batch collection</li>
+ * <li>{@link #HOP_APPLY}: consumer deduplication and database write</li>
+ * <li>{@link #HOP_END_TO_END}: creation until applied by a consumer</li>
+ * </ul>
+ * The producer side hops are recorded by the publishing instance, the others
+ * by each consumer. Hops across hosts include their clock skew.
+ */
+@Component
+public class EventLatencyTracker {
+
+    public static final String CREATED_AT_HEADER = "x-created-at";
+    public static final String COMMITTED_AT_HEADER = "x-committed-at";
+    public static final String PUBLISHED_AT_HEADER = "x-published-at";
+
+    public static final String HOP_COMMIT = "outbox.commit";
+    public static final String HOP_OUTBOX_POLL = "outbox.poll";
+    public static final String HOP_BROKER = "broker";
+    public static final String HOP_APPLY = "consumer.apply";
+    public static final String HOP_END_TO_END = "end-to-end";
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Records the time between two timestamps, if both are known.
+     *
+     * @param hop  The hop name, e.g. {@link #HOP_BROKER}
+     * @param from Start of the hop in epoch millis, may be null
+     * @param to   End of the hop in epoch millis, may be null
+     */
+    public void record(String hop, Long from, Long to) {
+        if (from != null && to != null) {
+            histograms.computeIfAbsent(hop, name -> new LatencyHistogram()).record(to - from);
+        }
+    }
+
+    /**
+     * @return A snapshot per hop, in a stable order
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+        for (String hop : new String[] { HOP_COMMIT, HOP_OUTBOX_POLL, HOP_BROKER, HOP_APPLY, HOP_END_TO_END }) {
+            LatencyHistogram histogram = histograms.get(hop);
+            if (histogram != null) {
+                snapshots.put(hop, histogram.snapshot());
+            }
+        }
+        histograms.forEach((hop, histogram) -> snapshots.putIfAbsent(hop, histogram.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Reads a timestamp header, whichever numeric or string type the
+     * transport delivered it as.
+     */
+    public static Long timestamp(Object header) {
+        if (header instanceof Number number) {
+            return number.longValue();
+        }
+        if (header != null) {
+            try {
+                return Long.parseLong(header.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,132 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.merkle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed-shape Merkle tree over a keyed set of versioned items.
+ *
+ * Keys are hashed into 2^height leaves. A leaf holds the XOR of the digests
+ * of its items, so adding, changing or removing one item is O(height): the
+ * old digest is XORed out, the new one in, and the path to the root is
+ * recomputed. Two replicas holding the same (key, version) pairs have equal
+ * trees regardless of the order the changes were applied in, and comparing
+ * the nodes of one level tells which leaf ranges differ.
+ *
+ * Nodes are stored heap-style: node 1 is the root, the children of node n are
+ * 2n and 2n + 1, and the leaves are nodes 2^height .. 2^(height+1) - 1.
+ */
+public class MerkleDigestTree {
+
+    private final int height;
+    private final long[] nodes;
+
+    /**
+     * @param height Depth of the leaves, e.g. 10 for 1024 leaves (1..20)
+     */
+    public MerkleDigestTree(int height) {
+        if (height < 1 || height > 20) {
+            throw new IllegalArgumentException("Tree height must be between 1 and 20");
+        }
+        this.height = height;
+        this.nodes = new long[2 << height];
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLeafCount() {
+        return 1 << height;
+    }
+
+    /**
+     * @return The leaf index (0 .. leafCount - 1) a key belongs to
+     */
+    public int leafOf(String key) {
+        return (int) (mix(hash(key)) >>> (64 - height));
+    }
+
+    /**
+     * Replaces the digest of one item.
+     *
+     * @param key       The item key
+     * @param oldDigest Its previous digest, 0 if it was absent
+     * @param newDigest Its new digest, 0 if it was removed
+     */
+    public synchronized void update(String key, long oldDigest, long newDigest) {
+        int node = getLeafCount() + leafOf(key);
+        nodes[node] ^= oldDigest ^ newDigest;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            nodes[node] = combine(nodes[2 * node], nodes[2 * node + 1]);
+        }
+    }
+
+    public synchronized long root() {
+        return nodes[1];
+    }
+
+    /**
+     * @param depth 0 for the root, up to the height for the leaves
+     * @return The 2^depth node hashes of that level, left to right
+     */
+    public synchronized long[] level(int depth) {
+        if (depth < 0 || depth > height) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + height);
+        }
+        long[] level = new long[1 << depth];
+        System.arraycopy(nodes, 1 << depth, level, 0, level.length);
+        return level;
+    }
+
+    /**
+     * @return The first leaf (inclusive) covered by a node of a level
+     */
+    public int firstLeafOf(int depth, int index) {
+        return index << (height - depth);
+    }
+
+    /**
+     * @return The last leaf (exclusive) covered by a node of a level
+     */
+    public int endLeafOf(int depth, int index) {
+        return (index + 1) << (height - depth);
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(nodes, 0);
+    }
+
+    /**
+     * Digest of one item; never 0, so present and absent items differ.
+     */
+    public static long digest(String key, long version) {
+        long digest = mix(hash(key) ^ mix(version));
+        return digest != 0 ? digest : 1;
+    }
+
+    private static long combine(long left, long right) {
+        return left == 0 && right == 0 ? 0 : mix(left * 0x9E3779B97F4A7C15L + right);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * splitmix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,257 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecRegistry;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The outbox as a change feed: subscribers get the outbox events after an
+ * offset (an outbox id) from the table, then every event committed afterwards
+ * as it commits, pushed by {@link #committed(OutboxEvent)} instead of polled.
+ *
+ * Each subscription is delivered by one task at a time from a bounded queue,
+ * so a slow subscriber never holds up the transaction that committed an
+ * event; one that falls more than changes.queue-capacity events behind is
+ * closed, and resumes from the table when it reconnects with its last offset.
+ *
+ * Delivery is at-least-once and in commit order: an event committed while a
+ * subscriber catches up may be sent twice, so subscribers skip offsets they
+ * have seen. Ids are allocated before commit, so two concurrent writes may
+ * commit out of id order; a subscriber that reconnects right then with the
+ * higher one can miss the lower one. Events older than
+ * outbox.cleanup-days are deleted; subscribers further behind start over
+ * from a catalog snapshot, which is tagged with the offset to resume from.
+ */
+@Component
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final PayloadCodecRegistry codecRegistry;
+    private final Executor executor;
+    private final int pageSize;
+    private final int queueCapacity;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public ChangeFeed(OutboxEventRepository outboxRepository, PayloadCodecRegistry codecRegistry,
+            @Value("${changes.page-size:500}") int pageSize,
+            @Value("${changes.queue-capacity:1000}") int queueCapacity) {
+        this(outboxRepository, codecRegistry, Executors.newCachedThreadPool(daemonThreads()), pageSize,
+                queueCapacity);
+    }
+
+    ChangeFeed(OutboxEventRepository outboxRepository, PayloadCodecRegistry codecRegistry, Executor executor,
+            int pageSize, int queueCapacity) {
+        this.outboxRepository = outboxRepository;
+        this.codecRegistry = codecRegistry;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Subscribes to the events after an offset.
+     *
+     * @param since The last offset the subscriber has, or null for only the
+     *              events committed from now on
+     */
+    public Subscription subscribe(Long since, ChangeSink sink) {
+        Subscription subscription = new Subscription(sink);
+        // Registered before the table is read, so no commit falls in between
+        subscriptions.add(subscription);
+        long watermark = outboxRepository.findHighWatermark();
+        subscription.start(since != null ? since : watermark, watermark);
+        return subscription;
+    }
+
+    /**
+     * Pushes an outbox event to the subscribers once its transaction has
+     * committed.
+     */
+    public void committed(OutboxEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Change change = toChange(event);
+        subscriptions.forEach(subscription -> subscription.offer(change));
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.forEach(Subscription::close);
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private Change toChange(OutboxEvent event) {
+        JsonNode payload = null;
+        try {
+            payload = (JsonNode) codecRegistry.decode(event.getPayload(), event.getContentType(),
+                    event.getContentEncoding(), JsonNode.class);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot decode the payload of outbox event {}: {}", event.getId(), e.getMessage());
+        }
+        return new Change(event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType(),
+                event.getCreatedAt(), payload);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * An outbox event as sent to subscribers, its payload decoded to JSON
+     * whatever codec stored it (null if it could not be decoded).
+     */
+    public record Change(long offset, String aggregateType, String aggregateId, String eventType,
+            Instant createdAt, JsonNode payload) {
+    }
+
+    /**
+     * Where a subscription sends its changes, e.g. an SSE connection. Called
+     * by one thread at a time.
+     */
+    public interface ChangeSink {
+
+        /**
+         * @throws IOException if the subscriber is gone; the subscription is
+         *                     then closed
+         */
+        void send(Change change) throws IOException;
+
+        void close();
+    }
+
+    public final class Subscription {
+
+        private final ChangeSink sink;
+        private final ArrayDeque<Change> queue = new ArrayDeque<>();
+        // Replayed events committed after the subscription, which may also be queued
+        private final Set<Long> replayed = new HashSet<>();
+        private long offset;
+        private long watermark;
+        private boolean replaying = true;
+        private boolean draining;
+        private volatile boolean closed;
+        private boolean sinkClosed;
+
+        private Subscription(ChangeSink sink) {
+            this.sink = sink;
+        }
+
+        private void start(long since, long watermark) {
+            this.offset = since;
+            this.watermark = watermark;
+            synchronized (this) {
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        private void offer(Change change) {
+            boolean overflow;
+            boolean schedule = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                overflow = queue.size() >= queueCapacity;
+                if (!overflow) {
+                    queue.add(change);
+                    schedule = !draining;
+                    draining = true;
+                }
+            }
+            if (overflow) {
+                log.info("Closing a change feed subscriber {} events behind", queueCapacity);
+                close();
+            } else if (schedule) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (replaying) {
+                    replay();
+                    replaying = false;
+                }
+                while (!closed) {
+                    Change next;
+                    synchronized (this) {
+                        next = queue.poll();
+                        if (next == null) {
+                            draining = false;
+                            return;
+                        }
+                    }
+                    if (!replayed.remove(next.offset())) {
+                        sink.send(next);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Change feed subscriber gone: {}", e.getMessage());
+                close();
+            }
+        }
+
+        private void replay() throws IOException {
+            List<OutboxEvent> page;
+            do {
+                page = outboxRepository.findAfter(offset, pageSize);
+                for (OutboxEvent event : page) {
+                    if (closed) {
+                        return;
+                    }
+                    sink.send(toChange(event));
+                    offset = event.getId();
+                    if (offset > watermark) {
+                        replayed.add(offset);
+                    }
+                }
+            } while (page.size() == pageSize);
+        }
+
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                if (sinkClosed) {
+                    return;
+                }
+                sinkClosed = true;
+            }
+            sink.close();
+        }
+    }
+}
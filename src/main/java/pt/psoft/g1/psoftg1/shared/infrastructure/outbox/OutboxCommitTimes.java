@@ -0,0 +1,50 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.outbox;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * When the transactions that wrote recent outbox events committed, for the
+ * latency tracing headers of {@link OutboxPublisher}.
+ *
+ * The commit time is only known after the row is inserted; writing it to the
+ * row would cost every event a second UPDATE in its transaction. It is kept
+ * here instead until the event is published. Events written before a restart,
+ * or evicted once MAX_EVENTS are waiting, are published without it.
+ */
+@Component
+public class OutboxCommitTimes {
+
+    static final int MAX_EVENTS = 10_000;
+
+    private final Map<Long, Instant> commitTimes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Instant> eldest) {
+            return size() > MAX_EVENTS;
+        }
+    };
+
+    /**
+     * Records that the transaction writing an event has just committed.
+     */
+    public synchronized void committed(OutboxEvent event) {
+        commitTimes.put(event.getId(), Instant.now());
+    }
+
+    /**
+     * @return When the event committed, null if unknown
+     */
+    public synchronized Instant committedAt(Long eventId) {
+        return commitTimes.get(eventId);
+    }
+
+    /**
+     * Forgets the commit time of an event once it has been published.
+     */
+    public synchronized void published(Long eventId) {
+        commitTimes.remove(eventId);
+    }
+}
@@ -1,6 +1,8 @@
 package pt.psoft.g1.psoftg1.shared.infrastructure.outbox;
 
 import jakarta.persistence.*;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.EncodedPayload;
+
 import java.time.Instant;
 
 /**
@@ -45,10 +47,24 @@ public class OutboxEvent {
     private String eventType;
 
     /**
-     * JSON serialized event payload.
+     * Serialized event payload, encoded with the codec named by contentType.
+     */
+    @Column(name = "payload_data", nullable = false, length = 1_048_576)
+    private byte[] payload;
+
+    /**
+     * MIME type of the payload codec (e.g., "application/json",
+     * "application/cbor").
+     */
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    /**
+     * Payload content encoding: "gzip" when compressed, the charset for plain
+     * JSON, or null for uncompressed binary payloads.
      */
-    @Column(columnDefinition = "TEXT", nullable = false)
-    private String payload;
+    @Column(length = 50)
+    private String contentEncoding;
 
     /**
      * RabbitMQ exchange name.
@@ -102,16 +118,18 @@ public class OutboxEvent {
      * @param aggregateType Type of aggregate (e.g., "Book")
      * @param aggregateId   ID of the aggregate
      * @param eventType     Type of event (e.g., "BookCreatedEvent")
-     * @param payload       JSON serialized event data
+     * @param payload       Encoded event data
      * @param exchangeName  RabbitMQ exchange
      * @param routingKey    RabbitMQ routing key
      */
     public OutboxEvent(String aggregateType, String aggregateId, String eventType,
-            String payload, String exchangeName, String routingKey) {
+            EncodedPayload payload, String exchangeName, String routingKey) {
         this.aggregateType = aggregateType;
         this.aggregateId = aggregateId;
         this.eventType = eventType;
-        this.payload = payload;
+        this.payload = payload.body();
+        this.contentType = payload.contentType();
+        this.contentEncoding = payload.contentEncoding();
         this.exchangeName = exchangeName;
         this.routingKey = routingKey;
         this.createdAt = Instant.now();
@@ -136,10 +154,18 @@ public class OutboxEvent {
         return eventType;
     }
 
-    public String getPayload() {
+    public byte[] getPayload() {
         return payload;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
     public String getExchangeName() {
         return exchangeName;
     }
@@ -199,6 +225,7 @@ public class OutboxEvent {
                 ", aggregateType='" + aggregateType + '\'' +
                 ", aggregateId='" + aggregateId + '\'' +
                 ", eventType='" + eventType + '\'' +
+                ", contentType='" + contentType + '\'' +
                 ", status=" + status +
                 ", retryCount=" + retryCount +
                 '}';
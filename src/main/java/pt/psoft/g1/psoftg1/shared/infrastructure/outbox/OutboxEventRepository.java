@@ -73,4 +73,23 @@ public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>
      * @return List of failed events
      */
     List<OutboxEvent> findByStatusOrderByCreatedAtDesc(OutboxStatus status);
+
+    /**
+     * Highest outbox id written so far (0 if none), used to tag catalog
+     * snapshots.
+     *
+     * @return The highest event id
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e")
+    long findHighWatermark();
+
+    /**
+     * Events written after an offset, in id order, for the change feed.
+     *
+     * @param since The offset (outbox id) to read after
+     * @param limit Maximum number of events to return
+     * @return The events with a greater id
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :since ORDER BY e.id ASC LIMIT :limit")
+    List<OutboxEvent> findAfter(@Param("since") long since, @Param("limit") int limit);
 }
@@ -10,8 +10,9 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.shared.infrastructure.latency.EventLatencyTracker;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -27,6 +28,9 @@ import java.util.List;
  * - Processes events in FIFO order (per aggregate)
  * - Retries failed events up to MAX_RETRIES times
  * - Cleans up old published events daily
+ * - Tags each message with its outbox id (message-id) and producer (app-id)
+ * - Stamps creation, commit and publish times for latency tracing (see
+ * {@link EventLatencyTracker})
  * 
  * @see OutboxEvent
  * @see OutboxEventRepository
@@ -37,8 +41,12 @@ public class OutboxPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(OutboxPublisher.class);
 
+    private static final String BOOK_AGGREGATE = "Book";
+
     private final OutboxEventRepository outboxRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final EventLatencyTracker latencyTracker;
+    private final OutboxCommitTimes commitTimes;
 
     @Value("${outbox.max-retries:3}")
     private int maxRetries;
@@ -49,9 +57,15 @@ public class OutboxPublisher {
     @Value("${outbox.cleanup-days:7}")
     private int cleanupDays;
 
-    public OutboxPublisher(OutboxEventRepository outboxRepository, RabbitTemplate rabbitTemplate) {
+    @Value("${spring.application.instance-id:default}")
+    private String instanceId;
+
+    public OutboxPublisher(OutboxEventRepository outboxRepository, RabbitTemplate rabbitTemplate,
+            EventLatencyTracker latencyTracker, OutboxCommitTimes commitTimes) {
         this.outboxRepository = outboxRepository;
         this.rabbitTemplate = rabbitTemplate;
+        this.latencyTracker = latencyTracker;
+        this.commitTimes = commitTimes;
     }
 
     /**
@@ -84,15 +98,29 @@ public class OutboxPublisher {
      */
     private void publishEvent(OutboxEvent event) {
         try {
-            // Create message with proper JSON content type to avoid double-encoding
-            // The payload is already JSON-serialized, so we send it as raw bytes
+            // The payload is already encoded, so we send it as raw bytes with the
+            // content type/encoding it was stored with (listeners pick the codec from it)
             MessageProperties props = new MessageProperties();
-            props.setContentType(MessageProperties.CONTENT_TYPE_JSON);
-            props.setContentEncoding(StandardCharsets.UTF_8.name());
+            props.setContentType(event.getContentType());
+            props.setContentEncoding(event.getContentEncoding());
+            // Outbox id + producer identify the event, so consumers can drop
+            // redeliveries (see ProcessedEventStore)
+            props.setMessageId(String.valueOf(event.getId()));
+            props.setAppId(instanceId);
+            if (BOOK_AGGREGATE.equals(event.getAggregateType())) {
+                // Keeps all events of a book on the same sync shard queue
+                props.setHeader(BookEvents.SHARD_HEADER, BookEvents.shardOf(event.getAggregateId()));
+            }
+            Long createdAt = toEpochMilli(event.getCreatedAt());
+            Long committedAt = toEpochMilli(commitTimes.committedAt(event.getId()));
+            long publishedAt = System.currentTimeMillis();
+            props.setHeader(EventLatencyTracker.CREATED_AT_HEADER, createdAt);
+            if (committedAt != null) {
+                props.setHeader(EventLatencyTracker.COMMITTED_AT_HEADER, committedAt);
+            }
+            props.setHeader(EventLatencyTracker.PUBLISHED_AT_HEADER, publishedAt);
 
-            Message message = new Message(
-                    event.getPayload().getBytes(StandardCharsets.UTF_8),
-                    props);
+            Message message = new Message(event.getPayload(), props);
 
             rabbitTemplate.send(
                     event.getExchangeName(),
@@ -101,6 +129,9 @@ public class OutboxPublisher {
 
             event.markAsPublished();
             outboxRepository.save(event);
+            commitTimes.published(event.getId());
+            latencyTracker.record(EventLatencyTracker.HOP_COMMIT, createdAt, committedAt);
+            latencyTracker.record(EventLatencyTracker.HOP_OUTBOX_POLL, committedAt, publishedAt);
 
             log.debug("Published outbox event: {} ({})", event.getEventType(), event.getAggregateId());
 
@@ -117,6 +148,10 @@ public class OutboxPublisher {
         }
     }
 
+    private static Long toEpochMilli(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : null;
+    }
+
     /**
      * Clean up old published events daily to prevent table growth.
      * 
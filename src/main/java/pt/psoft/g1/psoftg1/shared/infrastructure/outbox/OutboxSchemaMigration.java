@@ -0,0 +1,81 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.outbox;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecRegistry;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Brings outbox tables created before payload codecs up to date.
+ *
+ * The payload used to be JSON text in a NOT NULL payload column; it is now
+ * stored as bytes in payload_data, with its content type and encoding.
+ * ddl-auto=update adds the new columns but keeps the old one, on which every
+ * new insert would fail. Events still waiting in the old column are copied
+ * to the new ones as UTF-8 JSON and the old column dropped.
+ *
+ * Runs once Hibernate has updated the schema and before anything (the
+ * bootstrapper, the outbox publisher) writes or reads events.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class OutboxSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxSchemaMigration.class);
+
+    static final String TABLE = "outbox_events";
+    static final String LEGACY_COLUMN = "payload";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxSchemaMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!hasLegacyColumn()) {
+            return;
+        }
+        List<Object[]> legacy = jdbcTemplate.query("SELECT id, " + LEGACY_COLUMN + " FROM " + TABLE
+                        + " WHERE payload_data IS NULL AND " + LEGACY_COLUMN + " IS NOT NULL",
+                (rs, rowNum) -> new Object[] { rs.getString(2).getBytes(StandardCharsets.UTF_8), rs.getLong(1) });
+        jdbcTemplate.batchUpdate("UPDATE " + TABLE + " SET payload_data = ?, content_type = '"
+                + PayloadCodecRegistry.JSON + "', content_encoding = 'UTF-8' WHERE id = ?", legacy);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN " + LEGACY_COLUMN);
+        log.info("Moved {} outbox payloads to payload_data and dropped the {} column", legacy.size(), LEGACY_COLUMN);
+    }
+
+    private boolean hasLegacyColumn() {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> {
+                String schema = metaData.getConnection().getSchema();
+                for (String table : new String[] { TABLE, TABLE.toUpperCase() }) {
+                    try (ResultSet columns = metaData.getColumns(null, schema, table, null)) {
+                        while (columns.next()) {
+                            if (LEGACY_COLUMN.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+                return false;
+            });
+        } catch (MetaDataAccessException e) {
+            log.warn("Cannot read the columns of {}: {}", TABLE, e.getMessage());
+            return false;
+        }
+    }
+}
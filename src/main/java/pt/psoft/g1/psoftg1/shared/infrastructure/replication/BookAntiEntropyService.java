@@ -0,0 +1,165 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewMapper;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Anti-entropy between database-per-instance replicas.
+ *
+ * Events can be lost (a message dead-lettered after its last retry, a replica
+ * restored from an old backup), after which replicas silently drift apart.
+ * Every replication.anti-entropy.interval ms each replica broadcasts the node
+ * hashes of level replication.anti-entropy.depth of its
+ * {@link BookDigestService} tree: a few KB, however large the catalog. A
+ * replica receiving a peer's digest compares it node by node with its own;
+ * only the ISBN ranges under differing nodes need repair.
+ *
+ * A range is only repaired once it differs in two consecutive digests from
+ * the same peer, so changes still in flight between the two are not repaired
+ * needlessly. Repair pushes the local books of the range through the book
+ * sync exchange as BOOK_UPDATED events, and the local {@link BookTombstone}s
+ * as BOOK_DELETED events at their version. Replicas apply both
+ * last-writer-wins on the version, a delete winning over a copy of the same
+ * version, so both sides, which each push their own state, converge on the
+ * newest state of every book: a replica that missed a delete deletes its copy
+ * instead of re-creating it on the others. At most
+ * replication.anti-entropy.max-repair books are pushed per round.
+ */
+@Profile("database-per-instance & !test")
+@Component
+public class BookAntiEntropyService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookAntiEntropyService.class);
+
+    private static final int FETCH_CHUNK = 500;
+
+    private final BookDigestService digestService;
+    private final BookRepository bookRepository;
+    private final BookTombstoneRepository tombstoneRepository;
+    private final BookViewMapper bookViewMapper;
+    private final RabbitTemplate rabbitTemplate;
+
+    /** Differing nodes found in the previous digest of each peer */
+    private final Map<String, Set<Integer>> suspectNodesByPeer = new ConcurrentHashMap<>();
+
+    @Value("${spring.application.instance-id:default}")
+    private String instanceId;
+
+    @Value("${replication.anti-entropy.depth:8}")
+    private int depth = 8;
+
+    @Value("${replication.anti-entropy.max-repair:1000}")
+    private int maxRepair = 1000;
+
+    public BookAntiEntropyService(BookDigestService digestService, BookRepository bookRepository,
+            BookTombstoneRepository tombstoneRepository, BookViewMapper bookViewMapper,
+            RabbitTemplate rabbitTemplate) {
+        this.digestService = digestService;
+        this.bookRepository = bookRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.bookViewMapper = bookViewMapper;
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${replication.anti-entropy.interval:60000}",
+            initialDelayString = "${replication.anti-entropy.interval:60000}")
+    public void publishDigest() {
+        int level = Math.min(depth, digestService.getTreeHeight());
+        BookDigestView digest = new BookDigestView(instanceId, digestService.getTreeHeight(), level,
+                digestService.level(level));
+        rabbitTemplate.convertAndSend(RabbitmqConfig.EVENTS_EXCHANGE, RabbitmqConfig.BOOK_DIGEST_ROUTING_KEY, digest);
+        log.debug("[{}] Published book digest of {} nodes", instanceId, digest.nodes().length);
+    }
+
+    @RabbitListener(queues = "#{bookDigestQueue.name}")
+    public void handleDigest(BookDigestView digest) {
+        if (instanceId.equals(digest.instanceId())) {
+            return;
+        }
+        if (digest.treeHeight() != digestService.getTreeHeight() || digest.depth() > digest.treeHeight()
+                || digest.nodes() == null || digest.nodes().length != 1 << digest.depth()) {
+            log.warn("[{}] Ignoring book digest of {} with a different shape", instanceId, digest.instanceId());
+            return;
+        }
+
+        long[] local = digestService.level(digest.depth());
+        Set<Integer> differing = new HashSet<>();
+        for (int node = 0; node < local.length; node++) {
+            if (local[node] != digest.nodes()[node]) {
+                differing.add(node);
+            }
+        }
+
+        Set<Integer> previous = suspectNodesByPeer.put(digest.instanceId(), differing);
+        Set<Integer> confirmed = new HashSet<>(differing);
+        confirmed.retainAll(previous != null ? previous : Set.of());
+        if (confirmed.isEmpty()) {
+            if (!differing.isEmpty()) {
+                log.debug("[{}] {} of {} digest nodes differ from {}, waiting for the next round", instanceId,
+                        differing.size(), local.length, digest.instanceId());
+            }
+            return;
+        }
+
+        repair(digest.instanceId(), digest.depth(), confirmed);
+    }
+
+    private void repair(String peer, int level, Set<Integer> nodes) {
+        List<String> isbns = new ArrayList<>();
+        for (int node : nodes) {
+            isbns.addAll(digestService.isbnsUnder(level, node));
+        }
+        if (isbns.size() > maxRepair) {
+            log.warn("[{}] {} books differ from {}, repairing the first {}", instanceId, isbns.size(), peer,
+                    maxRepair);
+            isbns = isbns.subList(0, maxRepair);
+        }
+
+        int pushed = 0;
+        int deleted = 0;
+        for (int from = 0; from < isbns.size(); from += FETCH_CHUNK) {
+            List<String> chunk = isbns.subList(from, Math.min(from + FETCH_CHUNK, isbns.size()));
+            for (Book book : bookRepository.findByIsbnIn(chunk)) {
+                push(BookEvents.BOOK_UPDATED, bookViewMapper.toBookViewAMQP(book));
+                pushed++;
+            }
+            for (BookTombstone tombstone : tombstoneRepository.findAllById(chunk)) {
+                push(BookEvents.BOOK_DELETED,
+                        new BookViewAMQP(tombstone.getIsbn(), null, null, null, tombstone.getVersion()));
+                deleted++;
+            }
+        }
+        log.info("[{}] {} digest ranges differ from {}, pushed {} books and {} deletes to repair them", instanceId,
+                nodes.size(), peer, pushed, deleted);
+    }
+
+    /**
+     * Sent straight to the sync exchange, so only replicas see repairs. No
+     * event id: repairs are never dropped as duplicates.
+     */
+    private void push(String eventType, BookViewAMQP bookView) {
+        rabbitTemplate.convertAndSend(RabbitmqConfig.BOOK_SYNC_EXCHANGE, eventType, bookView, message -> {
+            message.getMessageProperties().setHeader(BookEvents.SHARD_HEADER, BookEvents.shardOf(bookView.getIsbn()));
+            return message;
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+
+/**
+ * Keeps the {@link BookDigestService} in step with every book and
+ * {@link BookTombstone} written through the entity manager. Instantiated by
+ * Hibernate through the Spring bean container; the digest service is optional
+ * so JPA slice tests work without it.
+ */
+public class BookDigestEntityListener {
+
+    private final ObjectProvider<BookDigestService> digestService;
+
+    public BookDigestEntityListener(ObjectProvider<BookDigestService> digestService) {
+        this.digestService = digestService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void saved(Object entity) {
+        if (entity instanceof Book book) {
+            digestService.ifAvailable(service -> service.bookSaved(book.getIsbn(), book.getVersion()));
+        } else if (entity instanceof BookTombstone tombstone) {
+            digestService.ifAvailable(service -> service.tombstoneSaved(tombstone.getIsbn(), tombstone.getVersion()));
+        }
+    }
+
+    @PostRemove
+    void deleted(Object entity) {
+        if (entity instanceof Book book) {
+            digestService.ifAvailable(service -> service.bookDeleted(book.getIsbn()));
+        } else if (entity instanceof BookTombstone tombstone) {
+            digestService.ifAvailable(service -> service.tombstoneDeleted(tombstone.getIsbn()));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.shared.infrastructure.merkle.MerkleDigestTree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Merkle digest of the local book catalog: every book contributes the hash of
+ * its ISBN and version to one leaf of a {@link MerkleDigestTree}, and so does
+ * every {@link BookTombstone}, hashed apart from a live book of the same
+ * version.
+ *
+ * The tree is built from the database on first use and then maintained
+ * incrementally: {@link BookDigestEntityListener} reports every persisted,
+ * updated or removed book and tombstone, and the change is applied once its
+ * transaction commits. Writes that bypass the entity lifecycle (bulk JPQL
+ * updates) must call {@link #bookSaved(String, Long)} themselves. A book and
+ * the tombstone of its ISBN are never both kept, but a delete removes one and
+ * writes the other in whichever order Hibernate flushes them, so removing
+ * either only clears its own entry.
+ *
+ * Two instances with the same books and tombstones at the same versions have
+ * the same tree,
+ * so replicas can find out which ISBN ranges differ by exchanging the node
+ * hashes of one level (see BookAntiEntropyService).
+ */
+@Component
+public class BookDigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookDigestService.class);
+
+    private static final int FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MerkleDigestTree tree;
+    /** Version of every book; a tombstone at version v is kept as ~v, which is negative */
+    private final Map<String, Long> versions = new HashMap<>();
+
+    private volatile boolean initialized;
+
+    public BookDigestService(EntityManager entityManager, TransactionTemplate transactionTemplate,
+            @Value("${replication.anti-entropy.tree-height:10}") int treeHeight) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.tree = new MerkleDigestTree(treeHeight);
+    }
+
+    /**
+     * Records that a book was created or updated to a version, once the
+     * current transaction (if any) commits.
+     */
+    public void bookSaved(String isbn, Long version) {
+        afterCommit(() -> apply(isbn, version != null ? version : 0L));
+    }
+
+    /**
+     * Records that a book was deleted, once the current transaction (if any)
+     * commits.
+     */
+    public void bookDeleted(String isbn) {
+        afterCommit(() -> remove(isbn, false));
+    }
+
+    /**
+     * Records that a book was deleted at a version, once the current
+     * transaction (if any) commits.
+     */
+    public void tombstoneSaved(String isbn, long version) {
+        afterCommit(() -> apply(isbn, ~version));
+    }
+
+    /**
+     * Records that a tombstone was cleared, once the current transaction (if
+     * any) commits.
+     */
+    public void tombstoneDeleted(String isbn) {
+        afterCommit(() -> remove(isbn, true));
+    }
+
+    /**
+     * @param depth 0 for the root, up to the tree height for the leaves
+     * @return The node hashes of that level, left to right
+     */
+    public long[] level(int depth) {
+        initialize();
+        return tree.level(depth);
+    }
+
+    public long root() {
+        initialize();
+        return tree.root();
+    }
+
+    public int getTreeHeight() {
+        return tree.getHeight();
+    }
+
+    /**
+     * @return The number of local books, without the tombstones
+     */
+    public synchronized int size() {
+        initialize();
+        return (int) versions.values().stream().filter(version -> version >= 0).count();
+    }
+
+    /**
+     * @return The ISBNs of the local books and tombstones that fall under one
+     *         node of a level
+     */
+    public synchronized List<String> isbnsUnder(int depth, int index) {
+        initialize();
+        int first = tree.firstLeafOf(depth, index);
+        int end = tree.endLeafOf(depth, index);
+        List<String> isbns = new ArrayList<>();
+        for (String isbn : versions.keySet()) {
+            int leaf = tree.leafOf(isbn);
+            if (leaf >= first && leaf < end) {
+                isbns.add(isbn);
+            }
+        }
+        return isbns;
+    }
+
+    /**
+     * Discards the tree and builds it again from the database on next use.
+     */
+    public synchronized void rebuild() {
+        initialized = false;
+        versions.clear();
+        tree.clear();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!initialized) {
+            // Not tracking yet: the initial scan will read the committed state
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Applying a change twice is harmless, so a commit that the initial scan
+     * already saw may still be reported afterwards.
+     */
+    private synchronized void apply(String isbn, Long version) {
+        Long previous = version != null ? versions.put(isbn, version) : versions.remove(isbn);
+        tree.update(isbn, digest(isbn, previous), digest(isbn, version));
+    }
+
+    private synchronized void remove(String isbn, boolean tombstone) {
+        Long current = versions.get(isbn);
+        if (current != null && (current < 0) == tombstone) {
+            apply(isbn, null);
+        }
+    }
+
+    private synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        // Tracking starts first so no commit after the scan's snapshot is missed
+        initialized = true;
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> books = entityManager
+                    .createQuery("SELECT b.isbn.isbn, b.version FROM Book b", Object[].class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                books.forEach(row -> apply((String) row[0], row[1] != null ? (Long) row[1] : 0L));
+            }
+            try (Stream<Object[]> tombstones = entityManager
+                    .createQuery("SELECT t.isbn, t.version FROM BookTombstone t", Object[].class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                tombstones.forEach(row -> apply((String) row[0], ~(Long) row[1]));
+            }
+        });
+        log.info("Built book digest tree over {} books and tombstones, root {}", versions.size(),
+                Long.toHexString(tree.root()));
+    }
+
+    private static long digest(String isbn, Long version) {
+        return version != null ? MerkleDigestTree.digest(isbn, version) : 0L;
+    }
+}
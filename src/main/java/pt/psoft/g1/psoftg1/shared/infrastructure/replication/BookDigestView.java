@@ -0,0 +1,13 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+/**
+ * The digest one replica broadcasts to the others: the node hashes of one
+ * level of its book digest tree.
+ *
+ * @param instanceId The publishing instance
+ * @param treeHeight Height of its tree; only trees of the same shape compare
+ * @param depth      The level the nodes belong to
+ * @param nodes      The 2^depth node hashes, left to right
+ */
+public record BookDigestView(String instanceId, int treeHeight, int depth, long[] nodes) {
+}
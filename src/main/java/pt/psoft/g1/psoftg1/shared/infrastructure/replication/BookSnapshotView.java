@@ -0,0 +1,11 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import java.util.List;
+
+/**
+ * A book as written to a catalog snapshot. Authors are referenced by their
+ * author number in the snapshot's "authors" section.
+ */
+public record BookSnapshotView(String isbn, String title, String description, String genre, Long version,
+        List<Long> authorNumbers) {
+}
@@ -0,0 +1,80 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Marks a book deleted through replication, with the version it was deleted
+ * at.
+ *
+ * Creates and updates of a book can reach a replica after its delete: a
+ * retried message returns to its shard queue behind later events. Without a
+ * trace of the delete the replica would take them for a new book. Any change
+ * at or below the tombstone's version is therefore stale; a book re-created
+ * after the delete starts above it (see CreateBookStep) and clears it.
+ *
+ * Tombstones are part of the replica's digest, so anti-entropy repairs a
+ * missed delete instead of re-creating the book (see BookAntiEntropyService).
+ */
+@Entity
+@Table(name = "book_tombstones")
+@EntityListeners(BookDigestEntityListener.class)
+public class BookTombstone {
+
+    @Id
+    @Column(length = 16)
+    private String isbn;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    // JPA requires a no-arg constructor
+    protected BookTombstone() {
+    }
+
+    public BookTombstone(String isbn, long version) {
+        this.isbn = isbn;
+        this.version = version;
+        this.deletedAt = Instant.now();
+    }
+
+    /**
+     * @param version The version of a received create or update, null if
+     *                unknown
+     * @return Whether the change predates the delete
+     */
+    public boolean supersedes(Long version) {
+        return version == null || version <= this.version;
+    }
+
+    /**
+     * Raises the tombstone to a later delete of the same book; lower versions
+     * are ignored.
+     */
+    public void deletedAgain(long version) {
+        if (version > this.version) {
+            this.version = version;
+        }
+        this.deletedAt = Instant.now();
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
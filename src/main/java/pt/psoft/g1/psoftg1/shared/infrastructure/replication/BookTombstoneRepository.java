@@ -0,0 +1,11 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the tombstones of replicated book deletes, by ISBN.
+ */
+@Repository
+public interface BookTombstoneRepository extends JpaRepository<BookTombstone, String> {
+}
@@ -0,0 +1,202 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorViewAMQP;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Loads a catalog snapshot written by {@link CatalogSnapshotWriter} into an
+ * empty local database.
+ *
+ * The document is parsed as a stream. Books are persisted in chunks of
+ * replication.bootstrap.chunk-size, each in its own transaction that is
+ * flushed as JDBC batches and then cleared, so loading a large catalog needs
+ * neither much memory nor one huge transaction. Books keep the version they
+ * have in the snapshot, so later replicated updates compare correctly.
+ *
+ * Finally the snapshot's producer watermark is seeded into the
+ * {@link ProcessedEventStore}, so only that producer's events after the
+ * snapshot are applied.
+ */
+@Component
+public class CatalogSnapshotLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotLoader.class);
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final GenreRepository genreRepository;
+    private final ProcessedEventStore processedEventStore;
+
+    @Value("${replication.bootstrap.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public CatalogSnapshotLoader(EntityManager entityManager, ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate, GenreRepository genreRepository,
+            ProcessedEventStore processedEventStore) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.genreRepository = genreRepository;
+        this.processedEventStore = processedEventStore;
+    }
+
+    /**
+     * @return true if there are no books and no authors locally
+     */
+    public boolean isCatalogEmpty() {
+        return entityManager.createQuery("SELECT COUNT(b) FROM Book b", Long.class).getSingleResult() == 0
+                && entityManager.createQuery("SELECT COUNT(a) FROM Author a", Long.class).getSingleResult() == 0;
+    }
+
+    /**
+     * Loads a snapshot. Genres and authors must precede the books in the
+     * document, as the writer produces them.
+     *
+     * @param in The snapshot JSON document
+     * @return What was loaded
+     * @throws IOException if the document cannot be read
+     */
+    public Result load(InputStream in) throws IOException {
+        String producerId = null;
+        long highWatermark = 0;
+        Map<String, Genre> genres = new HashMap<>();
+        Map<Long, Author> authors = new HashMap<>();
+        int books = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "producerId" -> producerId = parser.getValueAsString();
+                    case "outboxHighWatermark" -> highWatermark = parser.getLongValue();
+                    case "genres" -> genres = loadGenres(parser);
+                    case "authors" -> authors = loadAuthors(parser);
+                    case "books" -> books = loadBooks(parser, genres, authors);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (producerId != null) {
+            String producer = producerId;
+            long watermark = highWatermark;
+            transactionTemplate.executeWithoutResult(status -> processedEventStore.seedWatermark(producer, watermark));
+        }
+
+        Result result = new Result(producerId, highWatermark, genres.size(), authors.size(), books);
+        log.info("Loaded catalog snapshot: {}", result);
+        return result;
+    }
+
+    private Map<String, Genre> loadGenres(JsonParser parser) throws IOException {
+        List<String> names = new ArrayList<>();
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            names.add(parser.getValueAsString());
+        }
+
+        return transactionTemplate.execute(status -> {
+            Map<String, Genre> genres = new HashMap<>();
+            genreRepository.findByStrings(names).forEach(genre -> genres.put(genre.toString(), genre));
+            for (String name : names) {
+                genres.computeIfAbsent(name, missing -> {
+                    Genre genre = new Genre(missing);
+                    entityManager.persist(genre);
+                    return genre;
+                });
+            }
+            return genres;
+        });
+    }
+
+    private Map<Long, Author> loadAuthors(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        List<AuthorViewAMQP> views = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            views.add(objectMapper.readValue(parser, AuthorViewAMQP.class));
+        }
+        return transactionTemplate.execute(status -> {
+            // Author numbers are generated locally, so books are linked through this map
+            Map<Long, Author> authors = new HashMap<>();
+            for (AuthorViewAMQP view : views) {
+                Author author = new Author(view.getName(), view.getBio(), view.getPhotoURI());
+                entityManager.persist(author);
+                authors.put(view.getAuthorNumber(), author);
+            }
+            return authors;
+        });
+    }
+
+    private int loadBooks(JsonParser parser, Map<String, Genre> genres, Map<Long, Author> authors)
+            throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        int loaded = 0;
+        boolean more = true;
+        while (more) {
+            List<BookSnapshotView> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    more = false;
+                    break;
+                }
+                chunk.add(objectMapper.readValue(parser, BookSnapshotView.class));
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (BookSnapshotView view : chunk) {
+                    List<Author> bookAuthors = new ArrayList<>();
+                    if (view.authorNumbers() != null) {
+                        view.authorNumbers().stream().map(authors::get).filter(Objects::nonNull)
+                                .forEach(bookAuthors::add);
+                    }
+                    entityManager.persist(Book.replicaOf(view.isbn(), view.title(), view.description(),
+                            genres.get(view.genre()), bookAuthors, view.version()));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            loaded += chunk.size();
+            log.debug("Loaded {} books from the snapshot", loaded);
+        }
+        return loaded;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Malformed catalog snapshot: expected " + expected + " but got " + actual);
+        }
+    }
+
+    /**
+     * Summary of a loaded snapshot.
+     */
+    public record Result(String producerId, long outboxHighWatermark, int genres, int authors, int books) {
+    }
+}
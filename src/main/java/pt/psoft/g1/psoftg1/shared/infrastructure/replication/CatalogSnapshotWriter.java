@@ -0,0 +1,128 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorViewAMQP;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEventRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams a consistent snapshot of the catalog (genres, authors and books) as
+ * one JSON document, tagged with the outbox high-watermark:
+ *
+ * <pre>
+ * { "producerId": "...", "outboxHighWatermark": 42,
+ *   "genres": [ "Fantasia", ... ],
+ *   "authors": [ { "authorNumber": 1, "name": ..., "version": 0 }, ... ],
+ *   "books": [ { "isbn": ..., "authorNumbers": [ 1 ], "version": 3 }, ... ] }
+ * </pre>
+ *
+ * Everything is read in one repeatable-read transaction, so the watermark
+ * matches the data. Rows are read as scalar projections with a JDBC fetch
+ * size and written as they arrive, so memory use does not grow with the
+ * catalog (apart from the book-author links, which are small).
+ *
+ * @see CatalogSnapshotLoader
+ */
+@Component
+public class CatalogSnapshotWriter {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxRepository;
+
+    @Value("${spring.application.instance-id:default}")
+    private String instanceId;
+
+    public CatalogSnapshotWriter(EntityManager entityManager, ObjectMapper objectMapper,
+            OutboxEventRepository outboxRepository) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Writes the snapshot. The stream is flushed but not closed.
+     *
+     * @param out Where to write the JSON document
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void write(OutputStream out) throws IOException {
+        long highWatermark = outboxRepository.findHighWatermark();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("producerId", instanceId);
+            generator.writeNumberField("outboxHighWatermark", highWatermark);
+
+            generator.writeArrayFieldStart("genres");
+            try (Stream<String> genres = stream("SELECT g.genre FROM Genre g ORDER BY g.pk", String.class)) {
+                for (Iterator<String> it = genres.iterator(); it.hasNext();) {
+                    generator.writeString(it.next());
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("authors");
+            try (Stream<Object[]> authors = stream("SELECT a.authorNumber, a.name.name, a.bio.bio, a.photoURI, a.version "
+                    + "FROM Author a ORDER BY a.authorNumber", Object[].class)) {
+                for (Iterator<Object[]> it = authors.iterator(); it.hasNext();) {
+                    Object[] row = it.next();
+                    objectMapper.writeValue(generator, new AuthorViewAMQP((Long) row[0], (String) row[1],
+                            (String) row[2], (String) row[3], ((Number) row[4]).longValue()));
+                }
+            }
+            generator.writeEndArray();
+
+            Map<String, List<Long>> authorNumbersByIsbn = authorNumbersByIsbn();
+            generator.writeArrayFieldStart("books");
+            try (Stream<Object[]> books = stream("SELECT b.isbn.isbn, b.title.title, b.description.description, "
+                    + "b.genre.genre, b.version FROM Book b ORDER BY b.pk", Object[].class)) {
+                for (Iterator<Object[]> it = books.iterator(); it.hasNext();) {
+                    Object[] row = it.next();
+                    String isbn = (String) row[0];
+                    objectMapper.writeValue(generator, new BookSnapshotView(isbn, (String) row[1], (String) row[2],
+                            (String) row[3], (Long) row[4], authorNumbersByIsbn.getOrDefault(isbn, List.of())));
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    private Map<String, List<Long>> authorNumbersByIsbn() {
+        Map<String, List<Long>> authorNumbers = new HashMap<>();
+        try (Stream<Object[]> links = stream("SELECT b.isbn.isbn, a.authorNumber FROM Book b JOIN b.authors a",
+                Object[].class)) {
+            links.forEach(link -> authorNumbers.computeIfAbsent((String) link[0], isbn -> new ArrayList<>())
+                    .add((Long) link[1]));
+        }
+        return authorNumbers;
+    }
+
+    private <T> Stream<T> stream(String jpql, Class<T> type) {
+        return entityManager.createQuery(jpql, type)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
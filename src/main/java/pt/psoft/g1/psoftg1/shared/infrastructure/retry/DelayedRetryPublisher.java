@@ -0,0 +1,114 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+
+/**
+ * Re-publishes failed messages through TTL delay queues instead of dropping
+ * or requeueing them.
+ *
+ * Each delay tier is a queue with an x-message-ttl and the default exchange as
+ * dead-letter exchange. A failed message is sent to the retry exchange with the
+ * queue it was consumed from as routing key and a header selecting the next
+ * tier; when the TTL expires the broker dead-letters it with that routing key,
+ * i.e. straight back to the original queue. Every tier is tried once, after
+ * which the message is parked in the dead-letter queue for inspection.
+ *
+ * A retried message rejoins its queue behind the ones published meanwhile, so
+ * consumers must tolerate it arriving after later events for the same key
+ * (the book listener does so through delete tombstones).
+ */
+public class DelayedRetryPublisher {
+
+    /** Number of retries already scheduled for the message. */
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    /** Selects the delay queue on the retry (headers) exchange. */
+    public static final String RETRY_TARGET_HEADER = "x-retry-target";
+    /** Routing key of the original publish, which the retries replace. */
+    public static final String ORIGINAL_ROUTING_KEY_HEADER = "x-original-routing-key";
+    public static final String DEAD_LETTER_REASON_HEADER = "x-dead-letter-reason";
+
+    private static final Logger log = LoggerFactory.getLogger(DelayedRetryPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String retryExchange;
+    private final List<String> delayQueues;
+    private final String deadLetterQueue;
+
+    /**
+     * @param rabbitTemplate  Template used to re-publish the raw messages
+     * @param retryExchange   Headers exchange the delay queues are bound to
+     * @param delayQueues     Names of the delay queues, shortest delay first
+     * @param deadLetterQueue Queue receiving the messages that exhausted all tiers
+     */
+    public DelayedRetryPublisher(RabbitTemplate rabbitTemplate, String retryExchange, List<String> delayQueues,
+            String deadLetterQueue) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryExchange = retryExchange;
+        this.delayQueues = List.copyOf(delayQueues);
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    /**
+     * Schedules the next retry of a failed message, or dead-letters it when
+     * every delay tier has been used.
+     *
+     * @param message A message received from a queue
+     */
+    public void retry(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        int attempt = retryCount(properties);
+        String returnQueue = properties.getConsumerQueue();
+
+        if (attempt >= delayQueues.size() || returnQueue == null) {
+            deadLetter(message, "Failed after " + attempt + " retries");
+            return;
+        }
+
+        prepareForRepublish(properties);
+        properties.setHeader(RETRY_COUNT_HEADER, attempt + 1);
+        properties.setHeader(RETRY_TARGET_HEADER, delayQueues.get(attempt));
+        rabbitTemplate.send(retryExchange, returnQueue, message);
+        log.warn("Scheduled retry {} of {} for message {} via {}", attempt + 1, delayQueues.size(),
+                properties.getMessageId(), delayQueues.get(attempt));
+    }
+
+    /**
+     * Parks a message in the dead-letter queue.
+     *
+     * @param message A message received from a queue
+     * @param reason  Why the message could not be processed
+     */
+    public void deadLetter(Message message, String reason) {
+        MessageProperties properties = message.getMessageProperties();
+        prepareForRepublish(properties);
+        properties.setHeader(DEAD_LETTER_REASON_HEADER, reason);
+        rabbitTemplate.send("", deadLetterQueue, message);
+        log.error("Dead-lettered message {} to {}: {}", properties.getMessageId(), deadLetterQueue, reason);
+    }
+
+    /**
+     * Routing key the message was originally published with, which a retried
+     * message no longer carries as its received routing key.
+     */
+    public static String originalRoutingKey(MessageProperties properties) {
+        Object original = properties.getHeader(ORIGINAL_ROUTING_KEY_HEADER);
+        return original != null ? original.toString() : properties.getReceivedRoutingKey();
+    }
+
+    static int retryCount(MessageProperties properties) {
+        Object count = properties.getHeader(RETRY_COUNT_HEADER);
+        return count instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static void prepareForRepublish(MessageProperties properties) {
+        properties.setHeader(ORIGINAL_ROUTING_KEY_HEADER, originalRoutingKey(properties));
+        // Set by the broker on dead-lettering; the retry count is tracked explicitly
+        properties.getHeaders().remove("x-death");
+    }
+}
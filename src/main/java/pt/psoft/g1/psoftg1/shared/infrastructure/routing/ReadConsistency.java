@@ -0,0 +1,46 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.routing;
+
+/**
+ * What the reads of the current thread (request) require of a replica, set by
+ * {@link ReadYourWritesFilter}: nothing, to have replicated the primary up to
+ * a time (the client's last write), or to be the primary itself.
+ */
+public final class ReadConsistency {
+
+    /**
+     * Header carrying the read-your-writes token: the time (epoch ms) of the
+     * client's last write, returned by writes and sent back with reads.
+     */
+    public static final String READ_AFTER_HEADER = "X-Read-After";
+
+    private static final ThreadLocal<Long> REPLICATED_SINCE = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    public static void requireReplicatedSince(long epochMillis) {
+        REPLICATED_SINCE.set(epochMillis);
+    }
+
+    public static void requirePrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * @return The time replicas must have replicated up to, 0 if any will do
+     */
+    public static long replicatedSince() {
+        Long since = REPLICATED_SINCE.get();
+        return since != null ? since : 0;
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    public static void clear() {
+        REPLICATED_SINCE.remove();
+        PRIMARY.remove();
+    }
+}
@@ -0,0 +1,58 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Read-your-writes across the replicas, without session state.
+ *
+ * Writes (any unsafe method) run against the primary and return the time
+ * they finished in the {@link ReadConsistency#READ_AFTER_HEADER} header; a
+ * client that sends it back with its next reads is only served by replicas
+ * that have replicated past it, or else by the primary. The body of a write
+ * is buffered so the header can still be set once it has committed.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            if (SAFE_METHODS.contains(request.getMethod())) {
+                long readAfter = parse(request.getHeader(ReadConsistency.READ_AFTER_HEADER));
+                if (readAfter > 0) {
+                    ReadConsistency.requireReplicatedSince(readAfter);
+                }
+                chain.doFilter(request, response);
+                return;
+            }
+            ReadConsistency.requirePrimary();
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+            wrapper.setHeader(ReadConsistency.READ_AFTER_HEADER, Long.toString(System.currentTimeMillis()));
+            wrapper.copyBodyToResponse();
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+
+    private static long parse(String header) {
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the
+ * primary.
+ *
+ * A replica is eligible while its last heartbeat check (see
+ * {@link ReplicationHeartbeat}) found it at most maxLag behind the primary,
+ * and, for a client reading its own writes, once it has replicated up to the
+ * client's last write ({@link ReadConsistency}). Eligible replicas take turns;
+ * with none eligible, or if the chosen one refuses a connection, the primary
+ * serves the read.
+ *
+ * The target is chosen when a connection is first used, so this must sit
+ * behind a LazyConnectionDataSourceProxy: the transaction manager opens the
+ * connection before it marks the transaction read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final LongSupplier clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis) {
+        this(primary, replicas, maxLagMillis, System::currentTimeMillis);
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis,
+            LongSupplier clock) {
+        this.primary = primary;
+        this.maxLagMillis = maxLagMillis;
+        this.clock = clock;
+        this.replicas = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} refused a connection, reading from the primary: {}", replica.name,
+                        e.getMessage());
+                replica.markDown();
+            }
+        }
+        countPrimary();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Only the pools' own credentials are used
+        return getConnection();
+    }
+
+    private void countPrimary() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryReads.increment();
+        } else {
+            writes.increment();
+        }
+    }
+
+    /**
+     * @return A replica the current transaction may read from, or null for
+     *         the primary
+     */
+    private Replica chooseReplica() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadConsistency.isPrimaryRequired()) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        long since = ReadConsistency.replicatedSince();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isEligible(now, maxLagMillis, since)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the primary and replica pools.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+        if (primary instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    public Stats stats() {
+        long now = clock.getAsLong();
+        List<ReplicaStats> replicaStats = replicas.stream()
+                .map(replica -> new ReplicaStats(replica.name, replica.isEligible(now, maxLagMillis, 0),
+                        replica.replicatedUpTo > 0 ? now - replica.replicatedUpTo : -1, replica.reads.sum()))
+                .toList();
+        return new Stats(writes.sum(), primaryReads.sum(), replicaStats);
+    }
+
+    /**
+     * A replica pool and how far it has replicated, as last checked.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder reads = new LongAdder();
+        private volatile long replicatedUpTo;
+        private volatile boolean up;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        /**
+         * @param heartbeat The latest primary heartbeat (epoch ms) found on
+         *                  the replica
+         */
+        public void markReplicatedUpTo(long heartbeat) {
+            replicatedUpTo = heartbeat;
+            up = true;
+        }
+
+        public void markDown() {
+            up = false;
+        }
+
+        boolean isEligible(long now, long maxLagMillis, long since) {
+            return up && now - replicatedUpTo <= maxLagMillis && replicatedUpTo >= since;
+        }
+    }
+
+    /**
+     * Connections handed out since startup: writes and reads of the primary,
+     * and reads of each replica with its current lag (-1 if never checked).
+     */
+    public record Stats(long writes, long primaryReads, List<ReplicaStats> replicas) {
+    }
+
+    public record ReplicaStats(String name, boolean eligible, long lagMillis, long reads) {
+    }
+}
@@ -0,0 +1,68 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Measures how far each replica lags behind the primary.
+ *
+ * Every datasource.replicas.heartbeat-interval ms the current time is written
+ * to a one-row table on the primary, then read back from each replica: a
+ * replica holding heartbeat T has replicated every commit made before T, so
+ * it serves reads that need the writes up to T and lags by now - T. The
+ * lag is only as accurate as the clocks of the instances sharing the
+ * database, which are expected to be synchronized (NTP).
+ *
+ * A replica that cannot be read from is taken out of rotation until a later
+ * check reads it again.
+ */
+public class ReplicationHeartbeat {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationHeartbeat.class);
+
+    static final String TABLE = "replication_heartbeat";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final JdbcTemplate primary;
+    private final LongSupplier clock;
+
+    public ReplicationHeartbeat(ReplicaRoutingDataSource routingDataSource) {
+        this(routingDataSource, System::currentTimeMillis);
+    }
+
+    ReplicationHeartbeat(ReplicaRoutingDataSource routingDataSource, LongSupplier clock) {
+        this.routingDataSource = routingDataSource;
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        this.clock = clock;
+        primary.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.heartbeat-interval:1000}")
+    public void beat() {
+        try {
+            long now = clock.getAsLong();
+            if (primary.update("UPDATE " + TABLE + " SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO " + TABLE + " (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cannot write the replication heartbeat: {}", e.getMessage());
+        }
+        routingDataSource.getReplicas().forEach(this::check);
+    }
+
+    private void check(ReplicaRoutingDataSource.Replica replica) {
+        try {
+            Long heartbeat = new JdbcTemplate(replica.getDataSource())
+                    .queryForObject("SELECT beat_at FROM " + TABLE + " WHERE id = 1", Long.class);
+            replica.markReplicatedUpTo(heartbeat);
+        } catch (DataAccessException e) {
+            log.debug("Replica {} has no heartbeat: {}", replica.getName(), e.getMessage());
+            replica.markDown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.search;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.shared.model.FoldedText;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Brings databases created before the folded search columns (see
+ * {@link FoldedText}) up to date once the application is ready.
+ *
+ * Rows written before have no folded title, name or genre, so searches would
+ * not find them: they are filled in, chunk by chunk, and the second-level
+ * cache of their entities evicted, as it may still hold them without.
+ *
+ * The indexes Hibernate creates on the folded columns serve LIKE 'prefix%'
+ * on H2 and on databases with a C collation; PostgreSQL with any other
+ * collation only uses an index with text_pattern_ops for it, which is
+ * created here.
+ */
+@Component
+public class FoldedColumnsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(FoldedColumnsMigration.class);
+
+    record FoldedColumn(String table, String key, String column, String folded, int maxLength, Class<?> entity) {
+    }
+
+    static final List<FoldedColumn> COLUMNS = List.of(
+            new FoldedColumn("BOOK", "PK", "TITLE", "TITLE_FOLDED", 128, Book.class),
+            new FoldedColumn("AUTHOR", "AUTHOR_NUMBER", "NAME", "NAME_FOLDED", 150, Author.class),
+            new FoldedColumn("GENRE", "PK", "GENRE", "GENRE_FOLDED", 100, Genre.class));
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int chunkSize;
+
+    public FoldedColumnsMigration(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+            @Value("${search.folded.backfill-chunk-size:500}") int chunkSize) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        createPatternIndexes();
+        COLUMNS.forEach(this::backfill);
+    }
+
+    /**
+     * @return The rows whose folded column was filled in
+     */
+    long backfill(FoldedColumn column) {
+        String select = "SELECT " + column.key() + ", " + column.column() + " FROM " + column.table()
+                + " WHERE " + column.folded() + " IS NULL AND " + column.column() + " IS NOT NULL";
+        String update = "UPDATE " + column.table() + " SET " + column.folded() + " = ? WHERE " + column.key() + " = ?";
+        JdbcTemplate chunks = new JdbcTemplate(dataSource);
+        chunks.setMaxRows(chunkSize);
+        long filled = 0;
+        List<Object[]> rows;
+        do {
+            rows = chunks.query(select, (rs, rowNum) -> new Object[] {
+                    FoldedText.fold(rs.getString(2), column.maxLength()), rs.getObject(1) });
+            jdbcTemplate.batchUpdate(update, rows);
+            filled += rows.size();
+        } while (rows.size() == chunkSize);
+        if (filled > 0) {
+            entityManagerFactory.getCache().evict(column.entity());
+            log.info("Filled in {} of {} rows", column.folded(), filled);
+        }
+        return filled;
+    }
+
+    private void createPatternIndexes() {
+        String database;
+        try {
+            database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            log.warn("Cannot tell the database product: {}", e.getMessage());
+            return;
+        }
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        for (FoldedColumn column : COLUMNS) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + column.table().toLowerCase() + "_"
+                    + column.folded().toLowerCase() + "_pattern ON " + column.table()
+                    + " (" + column.folded() + " text_pattern_ops)");
+        }
+    }
+}
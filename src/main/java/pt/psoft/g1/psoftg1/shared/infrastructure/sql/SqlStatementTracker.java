@@ -0,0 +1,215 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.shared.infrastructure.latency.LatencyHistogram;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Latency of every SQL statement the application executes, per statement
+ * shape, fed by {@link TracingDataSource}.
+ *
+ * A shape is the SQL with its literals replaced by ? and its IN lists
+ * collapsed, so all executions of one JPQL or native query share a
+ * histogram, whatever their parameters. Each shape counts its executions,
+ * failures and rows (read, or updated), with a histogram of the execution
+ * time in microseconds: the execute call, not fetching the rows. At most
+ * sql.tracing.max-shapes shapes are tracked; statements of further shapes
+ * are counted under {@link #OTHER_SHAPE}.
+ *
+ * Statements slower than sql.tracing.slow-threshold are also kept, with
+ * their bind parameters masked to their type and size, in a buffer of the
+ * last sql.tracing.slow-log-size ones. The time spent waiting for a pooled
+ * connection is a histogram of its own.
+ */
+@Component
+public class SqlStatementTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementTracker.class);
+
+    public static final String OTHER_SHAPE = "(other)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    /** Shape of each SQL string seen, so the patterns run once per string */
+    private final Map<String, String> shapeCache = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+    private final long slowThresholdMicros;
+    private final int slowLogSize;
+    private final int maxShapes;
+
+    /** Guarded by itself; oldest first */
+    private final ArrayDeque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    public SqlStatementTracker(@Value("${sql.tracing.slow-threshold:100ms}") Duration slowThreshold,
+            @Value("${sql.tracing.slow-log-size:100}") int slowLogSize,
+            @Value("${sql.tracing.max-shapes:1000}") int maxShapes) {
+        this.slowThresholdMicros = TimeUnit.NANOSECONDS.toMicros(slowThreshold.toNanos());
+        this.slowLogSize = slowLogSize;
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * Records one execution of a statement.
+     *
+     * @param sql        The SQL as prepared
+     * @param parameters The masked bind parameters, in order
+     * @param nanos      The time the execute call took
+     * @param rows       Rows read or updated
+     * @param failed     Whether the statement threw
+     */
+    public void record(String sql, List<String> parameters, long nanos, long rows, boolean failed) {
+        String shape = shapeCache.get(sql);
+        if (shape == null) {
+            shape = shapeOf(sql);
+            if (shapeCache.size() < 4 * maxShapes) {
+                shapeCache.put(sql, shape);
+            }
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        shapeFor(shape).record(micros, rows, failed);
+        if (micros >= slowThresholdMicros) {
+            SlowQuery slow = new SlowQuery(Instant.now(), shape, parameters, micros / 1000, rows, failed);
+            log.warn("Slow query ({} ms, {} rows): {} {}", slow.millis(), rows, shape, parameters);
+            synchronized (slowQueries) {
+                if (slowQueries.size() >= slowLogSize) {
+                    slowQueries.poll();
+                }
+                slowQueries.add(slow);
+            }
+        }
+    }
+
+    public void recordConnectionWait(long nanos) {
+        connectionWait.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * @return The statement shapes, those that took the longest in total
+     *         first
+     */
+    public List<StatementStats> statements() {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().stats(entry.getKey()))
+                .sorted(Comparator.comparingDouble(StatementStats::totalMillis).reversed())
+                .toList();
+    }
+
+    /**
+     * @return The recent slow queries, the latest first
+     */
+    public List<SlowQuery> slowQueries() {
+        synchronized (slowQueries) {
+            List<SlowQuery> latestFirst = new ArrayList<>(slowQueries);
+            Collections.reverse(latestFirst);
+            return latestFirst;
+        }
+    }
+
+    /**
+     * @return Time waited for a pooled connection, in microseconds
+     */
+    public LatencyHistogram.Snapshot connectionWait() {
+        return connectionWait.snapshot();
+    }
+
+    public void reset() {
+        shapes.clear();
+        connectionWait.reset();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    private Shape shapeFor(String shape) {
+        Shape existing = shapes.get(shape);
+        if (existing != null) {
+            return existing;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER_SHAPE, key -> new Shape());
+        }
+        return shapes.computeIfAbsent(shape, key -> new Shape());
+    }
+
+    /**
+     * @return The SQL with literals as ?, IN lists as "in (...)" and
+     *         whitespace collapsed
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * A bind parameter as shown in the slow query log: its type and size,
+     * never its value.
+     */
+    static String mask(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        if (value instanceof byte[] bytes) {
+            return "byte[" + bytes.length + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static final class Shape {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong maxRows = new AtomicLong();
+
+        void record(long micros, long rowCount, boolean failed) {
+            latency.record(micros);
+            if (failed) {
+                failures.increment();
+            }
+            rows.add(rowCount);
+            maxRows.accumulateAndGet(rowCount, Math::max);
+        }
+
+        StatementStats stats(String sql) {
+            LatencyHistogram.Snapshot snapshot = latency.snapshot();
+            return new StatementStats(sql, snapshot.count(), failures.sum(), rows.sum(), maxRows.get(),
+                    snapshot.count() * snapshot.mean() / 1000, snapshot);
+        }
+    }
+
+    /**
+     * Executions of one statement shape; latencies in microseconds.
+     */
+    public record StatementStats(String sql, long executions, long failures, long rows, long maxRows,
+            double totalMillis, LatencyHistogram.Snapshot latencyMicros) {
+    }
+
+    public record SlowQuery(Instant at, String sql, List<String> parameters, long millis, long rows,
+            boolean failed) {
+    }
+}
@@ -0,0 +1,240 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DataSource proxy reporting every statement to a
+ * {@link SqlStatementTracker}: the time each execute call takes, the rows
+ * it returned (counted as the result set is read, reported when it is
+ * closed) or updated, and the time taken to get each connection.
+ *
+ * Connections, statements and result sets are wrapped in JDK proxies; other
+ * JDBC objects are returned as is.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final SqlStatementTracker tracker;
+
+    public TracingDataSource(DataSource targetDataSource, SqlStatementTracker tracker) {
+        super(targetDataSource);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        tracker.recordConnectionWait(System.nanoTime() - start);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        tracker.recordConnectionWait(System.nanoTime() - start);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] { type },
+                handler));
+    }
+
+    /**
+     * Calls the target, except for equals and hashCode, which compare the
+     * proxies themselves.
+     */
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TracingDataSource.invoke(proxy, connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    /**
+     * Tracks one statement: its bind parameters as they are set and the
+     * execution whose rows are still being read.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final Map<Integer, String> parameters = new TreeMap<>();
+        private Execution pending;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? "null" : SqlStatementTracker.mask(args[1]));
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("close")) {
+                complete();
+            } else if (name.equals("getResultSet")) {
+                ResultSet resultSet = (ResultSet) TracingDataSource.invoke(proxy, statement, method, args);
+                return resultSet != null && pending != null
+                        ? proxy(ResultSet.class, new ResultSetHandler(resultSet, pending))
+                        : resultSet;
+            }
+            return TracingDataSource.invoke(proxy, statement, method, args);
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            complete();
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : "(batch)";
+            List<String> masked = new ArrayList<>(parameters.values());
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = TracingDataSource.invoke(proxy, statement, method, args);
+            } catch (Throwable e) {
+                tracker.record(sql, masked, System.nanoTime() - start, 0, true);
+                throw e;
+            }
+            Execution execution = new Execution(sql, masked, System.nanoTime() - start);
+            if (result instanceof ResultSet resultSet) {
+                pending = execution;
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, execution));
+            }
+            if (result instanceof Boolean hasResultSet && hasResultSet) {
+                // Rows are counted once the caller gets the result set
+                pending = execution;
+                return result;
+            }
+            execution.rows = updateCount(result);
+            execution.complete();
+            return result;
+        }
+
+        private void complete() {
+            if (pending != null) {
+                pending.complete();
+                pending = null;
+            }
+        }
+
+        private long updateCount(Object result) throws SQLException {
+            if (result instanceof Number count) {
+                return Math.max(count.longValue(), 0);
+            }
+            if (result instanceof int[] counts) {
+                long sum = 0;
+                for (int count : counts) {
+                    sum += Math.max(count, 0);
+                }
+                return sum;
+            }
+            if (result instanceof long[] counts) {
+                long sum = 0;
+                for (long count : counts) {
+                    sum += Math.max(count, 0);
+                }
+                return sum;
+            }
+            return Math.max(statement.getUpdateCount(), 0);
+        }
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final Execution execution;
+
+        ResultSetHandler(ResultSet resultSet, Execution execution) {
+            this.resultSet = resultSet;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TracingDataSource.invoke(proxy, resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                execution.rows++;
+            } else if (method.getName().equals("close")) {
+                execution.complete();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * An execution reported once its rows are known.
+     */
+    private final class Execution {
+
+        private final String sql;
+        private final List<String> parameters;
+        private final long nanos;
+        private long rows;
+        private boolean completed;
+
+        Execution(String sql, List<String> parameters, long nanos) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.nanos = nanos;
+        }
+
+        void complete() {
+            if (!completed) {
+                completed = true;
+                tracker.record(sql, parameters, nanos, rows, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package pt.psoft.g1.psoftg1.shared.model;
+
+/**
+ * Author event types for RabbitMQ messaging.
+ */
+public final class AuthorEvents {
+
+    public static final String AUTHOR_CREATED = "author.created";
+    public static final String AUTHOR_UPDATED = "author.updated";
+    public static final String AUTHOR_DELETED = "author.deleted";
+
+    private AuthorEvents() {
+        // Prevent instantiation
+    }
+}
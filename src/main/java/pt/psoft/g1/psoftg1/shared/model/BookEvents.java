@@ -8,8 +8,33 @@ public final class BookEvents {
     public static final String BOOK_CREATED = "book.created";
     public static final String BOOK_UPDATED = "book.updated";
     public static final String BOOK_DELETED = "book.deleted";
+
+    /**
+     * Message header carrying the shard bucket of a book event (see
+     * {@link #shardOf(String)}).
+     */
+    public static final String SHARD_HEADER = "x-book-shard";
+
+    /**
+     * Number of shard buckets. Fixed, so that every publisher and consumer
+     * agrees on the bucket of an ISBN whatever number of queues it uses.
+     */
+    public static final int SHARD_BUCKETS = 64;
     
     private BookEvents() {
         // Prevent instantiation
     }
+
+    /**
+     * Shard bucket of a book. All events for the same ISBN land in the same
+     * bucket, so a consumer that reads each bucket from a single queue sees
+     * them in publish order.
+     *
+     * @param isbn The book ISBN
+     * @return The bucket, between 0 and SHARD_BUCKETS - 1
+     */
+    public static int shardOf(String isbn) {
+        // String.hashCode is specified by the JLS, so this is stable across JVMs
+        return Math.floorMod(isbn.hashCode(), SHARD_BUCKETS);
+    }
 }
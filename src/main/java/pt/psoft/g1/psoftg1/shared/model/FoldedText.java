@@ -0,0 +1,57 @@
+package pt.psoft.g1.psoftg1.shared.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Search form of a text: without accents, lower case and with single spaces,
+ * so "Exupéry", "EXUPERY" and "exupery" are the same.
+ *
+ * Titles, names and genres keep their folded form in a column of their own,
+ * searched by prefix: a LIKE 'prefix%' on it can use an index on any
+ * database, which no case or accent insensitive comparison does.
+ */
+public final class FoldedText {
+
+    /** Escape character of the LIKE patterns built by {@link #prefixPattern} */
+    public static final char LIKE_ESCAPE = '\\';
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private FoldedText() {
+    }
+
+    /**
+     * @param maxLength The size of the column the folded text is stored in;
+     *                  decomposing some characters (e.g. ligatures) makes
+     *                  the text longer
+     */
+    public static String fold(String text, int maxLength) {
+        String folded = fold(text);
+        return folded.length() > maxLength ? folded.substring(0, maxLength) : folded;
+    }
+
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        String unaccented = MARKS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(unaccented.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    /**
+     * @return A LIKE pattern (escaped with {@link #LIKE_ESCAPE}) matching the
+     *         folded texts that start with the folded prefix
+     */
+    public static String prefixPattern(String prefix) {
+        String folded = fold(prefix);
+        StringBuilder pattern = new StringBuilder(folded.length() + 1);
+        for (char c : folded.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -14,6 +14,10 @@ public class Name {
     @Column(name = "NAME", length = NAME_MAX_LENGTH)
     private String name;
 
+    /** The name as searched, see {@link FoldedText} */
+    @Column(name = "NAME_FOLDED", length = NAME_MAX_LENGTH)
+    private String nameFolded;
+
     protected Name() {
         // For ORM
     }
@@ -30,6 +34,7 @@ public class Name {
             throw new IllegalArgumentException("Name cannot exceed " + NAME_MAX_LENGTH + " characters");
         }
         this.name = name;
+        this.nameFolded = FoldedText.fold(name, NAME_MAX_LENGTH);
     }
 
     @Override
@@ -0,0 +1,40 @@
+package pt.psoft.g1.psoftg1.shared.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A field of a resource a client can ask for alone with ?fields=a,b,c, so
+ * only those columns are read and serialized.
+ */
+public interface SparseField {
+
+    /**
+     * @return The name of the field in requests and responses
+     */
+    String fieldName();
+
+    /**
+     * Parses a comma-separated list of field names.
+     *
+     * @return The fields, or empty for a missing or blank list, meaning all
+     * @throws IllegalArgumentException if a name is not a field of the type
+     */
+    static <F extends Enum<F> & SparseField> Set<F> parse(String fields, Class<F> type) {
+        Set<F> selected = EnumSet.noneOf(type);
+        if (fields == null || fields.isBlank()) {
+            return selected;
+        }
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(EnumSet.allOf(type).stream()
+                    .filter(field -> field.fieldName().equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + trimmed)));
+        }
+        return selected;
+    }
+}
@@ -32,6 +32,7 @@ import java.util.UUID;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
@@ -98,17 +99,18 @@ public class FileStorageService {
         }
     }
 
-    public byte[] getFile(final String fileName) {
-        String photoPathString = this.fileStorageLocation + "/" + fileName;
-        Path photoPath = Paths.get(photoPathString);
-        byte[] image = null;
-        try {
-            image = Files.readAllBytes(photoPath);
-        } catch(IOException e) {
-            return null;
+    /**
+     * The stored file as a resource to stream, so it need not be read into
+     * memory; Spring MVC serves Range requests for it from the file.
+     *
+     * @return Empty if there is no such file in the storage location
+     */
+    public Optional<Resource> getFileResource(final String fileName) {
+        final Path filePath = fileStorageLocation.resolve(fileName).normalize();
+        if (!filePath.startsWith(fileStorageLocation) || !Files.isRegularFile(filePath)) {
+            return Optional.empty();
         }
-
-        return image;
+        return Optional.of(new FileSystemResource(filePath));
     }
 
     //Returns the string of the fileName of the file (UUID.FILE_FORMAT) stored in the uploads folder | null for error or no photo
@@ -1,16 +1,21 @@
 package pt.psoft.g1.psoftg1.shared.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.EncodedPayload;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecRegistry;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.ChangeFeed;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxCommitTimes;
 import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEvent;
 import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEventRepository;
 import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxStatus;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -39,11 +44,16 @@ public class OutboxEventService {
     private static final Logger log = LoggerFactory.getLogger(OutboxEventService.class);
 
     private final OutboxEventRepository outboxRepository;
-    private final ObjectMapper objectMapper;
+    private final PayloadCodecRegistry codecRegistry;
+    private final ChangeFeed changeFeed;
+    private final OutboxCommitTimes commitTimes;
 
-    public OutboxEventService(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+    public OutboxEventService(OutboxEventRepository outboxRepository, PayloadCodecRegistry codecRegistry,
+            ChangeFeed changeFeed, OutboxCommitTimes commitTimes) {
         this.outboxRepository = outboxRepository;
-        this.objectMapper = objectMapper;
+        this.codecRegistry = codecRegistry;
+        this.changeFeed = changeFeed;
+        this.commitTimes = commitTimes;
     }
 
     /**
@@ -56,25 +66,26 @@ public class OutboxEventService {
      * @param aggregateType Type of aggregate (e.g., "Book", "Author", "Genre")
      * @param aggregateId   ID of the aggregate instance
      * @param eventType     Type of event (e.g., "BookCreatedEvent")
-     * @param payload       Event data object (will be serialized to JSON)
+     * @param payload       Event data object (encoded with the configured
+     *                      payload codec, JSON by default)
      * @param exchangeName  RabbitMQ exchange name
      * @param routingKey    RabbitMQ routing key
      * @return The saved OutboxEvent
-     * @throws RuntimeException if JSON serialization fails
+     * @throws RuntimeException if serialization fails
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public OutboxEvent saveEvent(String aggregateType, String aggregateId, String eventType,
             Object payload, String exchangeName, String routingKey) {
-        String jsonPayload;
+        EncodedPayload encodedPayload;
         try {
-            jsonPayload = objectMapper.writeValueAsString(payload);
-        } catch (JsonProcessingException e) {
+            encodedPayload = codecRegistry.encode(payload);
+        } catch (IOException e) {
             log.error("Failed to serialize event payload for {}: {}", eventType, e.getMessage());
             throw new RuntimeException("Failed to serialize event payload", e);
         }
 
-        return saveEventWithJsonPayload(aggregateType, aggregateId, eventType,
-                jsonPayload, exchangeName, routingKey);
+        return saveEncodedEvent(aggregateType, aggregateId, eventType,
+                encodedPayload, exchangeName, routingKey);
     }
 
     /**
@@ -92,16 +103,43 @@ public class OutboxEventService {
     public OutboxEvent saveEventWithJsonPayload(String aggregateType, String aggregateId,
             String eventType, String jsonPayload,
             String exchangeName, String routingKey) {
+        EncodedPayload encodedPayload;
+        try {
+            encodedPayload = codecRegistry.encodeJson(jsonPayload);
+        } catch (IOException e) {
+            log.error("Failed to compress event payload for {}: {}", eventType, e.getMessage());
+            throw new RuntimeException("Failed to compress event payload", e);
+        }
+
+        return saveEncodedEvent(aggregateType, aggregateId, eventType,
+                encodedPayload, exchangeName, routingKey);
+    }
+
+    private OutboxEvent saveEncodedEvent(String aggregateType, String aggregateId,
+            String eventType, EncodedPayload payload,
+            String exchangeName, String routingKey) {
         OutboxEvent event = new OutboxEvent(
                 aggregateType,
                 aggregateId,
                 eventType,
-                jsonPayload,
+                payload,
                 exchangeName,
                 routingKey);
 
         OutboxEvent saved = outboxRepository.save(event);
-        log.debug("Saved outbox event: {} for {} ({})", eventType, aggregateType, aggregateId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // Kept in memory for the latency tracing headers, not written back to the row
+                    commitTimes.committed(saved);
+                    // Pushed to the change feed rather than polled by it
+                    changeFeed.committed(saved);
+                }
+            });
+        }
+        log.debug("Saved outbox event: {} for {} ({}, {} bytes {})", eventType, aggregateType, aggregateId,
+                payload.body().length, payload.contentType());
 
         return saved;
     }
@@ -1,6 +1,7 @@
 package pt.psoft.g1.psoftg1.authormanagement.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -9,12 +10,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
 import pt.psoft.g1.psoftg1.authormanagement.services.CreateAuthorRequest;
+import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +47,9 @@ class AuthorControllerIntegrationTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
     private Author testAuthor;
 
     @BeforeEach
@@ -65,6 +75,18 @@ class AuthorControllerIntegrationTest {
                     .andExpect(jsonPath("$.items[0].name", containsString("Jane")));
         }
 
+        @Test
+        @DisplayName("Should return only the selected fields")
+        void shouldReturnOnlySelectedFields() throws Exception {
+            mockMvc.perform(get("/api/authors")
+                    .param("name", "Jane Smith")
+                    .param("fields", "authorNumber,name"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].authorNumber", is(testAuthor.getAuthorNumber().intValue())))
+                    .andExpect(jsonPath("$.items[0].name", is("Jane Smith")))
+                    .andExpect(jsonPath("$.items[0].bio").doesNotExist());
+        }
+
         @Test
         @DisplayName("Should return empty list when no authors match")
         void shouldReturnEmptyListWhenNoAuthorsMatch() throws Exception {
@@ -101,6 +123,26 @@ class AuthorControllerIntegrationTest {
                     .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        @DisplayName("Should return 304 without a body when If-None-Match is the current version")
+        void shouldReturn304WhenETagMatches() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/api/authors/" + testAuthor.getAuthorNumber())
+                    .header("If-None-Match", "\"" + testAuthor.getVersion() + "\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("Should return 200 and author when If-None-Match is an older version")
+        void shouldReturn200WhenETagIsStale() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/api/authors/" + testAuthor.getAuthorNumber())
+                    .header("If-None-Match", "\"-1\""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name", is("Jane Smith")));
+        }
     }
 
     @Nested
@@ -201,4 +243,60 @@ class AuthorControllerIntegrationTest {
                     .andExpect(status().isConflict());
         }
     }
+
+    @Nested
+    @DisplayName("GET /api/authors/{authorNumber}/photo")
+    class GetAuthorPhotoTests {
+
+        private static final byte[] PHOTO = "\u0089PNG fake photo bytes".getBytes(StandardCharsets.ISO_8859_1);
+
+        private String photoFile;
+        private Author authorWithPhoto;
+
+        @BeforeEach
+        void setUp() {
+            photoFile = fileStorageService.storeFile(UUID.randomUUID().toString(),
+                    new MockMultipartFile("photo", "photo.png", MediaType.IMAGE_PNG_VALUE, PHOTO));
+            authorWithPhoto = authorRepository.save(new Author("Photo Author", "Has a photo", photoFile));
+        }
+
+        @AfterEach
+        void tearDown() {
+            fileStorageService.deleteFile(photoFile);
+        }
+
+        private String photoUrl() {
+            return "/api/authors/" + authorWithPhoto.getAuthorNumber() + "/photo";
+        }
+
+        @Test
+        @DisplayName("Should stream the photo with caching headers")
+        void shouldStreamPhotoWithCachingHeaders() throws Exception {
+            mockMvc.perform(get(photoUrl()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                    .andExpect(content().bytes(PHOTO))
+                    .andExpect(header().string("ETag", "\"" + photoFile + "\""))
+                    .andExpect(header().exists("Last-Modified"))
+                    .andExpect(header().string("Cache-Control", "no-cache"))
+                    .andExpect(header().string("Accept-Ranges", "bytes"));
+        }
+
+        @Test
+        @DisplayName("Should return 206 with the requested byte range")
+        void shouldReturnRequestedRange() throws Exception {
+            mockMvc.perform(get(photoUrl()).header("Range", "bytes=0-3"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string("Content-Range", "bytes 0-3/" + PHOTO.length))
+                    .andExpect(content().bytes(Arrays.copyOf(PHOTO, 4)));
+        }
+
+        @Test
+        @DisplayName("Should return 304 without a body when If-None-Match is the photo's ETag")
+        void shouldReturn304WhenETagMatches() throws Exception {
+            mockMvc.perform(get(photoUrl()).header("If-None-Match", "\"" + photoFile + "\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().bytes(new byte[0]));
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package pt.psoft.g1.psoftg1.bookmanagement.api;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEvent;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEventRepository;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
+import pt.psoft.g1.psoftg1.shared.services.OutboxEventService;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Integration tests for the change feed at /api/books/changes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("BookChangesController Integration Tests")
+class BookChangesControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxEvent saveEvent(String isbn) {
+        return transactionTemplate.execute(status -> outboxEventService.saveEvent("Book", isbn, "BookCreatedEvent",
+                Map.of("isbn", isbn), RabbitmqConfig.EVENTS_EXCHANGE, BookEvents.BOOK_CREATED));
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        for (int i = 0; i < 100 && !response.getContentAsString().contains(expected); i++) {
+            Thread.sleep(50);
+        }
+        return response.getContentAsString();
+    }
+
+    @Test
+    @DisplayName("Should stream past and new changes as JSON lines")
+    void shouldStreamPastAndNewChangesAsJsonLines() throws Exception {
+        long since = outboxRepository.findHighWatermark();
+        OutboxEvent past = saveEvent("9780596007126");
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/books/changes")
+                .param("since", Long.toString(since))
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertTrue(awaitContent(response, "9780596007126").contains("\"offset\":" + past.getId()));
+
+        OutboxEvent next = saveEvent("9780596517748");
+        String content = awaitContent(response, "9780596517748");
+
+        assertTrue(content.contains("\"offset\":" + next.getId()));
+        assertTrue(content.contains("\"payload\":{\"isbn\":\"9780596517748\"}"));
+        assertEquals(2, content.lines().count());
+    }
+
+    @Test
+    @DisplayName("Should resume Server-Sent Events after the Last-Event-ID")
+    void shouldResumeServerSentEventsAfterLastEventId() throws Exception {
+        OutboxEvent seen = saveEvent("9780201633610");
+        OutboxEvent missed = saveEvent("9780201485677");
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/books/changes")
+                .header("Last-Event-ID", seen.getId())
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        String content = awaitContent(response, "9780201485677");
+
+        assertTrue(content.contains("id:" + missed.getId()));
+        assertTrue(content.contains("event:BookCreatedEvent"));
+        assertFalse(content.contains("9780201633610"));
+    }
+}
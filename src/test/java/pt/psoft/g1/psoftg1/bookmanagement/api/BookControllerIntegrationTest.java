@@ -1,6 +1,7 @@
 package pt.psoft.g1.psoftg1.bookmanagement.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,10 +20,14 @@ import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
 import pt.psoft.g1.psoftg1.bookmanagement.services.CreateBookRequest;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.QueryCountGuard;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -53,6 +58,9 @@ class BookControllerIntegrationTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Genre testGenre;
     private Author testAuthor;
 
@@ -97,6 +105,135 @@ class BookControllerIntegrationTest {
                     .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        @DisplayName("Should return 304 without a body when If-None-Match is the current version")
+        void shouldReturn304WhenETagMatches() throws Exception {
+            // Arrange
+            Book book = new Book("9780134685991", "Effective Java", "A programming book", testGenre,
+                    new ArrayList<>(List.of(testAuthor)), null);
+            bookRepository.save(book);
+            String eTag = mockMvc.perform(get("/api/books/9780134685991"))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            // Act & Assert
+            mockMvc.perform(get("/api/books/9780134685991")
+                    .header("If-None-Match", eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", eTag))
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("Should return 200 and the book when If-None-Match is an older version")
+        void shouldReturn200WhenETagIsStale() throws Exception {
+            // Arrange
+            Book book = new Book("9780134685991", "Effective Java", "A programming book", testGenre,
+                    new ArrayList<>(List.of(testAuthor)), null);
+            bookRepository.save(book);
+
+            // Act & Assert
+            mockMvc.perform(get("/api/books/9780134685991")
+                    .header("If-None-Match", "\"-1\""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.isbn", is("9780134685991")));
+        }
+
+        @Test
+        @DisplayName("Should return the book gzipped only when the client accepts it")
+        void shouldReturnGzippedBookWhenAccepted() throws Exception {
+            // Arrange
+            Book book = new Book("9780321125217", "Domain-Driven Design", "Tackling complexity. ".repeat(100),
+                    testGenre, new ArrayList<>(List.of(testAuthor)), null);
+            bookRepository.save(book);
+
+            // Act & Assert
+            byte[] gzipped = mockMvc.perform(get("/api/books/9780321125217")
+                    .header("Accept-Encoding", "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                    .andReturn().getResponse().getContentAsByteArray();
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                assertThat(objectMapper.readTree(in).get("title").asText(), is("Domain-Driven Design"));
+            }
+
+            mockMvc.perform(get("/api/books/9780321125217"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Content-Encoding"))
+                    .andExpect(jsonPath("$.title", is("Domain-Driven Design")))
+                    .andExpect(jsonPath("$.authors[0]", is("John Doe")));
+        }
+
+        @Test
+        @DisplayName("Should return 404 for a conditional request when book does not exist")
+        void shouldReturn404ForConditionalRequestWhenBookDoesNotExist() throws Exception {
+            mockMvc.perform(get("/api/books/9999999999999")
+                    .header("If-None-Match", "\"0\""))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET and POST /api/books/batch")
+    class MultiGetBooksTests {
+
+        @BeforeEach
+        void setUp() {
+            bookRepository.save(new Book("9780134685991", "Effective Java", "A programming book", testGenre,
+                    new ArrayList<>(List.of(testAuthor)), null));
+            bookRepository.save(new Book("9780132350884", "Clean Code", "A programming book", testGenre,
+                    new ArrayList<>(List.of(testAuthor)), null));
+        }
+
+        @Test
+        @DisplayName("Should return the books found and the ISBNs missing")
+        void shouldReturnFoundAndMissingBooks() throws Exception {
+            mockMvc.perform(get("/api/books/batch")
+                    .param("isbn", "9780132350884,9999999999999,9780134685991"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.found.9780132350884.title", is("Clean Code")))
+                    .andExpect(jsonPath("$.found.9780134685991.authors[0]", is("John Doe")))
+                    .andExpect(jsonPath("$.missing", contains("9999999999999")));
+        }
+
+        @Test
+        @DisplayName("Should accept the ISBNs as a JSON array")
+        void shouldAcceptJsonArray() throws Exception {
+            mockMvc.perform(post("/api/books/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of("9780134685991", "9780134685991", "invalid"))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.found.9780134685991.title", is("Effective Java")))
+                    .andExpect(jsonPath("$.found.*", hasSize(1)))
+                    .andExpect(jsonPath("$.missing", contains("invalid")));
+        }
+
+        @Test
+        @DisplayName("Should return only the selected fields, keyed by ISBN")
+        void shouldReturnSelectedFieldsByIsbn() throws Exception {
+            mockMvc.perform(get("/api/books/batch")
+                    .param("isbn", "9780132350884,9999999999999")
+                    .param("fields", "genre"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.found.9780132350884.genre", is("Fiction")))
+                    .andExpect(jsonPath("$.found.9780132350884.title").doesNotExist())
+                    .andExpect(jsonPath("$.missing", contains("9999999999999")));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when too many ISBNs are requested")
+        void shouldReturn400WhenTooManyIsbns() throws Exception {
+            List<String> isbns = new ArrayList<>();
+            for (int i = 0; i < 101; i++) {
+                isbns.add(String.valueOf(i));
+            }
+
+            mockMvc.perform(post("/api/books/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(isbns)))
+                    .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
@@ -271,6 +408,30 @@ class BookControllerIntegrationTest {
                     .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(1))));
         }
 
+        @Test
+        @DisplayName("Should return only the selected fields")
+        void shouldReturnOnlySelectedFields() throws Exception {
+            mockMvc.perform(get("/api/books")
+                    .param("title", "Clean Code")
+                    .param("fields", "isbn,title,authors"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].isbn", is("9780132350884")))
+                    .andExpect(jsonPath("$[0].title", is("Clean Code")))
+                    .andExpect(jsonPath("$[0].authors", contains("John Doe")))
+                    .andExpect(jsonPath("$[0].description").doesNotExist())
+                    .andExpect(jsonPath("$[0]._links").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unknown field")
+        void shouldReturn400ForUnknownField() throws Exception {
+            mockMvc.perform(get("/api/books")
+                    .param("title", "Clean Code")
+                    .param("fields", "isbn,price"))
+                    .andExpect(status().isBadRequest());
+        }
+
         @Test
         @DisplayName("Should return 404 when no books match criteria")
         void shouldReturn404WhenNoBooksMatchCriteria() throws Exception {
@@ -281,4 +442,110 @@ class BookControllerIntegrationTest {
                     .andExpect(status().isNotFound());
         }
     }
+
+    @Nested
+    @DisplayName("Query counts")
+    class QueryCountTests {
+
+        private QueryCountGuard guard;
+
+        @BeforeEach
+        void setUpGuard() {
+            guard = new QueryCountGuard(entityManager);
+        }
+
+        /** A genre of its own with books by two authors, for a fixture size. */
+        private String createBooks(int size) {
+            Genre genre = genreRepository.save(new Genre("Counted Genre " + size));
+            Author coauthor = authorRepository.save(new Author("Counted Coauthor " + size, "Co-writes", null));
+            for (int i = 0; i < size; i++) {
+                bookRepository.save(new Book(isbn(size * 100 + i), "Counted Book " + i, "A counted book", genre,
+                        new ArrayList<>(List.of(testAuthor, coauthor)), null));
+            }
+            return genre.toString();
+        }
+
+        /** A valid ISBN-13 for a number below 1000000. */
+        private static String isbn(int number) {
+            String digits = String.format("979%09d", number);
+            int sum = 0;
+            for (int i = 0; i < 12; i++) {
+                sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+            }
+            return digits + (10 - sum % 10) % 10;
+        }
+
+        @Test
+        @DisplayName("Should search books by genre in constant statements")
+        void shouldSearchByGenreInConstantStatements() throws Exception {
+            // The books, their genre, the authors of all of them
+            guard.assertStatementsForAnySize(3, size -> {
+                String genre = createBooks(size);
+                return () -> mockMvc.perform(get("/api/books").param("genre", genre))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$", hasSize(size)))
+                        .andExpect(jsonPath("$[0].authors", hasSize(2)));
+            }, 1, 5, 20);
+        }
+
+        @Test
+        @DisplayName("Should get books by ISBNs in constant statements")
+        void shouldMultiGetInConstantStatements() throws Exception {
+            // The books joined with their genre and authors
+            guard.assertStatementsForAnySize(1, size -> {
+                createBooks(size);
+                List<String> isbns = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    isbns.add(isbn(size * 100 + i));
+                }
+                return () -> mockMvc.perform(get("/api/books/batch").param("isbn", String.join(",", isbns)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.missing", hasSize(0)));
+            }, 1, 5, 20);
+        }
+
+        @Test
+        @DisplayName("Should get a book by ISBN in a fixed number of statements")
+        void shouldGetByIsbnInFixedStatements() throws Exception {
+            createBooks(1);
+
+            // The version, the book with its genre, its authors
+            guard.assertStatements(3, () -> mockMvc.perform(get("/api/books/" + isbn(100)))
+                    .andExpect(status().isOk()));
+        }
+
+        @Test
+        @DisplayName("Should serve a current serialized book with the version only")
+        void shouldServeEncodedBookWithVersionOnly() throws Exception {
+            createBooks(1);
+            String body = mockMvc.perform(get("/api/books/" + isbn(100)))
+                    .andReturn().getResponse().getContentAsString();
+
+            guard.assertStatements(1, () -> mockMvc.perform(get("/api/books/" + isbn(100)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(body)));
+        }
+
+        @Test
+        @DisplayName("Should answer a conditional get with the version only")
+        void shouldAnswerConditionalGetWithVersionOnly() throws Exception {
+            createBooks(1);
+            String eTag = mockMvc.perform(get("/api/books/" + isbn(100)))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            guard.assertStatements(1, () -> mockMvc.perform(get("/api/books/" + isbn(100))
+                            .header("If-None-Match", eTag))
+                    .andExpect(status().isNotModified()));
+        }
+
+        @Test
+        @DisplayName("Should answer an unknown ISBN without a query")
+        void shouldAnswerUnknownIsbnWithoutQuery() throws Exception {
+            guard.assertStatements(0, () -> mockMvc.perform(get("/api/books/" + isbn(999999)))
+                    .andExpect(status().isNotFound()));
+            guard.assertStatements(0, () -> mockMvc.perform(get("/api/books/" + isbn(999999))
+                            .header("If-None-Match", "\"0\""))
+                    .andExpect(status().isNotFound()));
+        }
+    }
 }
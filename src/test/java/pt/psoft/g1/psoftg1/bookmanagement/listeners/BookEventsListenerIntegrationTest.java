@@ -4,14 +4,30 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.context.ActiveProfiles;
 import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.replication.BookTombstoneRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.retry.DelayedRetryPublisher;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,6 +51,61 @@ class BookEventsListenerIntegrationTest {
     @MockBean
     private GenreRepository genreRepository;
 
+    @Autowired
+    private BookTombstoneRepository tombstoneRepository;
+
+    private static final String ISBN = "9780134685991";
+    private static final String OTHER_ISBN = "9780132350884";
+
+    private final Genre genre = new Genre("Programming");
+
+    private static BookViewAMQP bookView(String isbn, Long version) {
+        return new BookViewAMQP(isbn, "Effective Java", "A Java book", "Programming", version);
+    }
+
+    /** The update of a book to the fields of {@link #bookView(String, Long)} */
+    private BookRepository.ReplicaUpdate update(String isbn, long version) {
+        return new BookRepository.ReplicaUpdate(isbn, "Effective Java", "A Java book", genre, version);
+    }
+
+    private static Message<BookViewAMQP> event(String eventType, BookViewAMQP bookView) {
+        return MessageBuilder.withPayload(bookView)
+                .setHeader(AmqpHeaders.RECEIVED_ROUTING_KEY, eventType)
+                .build();
+    }
+
+    private static List<Message<BookViewAMQP>> events(String eventType, BookViewAMQP... bookViews) {
+        return Arrays.stream(bookViews).map(view -> event(eventType, view)).toList();
+    }
+
+    private static Message<BookViewAMQP> outboxMessage(BookViewAMQP bookView, String producerId, long eventId) {
+        return MessageBuilder.withPayload(bookView)
+                .setHeader(AmqpHeaders.RECEIVED_ROUTING_KEY, BookEvents.BOOK_CREATED)
+                .setHeader(AmqpHeaders.APP_ID, producerId)
+                .setHeader(AmqpHeaders.MESSAGE_ID, String.valueOf(eventId))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Book> savedBooks() {
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Message<BookViewAMQP> retried(String eventType, BookViewAMQP bookView) {
+        return MessageBuilder.fromMessage(event(eventType, bookView))
+                .setHeader(DelayedRetryPublisher.RETRY_COUNT_HEADER, 1)
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        tombstoneRepository.deleteAll();
+        when(genreRepository.findByStrings(anyCollection())).thenReturn(List.of(genre));
+        when(genreRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
     @Nested
     @DisplayName("Handle BOOK_CREATED Event Tests")
     class HandleBookCreatedEventTests {
@@ -42,25 +113,69 @@ class BookEventsListenerIntegrationTest {
         @Test
         @DisplayName("Should create book in local database when receiving BOOK_CREATED event")
         void shouldCreateBookInLocalDatabaseWhenReceivingBookCreatedEvent() {
-            // TODO: Implement test
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+            bookEventsListener.handleBookEvents(
+                    events(BookEvents.BOOK_CREATED, bookView(ISBN, 0L), bookView(OTHER_ISBN, 0L)));
+
+            verify(bookRepository, times(1)).findByIsbnIn(anyCollection());
+            verify(genreRepository, times(1)).findByStrings(List.of("Programming"));
+            List<Book> saved = savedBooks();
+            assertEquals(List.of(ISBN, OTHER_ISBN), saved.stream().map(Book::getIsbn).toList());
         }
 
         @Test
         @DisplayName("Should skip creation when book already exists locally")
         void shouldSkipCreationWhenBookAlreadyExistsLocally() {
-            // TODO: Implement test
+            Book existing = Book.replicaOf(ISBN, "Effective Java", null, genre);
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(existing));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_CREATED, bookView(ISBN, 0L)));
+
+            assertTrue(savedBooks().isEmpty());
         }
 
         @Test
         @DisplayName("Should create genre if it does not exist")
         void shouldCreateGenreIfItDoesNotExist() {
-            // TODO: Implement test
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+            when(genreRepository.findByStrings(anyCollection())).thenReturn(List.of());
+
+            bookEventsListener.handleBookEvents(
+                    events(BookEvents.BOOK_CREATED, bookView(ISBN, 0L), bookView(OTHER_ISBN, 0L)));
+
+            verify(genreRepository, times(1)).saveAll(argThat(genres -> genres.iterator().next().toString()
+                    .equals("Programming")));
+            assertEquals("Programming", savedBooks().get(0).getGenre().toString());
         }
 
         @Test
         @DisplayName("Should handle exception gracefully during sync")
         void shouldHandleExceptionGracefullyDuringSync() {
-            // TODO: Implement test
+            when(bookRepository.findByIsbnIn(anyCollection())).thenThrow(new RuntimeException("db down"));
+
+            assertDoesNotThrow(() -> bookEventsListener.handleBookEvents(
+                    events(BookEvents.BOOK_CREATED, bookView(ISBN, 0L), bookView(OTHER_ISBN, 0L))));
+
+            // One attempt for the batch, then one per message
+            verify(bookRepository, times(3)).findByIsbnIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should return only the events that still fail on their own, for a later retry")
+        void shouldReturnFailedEventsForRetry() {
+            Book existing = Book.replicaOf(OTHER_ISBN, "Clean Code", null, genre);
+            when(bookRepository.findByIsbnIn(anyCollection()))
+                    .thenThrow(new RuntimeException("db down"))
+                    .thenThrow(new RuntimeException("db down"))
+                    .thenReturn(List.of(existing));
+            List<Message<BookViewAMQP>> events = events(BookEvents.BOOK_CREATED,
+                    bookView(ISBN, 0L), bookView(OTHER_ISBN, 0L));
+
+            List<Message<BookViewAMQP>> failed = bookEventsListener.handleBookEvents(events);
+
+            assertEquals(1, failed.size());
+            assertSame(events.get(0), failed.get(0));
         }
     }
 
@@ -71,19 +186,79 @@ class BookEventsListenerIntegrationTest {
         @Test
         @DisplayName("Should update book in local database when receiving BOOK_UPDATED event")
         void shouldUpdateBookInLocalDatabaseWhenReceivingBookUpdatedEvent() {
-            // TODO: Implement test
+            when(bookRepository.updateAllIfNewer(List.of(update(ISBN, 2L)))).thenReturn(Set.of(ISBN));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_UPDATED, bookView(ISBN, 2L)));
+
+            verify(bookRepository).updateAllIfNewer(List.of(update(ISBN, 2L)));
+            verify(bookRepository, never()).findByIsbnIn(anyCollection());
         }
 
         @Test
         @DisplayName("Should create book if it does not exist locally")
         void shouldCreateBookIfItDoesNotExistLocally() {
-            // TODO: Implement test
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_UPDATED, bookView(ISBN, 2L)));
+
+            assertEquals(ISBN, savedBooks().get(0).getIsbn());
+            // Once for the update attempt, once to adopt the origin's version
+            verify(bookRepository, times(2)).updateAllIfNewer(List.of(update(ISBN, 2L)));
         }
 
         @Test
         @DisplayName("Should skip update if local version is newer")
         void shouldSkipUpdateIfLocalVersionIsNewer() {
-            // TODO: Implement test
+            Book existing = Book.replicaOf(ISBN, "Effective Java", null, genre);
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(existing));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_UPDATED, bookView(ISBN, 2L)));
+
+            assertTrue(savedBooks().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Conflation Tests")
+    class UpdateConflationTests {
+
+        @Test
+        @DisplayName("Should write a burst of updates in one batch, once per book with the newest version")
+        void shouldConflateBurstOfUpdates() {
+            when(bookRepository.updateAllIfNewer(anyCollection())).thenReturn(Set.of(ISBN, OTHER_ISBN));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_UPDATED,
+                    bookView(ISBN, 1L), bookView(ISBN, 3L), bookView(OTHER_ISBN, 1L), bookView(ISBN, 2L)));
+
+            verify(bookRepository).updateAllIfNewer(List.of(update(ISBN, 3L), update(OTHER_ISBN, 1L)));
+            verifyNoMoreInteractions(bookRepository);
+        }
+
+        @Test
+        @DisplayName("Should create a book once from its create and following updates")
+        void shouldConflateCreateWithUpdates() {
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+            bookEventsListener.handleBookEvents(List.of(
+                    event(BookEvents.BOOK_CREATED, bookView(ISBN, 0L)),
+                    event(BookEvents.BOOK_UPDATED, bookView(ISBN, 1L)),
+                    event(BookEvents.BOOK_UPDATED, bookView(ISBN, 2L))));
+
+            assertEquals(1, savedBooks().size());
+            verify(bookRepository, times(2)).updateAllIfNewer(List.of(update(ISBN, 2L)));
+        }
+
+        @Test
+        @DisplayName("Should let a delete supersede earlier updates")
+        void shouldLetDeleteSupersedeUpdates() {
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+            bookEventsListener.handleBookEvents(List.of(
+                    event(BookEvents.BOOK_UPDATED, bookView(ISBN, 1L)),
+                    event(BookEvents.BOOK_DELETED, bookView(ISBN, 1L))));
+
+            verify(bookRepository, never()).updateAllIfNewer(anyCollection());
+            verify(bookRepository).deleteAll(List.of());
         }
     }
 
@@ -94,13 +269,134 @@ class BookEventsListenerIntegrationTest {
         @Test
         @DisplayName("Should delete book from local database when receiving BOOK_DELETED event")
         void shouldDeleteBookFromLocalDatabaseWhenReceivingBookDeletedEvent() {
-            // TODO: Implement test
+            Book existing = Book.replicaOf(ISBN, "Effective Java", null, genre);
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(existing));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_DELETED, bookView(ISBN, 1L)));
+
+            verify(bookRepository).deleteAll(List.of(existing));
         }
 
         @Test
         @DisplayName("Should handle gracefully when book does not exist locally")
         void shouldHandleGracefullyWhenBookDoesNotExistLocally() {
-            // TODO: Implement test
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+            assertDoesNotThrow(() -> bookEventsListener.handleBookEvents(
+                    events(BookEvents.BOOK_DELETED, bookView(ISBN, 1L))));
+
+            verify(bookRepository).deleteAll(List.of());
+            assertEquals(1L, tombstoneRepository.findById(ISBN).orElseThrow().getVersion());
+        }
+
+        @Test
+        @DisplayName("Should not re-create a book when its create is retried after the delete")
+        void shouldNotRecreateBookWhenCreateIsRetriedAfterDelete() {
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_DELETED, bookView(ISBN, 1L)));
+
+            bookEventsListener.handleBookEvents(List.of(
+                    retried(BookEvents.BOOK_CREATED, bookView(ISBN, 0L)),
+                    retried(BookEvents.BOOK_UPDATED, bookView(ISBN, 1L))));
+
+            verify(bookRepository, never()).saveAll(anyList());
+            verify(bookRepository, never()).updateAllIfNewer(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should keep a local copy newer than the delete")
+        void shouldKeepLocalCopyNewerThanDelete() {
+            Book existing = Book.replicaOf(ISBN, "Effective Java", null, genre, List.of(), 3L);
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(existing));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_DELETED, bookView(ISBN, 1L)));
+
+            verify(bookRepository).deleteAll(List.of());
+            assertFalse(tombstoneRepository.existsById(ISBN));
+        }
+
+        @Test
+        @DisplayName("Should re-create a book above the deleted version")
+        void shouldRecreateBookAboveDeletedVersion() {
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_DELETED, bookView(ISBN, 1L)));
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_CREATED, bookView(ISBN, 2L)));
+
+            assertEquals(List.of(ISBN), savedBooks().stream().map(Book::getIsbn).toList());
+            assertFalse(tombstoneRepository.existsById(ISBN));
+        }
+    }
+
+    @Nested
+    @DisplayName("Ordered Batch Tests")
+    class OrderedBatchTests {
+
+        @Test
+        @DisplayName("Should apply a delete and re-create of the same book in order")
+        void shouldApplyDeleteAndRecreateInOrder() {
+            Book existing = Book.replicaOf(ISBN, "Effective Java", null, genre);
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(existing), List.of());
+
+            bookEventsListener.handleBookEvents(List.of(
+                    event(BookEvents.BOOK_DELETED, bookView(ISBN, 1L)),
+                    event(BookEvents.BOOK_CREATED, bookView(ISBN, 2L))));
+
+            var inOrder = inOrder(bookRepository);
+            inOrder.verify(bookRepository).deleteAll(List.of(existing));
+            inOrder.verify(bookRepository).saveAll(argThat(books -> books.iterator().hasNext()));
+            assertFalse(tombstoneRepository.existsById(ISBN));
+        }
+
+        @Test
+        @DisplayName("Should ignore events with an unknown type")
+        void shouldIgnoreEventsWithUnknownType() {
+            assertDoesNotThrow(() -> bookEventsListener.handleBookEvents(
+                    events("book.archived", bookView(ISBN, 1L))));
+
+            verifyNoInteractions(bookRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Duplicate Event Tests")
+    class DuplicateEventTests {
+
+        @Test
+        @DisplayName("Should drop redelivered events without database access")
+        void shouldDropRedeliveredEventsWithoutDatabaseAccess() {
+            String producerId = "producer-" + UUID.randomUUID();
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+            Message<BookViewAMQP> event = outboxMessage(bookView(ISBN, 0L), producerId, 42L);
+
+            bookEventsListener.handleBookEvents(List.of(event));
+            bookEventsListener.handleBookEvents(List.of(event));
+
+            verify(bookRepository, times(1)).findByIsbnIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should process a repeated event only once within a batch")
+        void shouldProcessRepeatedEventOnceWithinBatch() {
+            String producerId = "producer-" + UUID.randomUUID();
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+            Message<BookViewAMQP> event = outboxMessage(bookView(ISBN, 0L), producerId, 7L);
+            Message<BookViewAMQP> other = outboxMessage(bookView(OTHER_ISBN, 0L), producerId, 8L);
+
+            bookEventsListener.handleBookEvents(List.of(event, other, event));
+
+            assertEquals(2, savedBooks().size());
+        }
+
+        @Test
+        @DisplayName("Should always process events without an event id")
+        void shouldAlwaysProcessEventsWithoutEventId() {
+            when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_CREATED, bookView(ISBN, 0L)));
+            bookEventsListener.handleBookEvents(events(BookEvents.BOOK_CREATED, bookView(ISBN, 0L)));
+
+            verify(bookRepository, times(2)).findByIsbnIn(anyCollection());
         }
     }
 }
@@ -1,5 +1,6 @@
 package pt.psoft.g1.psoftg1.bookmanagement.repositories;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -7,6 +8,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.QueryCountGuard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +33,15 @@ class BookRepositoryIntegrationTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Nested
     @DisplayName("Save Book Tests")
     class SaveBookTests {
@@ -90,4 +110,162 @@ class BookRepositoryIntegrationTest {
             // TODO: Implement test
         }
     }
+
+    @Nested
+    @DisplayName("Replicated Update Tests")
+    class ReplicatedUpdateTests {
+
+        private static final String ISBN = "9780134685991";
+
+        private Genre genre;
+
+        @BeforeEach
+        void setUp() {
+            genre = genreRepository.save(new Genre("Programming"));
+            bookRepository.save(Book.replicaOf(ISBN, "Effective Java", null, genre));
+        }
+
+        @Test
+        @DisplayName("Should apply a newer version and adopt it")
+        void shouldApplyNewerVersion() {
+            int updated = bookRepository.updateIfNewer(ISBN, "Effective Java 3rd Edition", "Updated", genre, 5L);
+
+            assertEquals(1, updated);
+            Book book = bookRepository.findByIsbn(ISBN).orElseThrow();
+            assertEquals("Effective Java 3rd Edition", book.getTitle().toString());
+            assertEquals("Updated", book.getDescription());
+            assertEquals(5L, book.getVersion());
+        }
+
+        @Test
+        @DisplayName("Should not overwrite a same or newer version")
+        void shouldNotOverwriteSameOrNewerVersion() {
+            bookRepository.updateIfNewer(ISBN, "Newest", null, genre, 5L);
+
+            assertEquals(0, bookRepository.updateIfNewer(ISBN, "Stale", null, genre, 3L));
+            assertEquals(0, bookRepository.updateIfNewer(ISBN, "Same", null, genre, 5L));
+            assertEquals("Newest", bookRepository.findByIsbn(ISBN).orElseThrow().getTitle().toString());
+        }
+
+        @Test
+        @DisplayName("Should not update a missing book")
+        void shouldNotUpdateMissingBook() {
+            assertEquals(0, bookRepository.updateIfNewer("9780132350884", "Clean Code", null, genre, 1L));
+        }
+
+        @Test
+        @DisplayName("Should update a batch, only where newer, keeping the rest of the session")
+        void shouldUpdateBatchWhereNewer() {
+            String other = "9780132350884";
+            bookRepository.save(Book.replicaOf(other, "Clean Code", null, genre));
+            bookRepository.updateIfNewer(other, "Clean Code", null, genre, 5L);
+
+            Set<String> updated = bookRepository.updateAllIfNewer(List.of(
+                    new BookRepository.ReplicaUpdate(ISBN, "Effective Java 3rd Edition", null, genre, 2L),
+                    new BookRepository.ReplicaUpdate(other, "Stale Code", null, genre, 3L),
+                    new BookRepository.ReplicaUpdate("9780201633610", "Design Patterns", null, genre, 1L)));
+
+            assertEquals(Set.of(ISBN), updated);
+            assertTrue(entityManager.contains(genre));
+            assertEquals("Effective Java 3rd Edition",
+                    bookRepository.findByIsbn(ISBN).orElseThrow().getTitle().toString());
+            assertEquals("Clean Code", bookRepository.findByIsbn(other).orElseThrow().getTitle().toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Query Count Tests")
+    class QueryCountTests {
+
+        private QueryCountGuard guard;
+
+        @BeforeEach
+        void setUp() {
+            guard = new QueryCountGuard(entityManager);
+        }
+
+        /**
+         * Creates a genre and two authors of their own with books of both,
+         * named after the fixture size so each fixture only finds its books.
+         */
+        private void createBooks(int size) {
+            Genre genre = genreRepository.save(new Genre("Query Count " + size));
+            List<Author> authors = List.of(
+                    authorRepository.save(new Author("Query Writer " + size, "Writes books", null)),
+                    authorRepository.save(new Author("Query Coauthor " + size, "Writes books too", null)));
+            for (int i = 0; i < size; i++) {
+                bookRepository.save(new Book(isbn(size * 100 + i), "Query Book " + size + "-" + i, null, genre,
+                        new ArrayList<>(authors), null));
+            }
+        }
+
+        /** A valid ISBN-13 for a number below 1000000. */
+        private static String isbn(int number) {
+            String digits = String.format("978%09d", number);
+            int sum = 0;
+            for (int i = 0; i < 12; i++) {
+                sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+            }
+            return digits + (10 - sum % 10) % 10;
+        }
+
+        /** Reads everything a book view shows. */
+        private void render(List<Book> books, int size) {
+            assertEquals(size, books.size());
+            books.forEach(book -> {
+                book.getGenre().toString();
+                book.getAuthors().forEach(author -> author.getName());
+            });
+        }
+
+        // The books, then their genre, then the authors of all of them
+
+        @Test
+        @DisplayName("Should find books by genre with their authors in constant statements")
+        void shouldFindByGenreInConstantStatements() throws Exception {
+            guard.assertStatementsForAnySize(3, size -> {
+                createBooks(size);
+                return () -> render(bookRepository.findByGenre("Query Count " + size), size);
+            }, 1, 5, 20);
+        }
+
+        @Test
+        @DisplayName("Should find books by title with their authors in constant statements")
+        void shouldFindByTitleInConstantStatements() throws Exception {
+            guard.assertStatementsForAnySize(3, size -> {
+                createBooks(size);
+                return () -> render(bookRepository.findByTitle("Query Book " + size + "-"), size);
+            }, 1, 5, 20);
+        }
+
+        @Test
+        @DisplayName("Should find books by author name with their authors in constant statements")
+        void shouldFindByAuthorNameInConstantStatements() throws Exception {
+            guard.assertStatementsForAnySize(3, size -> {
+                createBooks(size);
+                return () -> render(bookRepository.findByAuthorName("Query Writer " + size), size);
+            }, 1, 5, 20);
+        }
+
+        @Test
+        @DisplayName("Should find a book by ISBN with its genre, then its authors")
+        void shouldFindByIsbnInTwoStatements() throws Exception {
+            createBooks(1);
+
+            guard.assertStatements(2, () -> render(List.of(bookRepository.findByIsbn(isbn(100)).orElseThrow()), 1));
+        }
+
+        @Test
+        @DisplayName("Should find books by ISBNs with their genre and authors in one statement")
+        void shouldFindWithAuthorsByIsbnsInOneStatement() throws Exception {
+            guard.assertStatementsForAnySize(1, size -> {
+                createBooks(size);
+                List<String> isbns = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    isbns.add(isbn(size * 100 + i));
+                }
+                return () -> render(bookRepository.findWithAuthorsByIsbnIn(isbns), size);
+            }, 1, 5, 20);
+        }
+    }
 }
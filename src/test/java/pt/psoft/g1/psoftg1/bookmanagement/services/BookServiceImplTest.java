@@ -270,7 +270,7 @@ class BookServiceImplTest {
         void shouldFindBooksByAuthorName() {
             // Arrange
             List<Book> books = Arrays.asList(validBook);
-            when(bookRepository.findByAuthorName("Joshua%")).thenReturn(books);
+            when(bookRepository.findByAuthorName("Joshua")).thenReturn(books);
 
             // Act
             List<Book> result = bookService.findByAuthorName("Joshua");
@@ -278,7 +278,7 @@ class BookServiceImplTest {
             // Assert
             assertNotNull(result);
             assertEquals(1, result.size());
-            verify(bookRepository).findByAuthorName("Joshua%");
+            verify(bookRepository).findByAuthorName("Joshua");
         }
 
         @Test
@@ -294,6 +294,32 @@ class BookServiceImplTest {
             assertNotNull(result);
             assertTrue(result.isEmpty());
         }
+
+        @Test
+        @DisplayName("Should find books by several ISBNs in one lookup")
+        void shouldFindBooksByIsbns() {
+            // Arrange
+            List<String> isbns = List.of(VALID_ISBN, "9780132350884");
+            when(bookRepository.findWithAuthorsByIsbnIn(isbns)).thenReturn(List.of(validBook));
+
+            // Act
+            List<Book> result = bookService.findByIsbns(isbns);
+
+            // Assert
+            assertEquals(List.of(validBook), result);
+            verify(bookRepository).findWithAuthorsByIsbnIn(isbns);
+        }
+
+        @Test
+        @DisplayName("Should not query when no ISBNs are given")
+        void shouldNotQueryWhenNoIsbnsGiven() {
+            // Act
+            List<Book> result = bookService.findByIsbns(List.of());
+
+            // Assert
+            assertTrue(result.isEmpty());
+            verifyNoInteractions(bookRepository);
+        }
     }
 
     @Nested
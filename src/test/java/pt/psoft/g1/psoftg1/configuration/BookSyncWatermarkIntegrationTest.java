@@ -0,0 +1,167 @@
+package pt.psoft.g1.psoftg1.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecMessageConverter;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecRegistry;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventStore;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventWatermark;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventWatermarkRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.retry.DelayedRetryPublisher;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Integration tests for the processed-event watermarks of the book sync
+ * shards: messages go through the same conversion as in the shard
+ * containers, so the watermarks are keyed by the queue they came from.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Book Sync Watermark Integration Tests")
+class BookSyncWatermarkIntegrationTest {
+
+    private static final int SHARDS = 4;
+    private static final int BATCHES = 20;
+
+    /** A producer per test, as the store keeps the watermarks it has seen in memory */
+    private final String producer = "concurrent-producer-" + UUID.randomUUID();
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @Autowired
+    private ProcessedEventWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    private PayloadCodecRegistry payloadCodecRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The converter of the messageConverter bean, which the test profile does not declare */
+    private MessageConverter messageConverter;
+
+    @BeforeEach
+    void setUp() {
+        messageConverter = new PayloadCodecMessageConverter(payloadCodecRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watermarkRepository.deleteAll(watermarks());
+        transactionTemplate.executeWithoutResult(
+                status -> processedEventRepository.deleteBefore(producer, Long.MAX_VALUE));
+    }
+
+    private List<ProcessedEventWatermark> watermarks() {
+        return watermarkRepository.findAll().stream()
+                .filter(watermark -> producer.equals(watermark.getProducerId()))
+                .toList();
+    }
+
+    private static String queue(int shard) {
+        return "books.sync." + shard;
+    }
+
+    /** A book event as a shard container receives it from the broker. */
+    private Message received(long id, int shard) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(Long.toString(id));
+        properties.setAppId(producer);
+        Message message = messageConverter.toMessage(
+                new BookViewAMQP("9780134685991", "Effective Java", null, "Programming", id), properties);
+        message.getMessageProperties().setReceivedRoutingKey(BookEvents.BOOK_UPDATED);
+        message.getMessageProperties().setConsumerQueue(queue(shard));
+        return message;
+    }
+
+    private List<org.springframework.messaging.Message<BookViewAMQP>> convert(List<Message> messages) {
+        return RabbitmqConfig.BookSyncConfig.toBookEvents(messages, messageConverter, new IdentityHashMap<>(),
+                mock(DelayedRetryPublisher.class));
+    }
+
+    @Test
+    @DisplayName("Should keep one watermark row per shard queue for concurrent shard consumers")
+    void shouldRecordConcurrentShards() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SHARDS);
+        CyclicBarrier start = new CyclicBarrier(SHARDS);
+        try {
+            List<Future<?>> consumers = new ArrayList<>();
+            for (int shard = 0; shard < SHARDS; shard++) {
+                int consumer = shard;
+                consumers.add(executor.submit(() -> {
+                    start.await();
+                    // Interleaved ids, so every shard advances the producer's watermark in turn
+                    for (int batch = 0; batch < BATCHES; batch++) {
+                        long id = 1 + (long) batch * SHARDS + consumer;
+                        var events = convert(List.of(received(id, consumer)));
+                        transactionTemplate.executeWithoutResult(
+                                status -> processedEventStore.recordProcessed(events));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> consumer : consumers) {
+                consumer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ProcessedEventWatermark> watermarks = watermarks();
+        assertEquals(List.of(queue(0), queue(1), queue(2), queue(3)),
+                watermarks.stream().map(ProcessedEventWatermark::getShard).sorted().toList());
+        for (ProcessedEventWatermark watermark : watermarks) {
+            int shard = Integer.parseInt(watermark.getShard().substring(queue(0).length() - 1));
+            assertEquals((long) (BATCHES - 1) * SHARDS + shard + 1, watermark.getHighWatermark());
+        }
+        assertTrue(processedEventStore.isDuplicate(producer, queue(0), "1"));
+        assertFalse(processedEventStore.isDuplicate(producer, queue(0), Long.toString(BATCHES * SHARDS + 1)));
+    }
+
+    @Test
+    @DisplayName("Should judge an event by the watermark of its own shard and the ids it recorded")
+    void shouldCompareWithOwnShard() {
+        long ahead = 300_000;
+        for (var events : List.of(convert(List.of(received(1, 0), received(ahead, 0))),
+                convert(List.of(received(5, 1))))) {
+            transactionTemplate.executeWithoutResult(status -> processedEventStore.recordProcessed(events));
+        }
+
+        // Far below the leading shard, but within the window of the lagging one
+        assertFalse(processedEventStore.isDuplicate(producer, queue(1), "100000"));
+        assertEquals(1, processedEventStore.dropDuplicates(convert(List.of(received(100_000, 1)))).size());
+        // Within the window: only the recorded ids are duplicates
+        assertTrue(processedEventStore.isDuplicate(producer, queue(1), "5"));
+        assertFalse(processedEventStore.isDuplicate(producer, queue(1), "4"));
+        // Below the window of the event's own shard
+        assertTrue(processedEventStore.isDuplicate(producer, queue(0), "2"));
+    }
+}
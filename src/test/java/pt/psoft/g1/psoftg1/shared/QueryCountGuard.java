@@ -0,0 +1,98 @@
+package pt.psoft.g1.psoftg1.shared;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Counts the SQL statements an action executes, from the Hibernate
+ * statistics (hibernate.generate_statistics), to catch N+1 regressions.
+ *
+ * Before each measurement the persistence context is flushed and cleared and
+ * the second-level cache evicted, so entities set up by the test are read
+ * from the database as in a cold request, and nothing the fixture wrote is
+ * counted. Statistics are per SessionFactory: nothing else may run
+ * statements against it meanwhile (no async work in the measured action).
+ *
+ * <pre>
+ * guard.assertStatements(2, () -&gt; bookRepository.findByGenre("Fiction"));
+ * guard.assertIndependentOfSize(size -&gt; { createBooks(size); return () -&gt; search(); }, 1, 5, 20);
+ * </pre>
+ */
+public class QueryCountGuard {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public QueryCountGuard(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Fixture {
+
+        /**
+         * Sets up a fixture of the given size and returns the action to
+         * measure on it.
+         */
+        Action ofSize(int size) throws Exception;
+    }
+
+    /**
+     * @return The statements the action prepared (queries, inserts, updates
+     *         and deletes)
+     */
+    public long count(Action action) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    public void assertStatements(long expected, Action action) throws Exception {
+        assertEquals(expected, count(action), "SQL statements executed");
+    }
+
+    /**
+     * Runs the action on fixtures of each size and fails if the number of
+     * statements is not the same for all of them, i.e. if it grows with the
+     * size of the result (N+1 selects).
+     *
+     * @return The number of statements, the same for every size
+     */
+    public long assertIndependentOfSize(Fixture fixture, int... sizes) throws Exception {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int size : sizes) {
+            Action action = fixture.ofSize(size);
+            counts.put(size, count(action));
+        }
+        if (counts.values().stream().distinct().count() > 1) {
+            fail("SQL statements grow with the fixture size (size=statements): " + counts);
+        }
+        return counts.values().iterator().next();
+    }
+
+    /**
+     * Same as {@link #assertIndependentOfSize(Fixture, int...)}, and fails
+     * unless the number of statements is the expected one.
+     */
+    public void assertStatementsForAnySize(long expected, Fixture fixture, int... sizes) throws Exception {
+        assertEquals(expected, assertIndependentOfSize(fixture, sizes), "SQL statements executed");
+    }
+}
@@ -0,0 +1,29 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Accept-Encoding parsing of EncodedResponses.
+ */
+@DisplayName("EncodedResponses Tests")
+class EncodedResponsesTest {
+
+    @Test
+    @DisplayName("Should accept gzip when listed or matched by a wildcard")
+    void shouldAcceptGzip() {
+        assertTrue(EncodedResponses.acceptsGzip("gzip"));
+        assertTrue(EncodedResponses.acceptsGzip("br, GZIP;q=0.8"));
+        assertTrue(EncodedResponses.acceptsGzip("*"));
+    }
+
+    @Test
+    @DisplayName("Should not accept gzip when missing or refused")
+    void shouldNotAcceptGzip() {
+        assertFalse(EncodedResponses.acceptsGzip(null));
+        assertFalse(EncodedResponses.acceptsGzip("br, deflate"));
+        assertFalse(EncodedResponses.acceptsGzip("gzip;q=0"));
+    }
+}
@@ -0,0 +1,92 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.bloom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BloomFilter and RollingBloomFilter.
+ */
+@DisplayName("Bloom Filter Unit Tests")
+class BloomFilterTest {
+
+    @Nested
+    @DisplayName("BloomFilter Tests")
+    class BloomFilterTests {
+
+        @Test
+        @DisplayName("Should never report a false negative")
+        void shouldNeverReportFalseNegative() {
+            BloomFilter filter = new BloomFilter(10_000, 0.01);
+            for (int i = 0; i < 10_000; i++) {
+                filter.put("producer:" + i);
+            }
+
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(filter.mightContain("producer:" + i));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep the false positive rate near the target")
+        void shouldKeepFalsePositiveRateNearTarget() {
+            BloomFilter filter = new BloomFilter(10_000, 0.01);
+            for (int i = 0; i < 10_000; i++) {
+                filter.put("producer:" + i);
+            }
+
+            int falsePositives = 0;
+            for (int i = 10_000; i < 110_000; i++) {
+                if (filter.mightContain("producer:" + i)) {
+                    falsePositives++;
+                }
+            }
+
+            assertTrue(falsePositives / 100_000.0 < 0.02, "False positive rate too high: " + falsePositives);
+            assertEquals(0.01, filter.expectedFalsePositiveProbability(), 0.005);
+        }
+
+        @Test
+        @DisplayName("Should reject invalid sizing parameters")
+        void shouldRejectInvalidSizingParameters() {
+            assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+            assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+        }
+    }
+
+    @Nested
+    @DisplayName("RollingBloomFilter Tests")
+    class RollingBloomFilterTests {
+
+        @Test
+        @DisplayName("Should remember at least the last capacity keys")
+        void shouldRememberLastCapacityKeys() {
+            RollingBloomFilter filter = new RollingBloomFilter(1_000, 0.001);
+            for (int i = 0; i < 5_500; i++) {
+                filter.put("key:" + i);
+            }
+
+            for (int i = 4_500; i < 5_500; i++) {
+                assertTrue(filter.mightContain("key:" + i));
+            }
+        }
+
+        @Test
+        @DisplayName("Should forget keys older than two generations")
+        void shouldForgetOldKeys() {
+            RollingBloomFilter filter = new RollingBloomFilter(1_000, 0.001);
+            for (int i = 0; i < 5_000; i++) {
+                filter.put("key:" + i);
+            }
+
+            long remembered = IntStream.range(0, 1_000)
+                    .filter(i -> filter.mightContain("key:" + i))
+                    .count();
+            assertTrue(remembered < 10, "Old keys still reported: " + remembered);
+        }
+    }
+}
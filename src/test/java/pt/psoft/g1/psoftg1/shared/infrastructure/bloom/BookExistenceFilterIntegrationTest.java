@@ -0,0 +1,113 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.bloom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for BookExistenceFilter and its use by
+ * BookRepository.findByIsbn.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Book Existence Filter Integration Tests")
+class BookExistenceFilterIntegrationTest {
+
+    private static final String ISBN = "9780262033848";
+    private static final String MISSING_ISBN = "9780201485677";
+
+    @Autowired
+    private BookExistenceFilter existenceFilter;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.deleteAll(bookRepository.findByIsbnIn(List.of(ISBN))));
+    }
+
+    private Book newBook() {
+        Genre genre = genreRepository.findByString("Algorithms")
+                .orElseGet(() -> genreRepository.save(new Genre("Algorithms")));
+        return Book.replicaOf(ISBN, "Introduction to Algorithms", "A book", genre);
+    }
+
+    @Test
+    @DisplayName("Should answer an unknown ISBN without a query")
+    void shouldRejectUnknownIsbn() {
+        existenceFilter.rebuild();
+        long negatives = existenceFilter.stats().negatives();
+
+        assertFalse(existenceFilter.mightExist(MISSING_ISBN));
+        assertTrue(bookRepository.findByIsbn(MISSING_ISBN).isEmpty());
+        assertEquals(negatives + 2, existenceFilter.stats().negatives());
+    }
+
+    @Test
+    @DisplayName("Should find a book created after the filter was built")
+    void shouldFindNewBook() {
+        existenceFilter.rebuild();
+
+        transactionTemplate.executeWithoutResult(status -> bookRepository.save(newBook()));
+
+        assertTrue(existenceFilter.mightExist(ISBN));
+        assertTrue(bookRepository.findByIsbn(ISBN).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should find a book persisted earlier in the same transaction")
+    void shouldFindBookPersistedInSameTransaction() {
+        existenceFilter.rebuild();
+
+        Boolean found = transactionTemplate.execute(status -> {
+            bookRepository.save(newBook());
+            return bookRepository.findByIsbn(ISBN).isPresent();
+        });
+
+        assertTrue(found);
+    }
+
+    @Test
+    @DisplayName("Should keep existing books when rebuilt")
+    void shouldKeepBooksWhenRebuilt() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.save(newBook()));
+
+        existenceFilter.rebuild();
+
+        assertTrue(existenceFilter.mightExist(ISBN));
+        assertFalse(existenceFilter.mightExist(MISSING_ISBN));
+    }
+
+    @Test
+    @DisplayName("Should report size and false positive rate")
+    void shouldReportStats() {
+        existenceFilter.rebuild();
+
+        BookExistenceFilter.Stats stats = existenceFilter.stats();
+
+        assertTrue(stats.built());
+        assertTrue(stats.capacity() >= 100_000);
+        assertTrue(stats.memoryBytes() > 0);
+        assertTrue(stats.expectedFalsePositiveRate() < 0.01);
+    }
+}
@@ -0,0 +1,94 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EncodedViewCache.
+ */
+@DisplayName("Encoded View Cache Unit Tests")
+class EncodedViewCacheTest {
+
+    private final EncodedViewCache cache = new EncodedViewCache("books", true, new NearCache<>(100, 60_000),
+            new ObjectMapper(), 64);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private EncodedViewCache.EncodedView get(long version, String title) {
+        return cache.get("9780132350884", version, () -> {
+            loads.incrementAndGet();
+            return new VersionedView<>(version, Map.of("title", title));
+        });
+    }
+
+    @Test
+    @DisplayName("Should serve the same bytes for the same version without loading")
+    void shouldServeSameVersionFromCache() {
+        EncodedViewCache.EncodedView first = get(1, "Clean Code");
+
+        assertSame(first, get(1, "unexpected"));
+        assertEquals("{\"title\":\"Clean Code\"}", new String(first.json(), StandardCharsets.UTF_8));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should encode again when the version changes")
+    void shouldReencodeNewVersion() {
+        get(1, "Clean Code");
+
+        EncodedViewCache.EncodedView second = get(2, "Clean Code, 2nd Edition");
+
+        assertEquals(2, second.version());
+        assertEquals(2, loads.get());
+        assertSame(second, get(2, "unexpected"));
+    }
+
+    @Test
+    @DisplayName("Should encode again after an eviction")
+    void shouldReencodeAfterEviction() {
+        get(1, "Clean Code");
+
+        cache.evict("9780132350884");
+        get(1, "Clean Code");
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("Should gzip only views of at least the minimum size")
+    void shouldGzipLargeViews() throws IOException {
+        assertFalse(get(1, "Clean Code").isGzipped());
+
+        String title = "Clean Code ".repeat(20);
+        EncodedViewCache.EncodedView large = get(2, title);
+
+        assertTrue(large.isGzipped());
+        assertTrue(large.gzipped().length < large.json().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.gzipped()))) {
+            assertArrayEquals(large.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode every time when disabled")
+    void shouldNotCacheWhenDisabled() {
+        EncodedViewCache disabled = new EncodedViewCache("books", false, new NearCache<>(100, 60_000),
+                new ObjectMapper(), 64);
+
+        disabled.get("1", 1, () -> new VersionedView<>(1L, Map.of()));
+        disabled.get("1", 1, () -> new VersionedView<>(1L, Map.of()));
+
+        assertEquals(0, disabled.stats().hits());
+        assertEquals(2, disabled.stats().encodings());
+    }
+}
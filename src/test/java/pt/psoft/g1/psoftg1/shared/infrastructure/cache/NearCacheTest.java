@@ -0,0 +1,54 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NearCache.
+ */
+@DisplayName("Near Cache Unit Tests")
+class NearCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    @DisplayName("Should drop the least recently used entry when full")
+    void shouldEvictLeastRecentlyUsed() {
+        NearCache<String> cache = new NearCache<>(2, 60_000, now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after their time to live")
+    void shouldExpireEntries() {
+        NearCache<String> cache = new NearCache<>(10, 500, now::get);
+        cache.put("a", "A");
+
+        now.addAndGet(499);
+        assertEquals("A", cache.get("a"));
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should keep nothing when sized zero")
+    void shouldBeDisabledWhenSizedZero() {
+        NearCache<String> cache = new NearCache<>(0, 500, now::get);
+        cache.put("a", "A");
+
+        assertNull(cache.get("a"));
+    }
+}
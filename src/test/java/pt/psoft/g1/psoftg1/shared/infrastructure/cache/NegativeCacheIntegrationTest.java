@@ -0,0 +1,73 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the invalidation of the NegativeCache by created
+ * entities.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Negative Cache Integration Tests")
+class NegativeCacheIntegrationTest {
+
+    private static final String GENRE = "Negative Cache Poetry";
+    private static final String AUTHOR_NAME = "Negative Cache Author";
+
+    @Autowired
+    private NegativeCache negativeCache;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status ->
+                authorRepository.searchByNameName(AUTHOR_NAME).forEach(authorRepository::delete));
+    }
+
+    @Test
+    @DisplayName("Should find a genre created after it was not found")
+    void shouldFindCreatedGenre() {
+        assertTrue(negativeCache.find(NegativeCache.GENRES, GENRE, () -> genreRepository.findByString(GENRE)).isEmpty());
+
+        transactionTemplate.executeWithoutResult(status -> genreRepository.save(new Genre(GENRE)));
+
+        assertTrue(negativeCache.find(NegativeCache.GENRES, GENRE, () -> genreRepository.findByString(GENRE))
+                .isPresent());
+    }
+
+    @Test
+    @DisplayName("Should find an author created after a search found nothing")
+    void shouldFindCreatedAuthor() {
+        assertTrue(negativeCache.search(NegativeCache.AUTHOR_SEARCHES, AUTHOR_NAME,
+                () -> authorRepository.searchByNameName(AUTHOR_NAME)).isEmpty());
+
+        transactionTemplate.executeWithoutResult(status ->
+                authorRepository.save(new Author(AUTHOR_NAME, "Bio", null)));
+
+        List<Author> authors = negativeCache.search(NegativeCache.AUTHOR_SEARCHES, AUTHOR_NAME,
+                () -> authorRepository.searchByNameName(AUTHOR_NAME));
+        assertEquals(1, authors.size());
+    }
+}
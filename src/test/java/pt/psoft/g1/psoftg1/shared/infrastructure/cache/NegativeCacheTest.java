@@ -0,0 +1,124 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NegativeCache.
+ */
+@DisplayName("Negative Cache Unit Tests")
+class NegativeCacheTest {
+
+    private final NegativeCache negativeCache = new NegativeCache(true, Duration.ofMinutes(1), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Optional<String> findAuthor(String key, Optional<String> result) {
+        return negativeCache.find(NegativeCache.AUTHORS, key, () -> {
+            loads.incrementAndGet();
+            return result;
+        });
+    }
+
+    @Test
+    @DisplayName("Should answer a key recently not found without loading it")
+    void shouldRememberMisses() {
+        findAuthor("42", Optional.empty());
+
+        assertTrue(findAuthor("42", Optional.of("unexpected")).isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not remember keys that were found")
+    void shouldNotRememberHits() {
+        findAuthor("42", Optional.of("Eric Evans"));
+
+        assertEquals(Optional.of("Eric Evans"), findAuthor("42", Optional.of("Eric Evans")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should remember empty searches")
+    void shouldRememberEmptySearches() {
+        negativeCache.search(NegativeCache.BOOK_SEARCHES, "title=DDD", List::of);
+
+        List<String> books = negativeCache.search(NegativeCache.BOOK_SEARCHES, "title=DDD",
+                () -> List.of("unexpected"));
+
+        assertTrue(books.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load an invalidated key again")
+    void shouldForgetInvalidatedKey() {
+        findAuthor("42", Optional.empty());
+        findAuthor("43", Optional.empty());
+
+        negativeCache.invalidate(NegativeCache.AUTHORS, "42");
+
+        assertEquals(Optional.of("Eric Evans"), findAuthor("42", Optional.of("Eric Evans")));
+        assertTrue(findAuthor("43", Optional.of("unexpected")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should forget every key of an invalidated region only")
+    void shouldForgetInvalidatedRegion() {
+        findAuthor("42", Optional.empty());
+        negativeCache.search(NegativeCache.BOOK_SEARCHES, "title=DDD", List::of);
+
+        negativeCache.invalidateAll(NegativeCache.BOOK_SEARCHES);
+
+        assertEquals(List.of("DDD"), negativeCache.search(NegativeCache.BOOK_SEARCHES, "title=DDD",
+                () -> List.of("DDD")));
+        assertTrue(findAuthor("42", Optional.of("unexpected")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not remember a miss loaded while its region was invalidated")
+    void shouldNotRememberMissRacingInvalidation() {
+        negativeCache.find(NegativeCache.AUTHORS, "42", () -> {
+            negativeCache.invalidate(NegativeCache.AUTHORS, "42");
+            return Optional.empty();
+        });
+
+        assertEquals(Optional.of("Eric Evans"), findAuthor("42", Optional.of("Eric Evans")));
+    }
+
+    @Test
+    @DisplayName("Should load every lookup when disabled")
+    void shouldLoadEveryLookupWhenDisabled() {
+        NegativeCache disabled = new NegativeCache(false, Duration.ofMinutes(1), 100);
+        disabled.find(NegativeCache.GENRES, "Poetry", Optional::empty);
+
+        assertEquals(Optional.of("Poetry"), disabled.find(NegativeCache.GENRES, "Poetry", () -> Optional.of("Poetry")));
+    }
+
+    @Test
+    @DisplayName("Should count hits and loads per region")
+    void shouldReportStats() {
+        findAuthor("42", Optional.empty());
+        findAuthor("42", Optional.empty());
+        findAuthor("42", Optional.empty());
+
+        NegativeCache.Stats authors = negativeCache.stats().stream()
+                .filter(region -> region.region().equals(NegativeCache.AUTHORS))
+                .findFirst().orElseThrow();
+        assertEquals(2, authors.hits());
+        assertEquals(1, authors.loads());
+        assertEquals(1, authors.size());
+        assertEquals(2.0 / 3, authors.hitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown regions")
+    void shouldRejectUnknownRegion() {
+        assertThrows(IllegalArgumentException.class, () -> negativeCache.invalidateAll("publishers"));
+    }
+}
@@ -0,0 +1,151 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.configuration.SecondLevelCacheConfig;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the Hibernate second-level cache of books, authors
+ * and genres.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Second-Level Cache Integration Tests")
+class SecondLevelCacheIntegrationTest {
+
+    private static final String ISBN = "9780321125217";
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Long authorNumber;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        authorNumber = transactionTemplate.execute(status -> {
+            Genre genre = genreRepository.findByString("Cached")
+                    .orElseGet(() -> genreRepository.save(new Genre("Cached")));
+            Author author = authorRepository.save(new Author("Eric Evans", "Bio", null));
+            bookRepository.save(new Book(ISBN, "Domain-Driven Design", "A book", genre, List.of(author), null));
+            return author.getAuthorNumber();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.deleteAll(bookRepository.findByIsbnIn(List.of(ISBN)));
+            authorRepository.findByAuthorNumber(authorNumber).ifPresent(authorRepository::delete);
+        });
+    }
+
+    /**
+     * Loads the book, its genre and its authors in a transaction of its own.
+     *
+     * @return The number of statements executed
+     */
+    private long loadBook() {
+        long statements = statistics.getPrepareStatementCount();
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findByIsbn(ISBN).orElseThrow();
+            book.getGenre().getGenre();
+            book.getAuthors().forEach(author -> author.getName());
+        });
+        return statistics.getPrepareStatementCount() - statements;
+    }
+
+    @Test
+    @DisplayName("Should load a book by ISBN without touching the database once cached")
+    void shouldServeBookFromCache() {
+        loadBook();
+
+        assertEquals(0, loadBook());
+    }
+
+    @Test
+    @DisplayName("Should reload an evicted book and its authors")
+    void shouldReloadEvictedBook() {
+        loadBook();
+
+        secondLevelCache.bookChanged(ISBN);
+
+        assertTrue(loadBook() > 0);
+        assertEquals(0, loadBook());
+    }
+
+    @Test
+    @DisplayName("Should reload an evicted author")
+    void shouldReloadEvictedAuthor() {
+        loadBook();
+
+        secondLevelCache.authorChanged(authorNumber);
+
+        assertTrue(loadBook() > 0);
+    }
+
+    @Test
+    @DisplayName("Should resolve nothing for a deleted book")
+    void shouldForgetDeletedBook() {
+        loadBook();
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.deleteAll(bookRepository.findByIsbnIn(List.of(ISBN))));
+
+        secondLevelCache.bookDeleted();
+
+        assertTrue(bookRepository.findByIsbn(ISBN).isEmpty());
+        assertTrue(bookRepository.findByIsbn("not-an-isbn").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report hits and size per region")
+    void shouldReportRegionStats() {
+        loadBook();
+        loadBook();
+
+        List<SecondLevelCache.RegionStats> stats = secondLevelCache.stats();
+
+        SecondLevelCache.RegionStats books = stats.stream()
+                .filter(region -> region.region().equals(SecondLevelCacheConfig.BOOK_REGION))
+                .findFirst().orElseThrow();
+        assertEquals(5, stats.size());
+        assertTrue(books.hits() > 0);
+        assertTrue(books.hitRatio() > 0);
+        assertTrue(books.sizeInBytes() > 0);
+    }
+}
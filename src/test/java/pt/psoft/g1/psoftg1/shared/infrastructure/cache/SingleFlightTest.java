@@ -0,0 +1,139 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight.
+ */
+@DisplayName("Single Flight Unit Tests")
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a call that blocks until the latch opens.
+     */
+    private Future<String> startBlockedCall(String key, CountDownLatch release) {
+        return executor.submit(() -> singleFlight.execute(key, () -> {
+            executions.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "value of " + key;
+        }));
+    }
+
+    private void awaitShared(long count) throws InterruptedException {
+        for (int i = 0; i < 100 && singleFlight.shared() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Should share one execution between concurrent callers of a key")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            calls.add(startBlockedCall("isbn", release));
+        }
+        awaitShared(5);
+        release.countDown();
+
+        for (Future<String> call : calls) {
+            assertEquals("value of isbn", call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, singleFlight.executions());
+        assertEquals(5, singleFlight.shared());
+    }
+
+    @Test
+    @DisplayName("Should not share executions between different keys")
+    void shouldNotCoalesceDifferentKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = startBlockedCall("a", release);
+        Future<String> second = startBlockedCall("b", release);
+        release.countDown();
+
+        assertEquals("value of a", first.get(5, TimeUnit.SECONDS));
+        assertEquals("value of b", second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should run again once the previous execution completed")
+    void shouldNotCacheResults() {
+        singleFlight.execute("isbn", () -> "first");
+
+        assertEquals("second", singleFlight.execute("isbn", () -> "second"));
+        assertEquals(0, singleFlight.shared());
+    }
+
+    @Test
+    @DisplayName("Should propagate the exception of the execution to every caller")
+    void shouldShareFailures() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("isbn", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("not found");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.execute("isbn", () -> "unexpected"));
+        awaitShared(1);
+        release.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class,
+                () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+    }
+
+    @Test
+    @DisplayName("Should start a new execution for callers arriving after forget")
+    void shouldStartNewExecutionAfterForget() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stale = startBlockedCall("isbn", release);
+        for (int i = 0; i < 100 && executions.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        singleFlight.forget("isbn");
+
+        assertEquals("fresh", singleFlight.execute("isbn", () -> "fresh"));
+        release.countDown();
+        assertEquals("value of isbn", stale.get(5, TimeUnit.SECONDS));
+        assertEquals(0, singleFlight.shared());
+    }
+}
@@ -0,0 +1,178 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorView;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookView;
+import pt.psoft.g1.psoftg1.configuration.ViewCacheConfig;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the Redis backed view caches, against an embedded
+ * Redis server. The context has a database of its own, as closing it drops
+ * the schema.
+ */
+@SpringBootTest(properties = { "cache.views.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:viewcachedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE" })
+@ActiveProfiles("test")
+@DirtiesContext
+@DisplayName("Two-Tier View Cache Integration Tests")
+class TwoTierViewCacheIntegrationTest {
+
+    private static RedisServer redisServer;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        registry.add("spring.data.redis.port", () -> port);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Autowired
+    private TwoTierViewCache<BookView> bookViewCache;
+
+    @Autowired
+    private TwoTierViewCache<AuthorView> authorViewCache;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        loads.set(0);
+    }
+
+    private VersionedView<BookView> load(String isbn, long version, String title) {
+        loads.incrementAndGet();
+        BookView view = new BookView();
+        view.setIsbn(isbn);
+        view.setTitle(title);
+        return new VersionedView<>(version, view);
+    }
+
+    @Test
+    @DisplayName("Should load once and then serve from the near-cache")
+    void shouldServeFromNearCache() {
+        long nearHits = bookViewCache.stats().nearHits();
+
+        bookViewCache.get("9780134685991", () -> load("9780134685991", 2, "Effective Java"));
+        VersionedView<BookView> cached = bookViewCache.get("9780134685991",
+                () -> load("9780134685991", 2, "Effective Java"));
+
+        assertEquals(1, loads.get());
+        assertEquals(2L, cached.version());
+        assertEquals("Effective Java", cached.view().getTitle());
+        assertEquals(nearHits + 1, bookViewCache.stats().nearHits());
+    }
+
+    @Test
+    @DisplayName("Should serve an instance with a cold near-cache from Redis")
+    void shouldServeFromRedis() {
+        bookViewCache.get("9780132350884", () -> load("9780132350884", 1, "Clean Code"));
+        bookViewCache.evictLocal("9780132350884");
+        long remoteHits = bookViewCache.stats().remoteHits();
+
+        VersionedView<BookView> cached = bookViewCache.get("9780132350884",
+                () -> load("9780132350884", 1, "Clean Code"));
+
+        assertEquals(1, loads.get());
+        assertEquals("Clean Code", cached.view().getTitle());
+        assertEquals(remoteHits + 1, bookViewCache.stats().remoteHits());
+    }
+
+    @Test
+    @DisplayName("Should evict the near-cache of this instance when another instance evicts")
+    void shouldEvictAcrossInstances() throws InterruptedException {
+        bookViewCache.get("9780201633610", () -> load("9780201633610", 1, "Design Patterns"));
+        TwoTierViewCache<BookView> otherInstance = new TwoTierViewCache<>(ViewCacheConfig.BOOK_VIEWS,
+                BookView.class, new NearCache<>(10, 60_000), redisTemplate, objectMapper, Duration.ofMinutes(1),
+                ViewCacheConfig.INVALIDATION_CHANNEL, "other-instance", Duration.ofSeconds(30));
+
+        long evictions = bookViewCache.stats().evictions();
+        otherInstance.evict("9780201633610");
+        for (int i = 0; i < 50 && bookViewCache.stats().evictions() == evictions; i++) {
+            Thread.sleep(50);
+        }
+
+        VersionedView<BookView> reloaded = bookViewCache.get("9780201633610",
+                () -> load("9780201633610", 2, "Design Patterns, 2nd"));
+        assertEquals(2, loads.get());
+        assertEquals(2L, reloaded.version());
+    }
+
+    @Test
+    @DisplayName("Should evict an author view when the author is updated")
+    void shouldEvictOnAuthorUpdate() {
+        Author author = authorRepository.save(new Author("Cached Author", "Bio", null));
+        String key = String.valueOf(author.getAuthorNumber());
+        authorViewCache.get(key, () -> new VersionedView<>(author.getVersion(), new AuthorView()));
+        assertNotNull(redisTemplate.opsForValue().get("lms-books:views:authors:" + key));
+
+        transactionTemplate.executeWithoutResult(status -> authorRepository
+                .findByAuthorNumber(author.getAuthorNumber()).orElseThrow().setName("Renamed Author"));
+
+        assertNull(redisTemplate.opsForValue().get("lms-books:views:authors:" + key));
+        AtomicInteger authorLoads = new AtomicInteger();
+        authorViewCache.get(key, () -> {
+            authorLoads.incrementAndGet();
+            return new VersionedView<>(author.getVersion() + 1, new AuthorView());
+        });
+        assertEquals(1, authorLoads.get());
+        transactionTemplate.executeWithoutResult(status -> authorRepository
+                .delete(authorRepository.findByAuthorNumber(author.getAuthorNumber()).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should propagate loader failures without caching anything")
+    void shouldNotCacheFailures() {
+        assertThrows(IllegalStateException.class, () -> bookViewCache.get("9780596009205", () -> {
+            throw new IllegalStateException("not found");
+        }));
+
+        bookViewCache.get("9780596009205", () -> load("9780596009205", 0, "Head First Java"));
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,136 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PayloadCodecRegistry and PayloadCodecMessageConverter.
+ */
+@DisplayName("Payload Codec Unit Tests")
+class PayloadCodecRegistryTest {
+
+    private static final BookViewAMQP BOOK = new BookViewAMQP(
+            "9780134685991", "Effective Java", "x".repeat(2000), "Programming", 3L);
+
+    private static PayloadCodecRegistry registry(String format, int compressionThreshold) {
+        return new PayloadCodecRegistry(new ObjectMapper(), format, compressionThreshold);
+    }
+
+    private static void assertSameBook(Object decoded) {
+        BookViewAMQP book = assertInstanceOf(BookViewAMQP.class, decoded);
+        assertEquals(BOOK.getIsbn(), book.getIsbn());
+        assertEquals(BOOK.getTitle(), book.getTitle());
+        assertEquals(BOOK.getDescription(), book.getDescription());
+        assertEquals(BOOK.getGenre(), book.getGenre());
+        assertEquals(BOOK.getVersion(), book.getVersion());
+    }
+
+    @Nested
+    @DisplayName("Registry Tests")
+    class RegistryTests {
+
+        @Test
+        @DisplayName("Should encode plain UTF-8 JSON by default")
+        void shouldEncodePlainJsonByDefault() throws Exception {
+            EncodedPayload payload = registry("json", 0).encode(BOOK);
+
+            assertEquals(PayloadCodecRegistry.JSON, payload.contentType());
+            assertEquals("UTF-8", payload.contentEncoding());
+            assertFalse(payload.isCompressed());
+            assertTrue(new String(payload.body(), StandardCharsets.UTF_8).contains("\"isbn\":\"9780134685991\""));
+        }
+
+        @Test
+        @DisplayName("Should round-trip CBOR and Smile payloads")
+        void shouldRoundTripBinaryPayloads() throws Exception {
+            for (String format : new String[] { "cbor", "smile" }) {
+                PayloadCodecRegistry registry = registry(format, 0);
+                EncodedPayload payload = registry.encode(BOOK);
+
+                assertNull(payload.contentEncoding());
+                assertSameBook(registry.decode(payload.body(), payload.contentType(), null, BookViewAMQP.class));
+            }
+        }
+
+        @Test
+        @DisplayName("Should gzip payloads that reach the compression threshold")
+        void shouldCompressLargePayloads() throws Exception {
+            PayloadCodecRegistry registry = registry("cbor", 512);
+            EncodedPayload payload = registry.encode(BOOK);
+
+            assertTrue(payload.isCompressed());
+            assertTrue(payload.body().length < registry("cbor", 0).encode(BOOK).body().length);
+            assertSameBook(registry.decode(payload.body(), payload.contentType(), payload.contentEncoding(),
+                    BookViewAMQP.class));
+        }
+
+        @Test
+        @DisplayName("Should decode payloads written by another instance's codec")
+        void shouldDecodeAnyRegisteredFormat() throws Exception {
+            EncodedPayload smile = registry("smile", 0).encode(BOOK);
+
+            assertSameBook(registry("json", 0).decode(smile.body(), smile.contentType(), null, BookViewAMQP.class));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown formats and content types")
+        void shouldRejectUnknownFormats() {
+            assertThrows(IllegalArgumentException.class, () -> registry("xml", 0));
+            assertThrows(IllegalArgumentException.class, () -> registry("json", 0).forContentType("text/xml"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Message Converter Tests")
+    class MessageConverterTests {
+
+        @Test
+        @DisplayName("Should keep JSON messages compatible with Jackson2JsonMessageConverter")
+        void shouldWriteJsonMessages() throws Exception {
+            PayloadCodecRegistry registry = registry("json", 0);
+            Message message = new PayloadCodecMessageConverter(registry).toMessage(BOOK, new MessageProperties());
+
+            assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+            assertEquals("UTF-8", message.getMessageProperties().getContentEncoding());
+            assertEquals(BookViewAMQP.class.getName(), message.getMessageProperties().getHeader("__TypeId__"));
+            assertArrayEquals(registry.encode(BOOK).body(), message.getBody());
+            assertSameBook(new Jackson2JsonMessageConverter().fromMessage(message));
+        }
+
+        @Test
+        @DisplayName("Should not build types outside the application named by __TypeId__")
+        void shouldRejectUntrustedTypeIds() {
+            for (String format : new String[] { "json", "cbor" }) {
+                Message message = new PayloadCodecMessageConverter(registry(format, 0))
+                        .toMessage(BOOK, new MessageProperties());
+                message.getMessageProperties().setHeader("__TypeId__", "javax.management.ObjectName");
+
+                assertThrows(IllegalArgumentException.class,
+                        () -> new PayloadCodecMessageConverter(registry("json", 0)).fromMessage(message));
+            }
+        }
+
+        @Test
+        @DisplayName("Should round-trip compressed binary messages")
+        void shouldRoundTripCompressedBinaryMessages() {
+            Message message = new PayloadCodecMessageConverter(registry("smile", 256))
+                    .toMessage(BOOK, new MessageProperties());
+
+            assertEquals(PayloadCodecRegistry.SMILE, message.getMessageProperties().getContentType());
+            assertEquals(PayloadCodecRegistry.GZIP_ENCODING, message.getMessageProperties().getContentEncoding());
+
+            // A JSON-configured consumer still negotiates the format from the headers
+            assertSameBook(new PayloadCodecMessageConverter(registry("json", 0)).fromMessage(message));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.latency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyHistogram and EventLatencyTracker.
+ */
+@DisplayName("Latency Histogram Unit Tests")
+class LatencyHistogramTest {
+
+    @Nested
+    @DisplayName("Histogram Tests")
+    class HistogramTests {
+
+        @Test
+        @DisplayName("Should report percentiles within the bucket precision")
+        void shouldReportPercentilesWithinPrecision() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (long millis = 1; millis <= 10_000; millis++) {
+                histogram.record(millis);
+            }
+
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            assertEquals(10_000, snapshot.count());
+            assertEquals(5000.5, snapshot.mean(), 0.001);
+            assertEquals(10_000, snapshot.max());
+            assertEquals(5000, snapshot.p50(), 5000 * 0.04);
+            assertEquals(9900, snapshot.p99(), 9900 * 0.04);
+            assertTrue(snapshot.p99() >= 9900);
+        }
+
+        @Test
+        @DisplayName("Should keep small values exact")
+        void shouldKeepSmallValuesExact() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(3);
+            histogram.record(7);
+
+            assertEquals(3, histogram.valueAtQuantile(0.5));
+            assertEquals(7, histogram.valueAtQuantile(1.0));
+        }
+
+        @Test
+        @DisplayName("Should map every bucket's upper bound back to the same bucket")
+        void shouldHaveConsistentBucketBounds() {
+            for (long value : new long[] { 0, 31, 32, 33, 63, 64, 65, 1000, 123_456, Integer.MAX_VALUE }) {
+                int bucket = LatencyHistogram.bucketOf(value);
+                long upper = LatencyHistogram.upperBoundOf(bucket);
+                assertTrue(upper >= value);
+                assertEquals(bucket, LatencyHistogram.bucketOf(upper));
+            }
+        }
+
+        @Test
+        @DisplayName("Should clamp negative values caused by clock skew to zero")
+        void shouldClampNegativeValues() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(-15);
+
+            assertEquals(0, histogram.snapshot().max());
+            assertEquals(1, histogram.getCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tracker Tests")
+    class TrackerTests {
+
+        @Test
+        @DisplayName("Should only record hops whose timestamps are both known")
+        void shouldOnlyRecordCompleteHops() {
+            EventLatencyTracker tracker = new EventLatencyTracker();
+            tracker.record(EventLatencyTracker.HOP_BROKER, 1_000L, 1_250L);
+            tracker.record(EventLatencyTracker.HOP_OUTBOX_POLL, null, 1_250L);
+
+            assertEquals(1, tracker.snapshot().size());
+            assertEquals(250, tracker.snapshot().get(EventLatencyTracker.HOP_BROKER).max());
+        }
+
+        @Test
+        @DisplayName("Should read timestamps delivered as numbers or strings")
+        void shouldReadTimestampHeaders() {
+            assertEquals(42L, EventLatencyTracker.timestamp(42));
+            assertEquals(42L, EventLatencyTracker.timestamp("42"));
+            assertNull(EventLatencyTracker.timestamp("n/a"));
+            assertNull(EventLatencyTracker.timestamp(null));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.merkle;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MerkleDigestTree.
+ */
+@DisplayName("Merkle Digest Tree Unit Tests")
+class MerkleDigestTreeTest {
+
+    private static void add(MerkleDigestTree tree, String key, long version) {
+        tree.update(key, 0, MerkleDigestTree.digest(key, version));
+    }
+
+    @Test
+    @DisplayName("Should give the same root for the same items in any order")
+    void shouldBeOrderIndependent() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            keys.add("978" + i);
+        }
+        MerkleDigestTree forward = new MerkleDigestTree(10);
+        MerkleDigestTree backward = new MerkleDigestTree(10);
+        keys.forEach(key -> add(forward, key, 1));
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            add(backward, keys.get(i), 1);
+        }
+
+        assertNotEquals(0, forward.root());
+        assertEquals(forward.root(), backward.root());
+        assertArrayEquals(forward.level(8), backward.level(8));
+    }
+
+    @Test
+    @DisplayName("Should return to the empty tree when all items are removed")
+    void shouldUndoUpdates() {
+        MerkleDigestTree tree = new MerkleDigestTree(6);
+        add(tree, "9780134685991", 3);
+        add(tree, "9780132350884", 1);
+        tree.update("9780134685991", MerkleDigestTree.digest("9780134685991", 3), 0);
+        tree.update("9780132350884", MerkleDigestTree.digest("9780132350884", 1), 0);
+
+        assertEquals(0, tree.root());
+        assertArrayEquals(new long[64], tree.level(6));
+    }
+
+    @Test
+    @DisplayName("Should only differ under the leaf of a changed version")
+    void shouldLocateDifferences() {
+        MerkleDigestTree local = new MerkleDigestTree(10);
+        MerkleDigestTree remote = new MerkleDigestTree(10);
+        for (int i = 0; i < 200; i++) {
+            add(local, "isbn-" + i, 1);
+            add(remote, "isbn-" + i, 1);
+        }
+        String changed = "isbn-42";
+        remote.update(changed, MerkleDigestTree.digest(changed, 1), MerkleDigestTree.digest(changed, 2));
+
+        assertNotEquals(local.root(), remote.root());
+        long[] localLevel = local.level(8);
+        long[] remoteLevel = remote.level(8);
+        int expectedNode = local.leafOf(changed) >> 2;
+        for (int node = 0; node < localLevel.length; node++) {
+            assertEquals(node != expectedNode, localLevel[node] == remoteLevel[node], "node " + node);
+        }
+        assertTrue(local.firstLeafOf(8, expectedNode) <= local.leafOf(changed));
+        assertTrue(local.endLeafOf(8, expectedNode) > local.leafOf(changed));
+    }
+
+    @Test
+    @DisplayName("Should tell versions of the same key apart")
+    void shouldDigestVersions() {
+        assertNotEquals(MerkleDigestTree.digest("9780134685991", 1), MerkleDigestTree.digest("9780134685991", 2));
+        assertNotEquals(0, MerkleDigestTree.digest("9780134685991", 0));
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported heights and depths")
+    void shouldValidateShape() {
+        assertThrows(IllegalArgumentException.class, () -> new MerkleDigestTree(0));
+        assertThrows(IllegalArgumentException.class, () -> new MerkleDigestTree(4).level(5));
+    }
+}
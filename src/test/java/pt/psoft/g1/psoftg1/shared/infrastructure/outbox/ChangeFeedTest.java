@@ -0,0 +1,139 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pt.psoft.g1.psoftg1.shared.infrastructure.codec.PayloadCodecRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChangeFeed, with the delivery tasks run by hand.
+ */
+@DisplayName("Change Feed Unit Tests")
+class ChangeFeedTest {
+
+    private final OutboxEventRepository outboxRepository = mock(OutboxEventRepository.class);
+    private final PayloadCodecRegistry codecRegistry = new PayloadCodecRegistry(new ObjectMapper(), "json", 0);
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final ChangeFeed changeFeed = new ChangeFeed(outboxRepository, codecRegistry, tasks::add, 2, 3);
+
+    private final List<Long> received = new ArrayList<>();
+    private boolean closed;
+    private final ChangeFeed.ChangeSink sink = new ChangeFeed.ChangeSink() {
+        @Override
+        public void send(ChangeFeed.Change change) {
+            received.add(change.offset());
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        when(outboxRepository.findHighWatermark()).thenReturn(3L);
+        when(outboxRepository.findAfter(anyLong(), anyInt())).thenReturn(List.of());
+    }
+
+    private OutboxEvent event(long id) throws IOException {
+        OutboxEvent event = new OutboxEvent("Book", "978000000000" + id, "BookCreatedEvent",
+                codecRegistry.encode(Map.of("title", "Book " + id)), "LMS.events", "book.created");
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay the events after the offset in pages, then push new ones")
+    void shouldReplayThenPush() throws IOException {
+        when(outboxRepository.findAfter(1L, 2)).thenReturn(List.of(event(2), event(3)));
+
+        changeFeed.subscribe(1L, sink);
+        runTasks();
+        changeFeed.committed(event(4));
+        runTasks();
+
+        assertEquals(List.of(2L, 3L, 4L), received);
+        verify(outboxRepository).findAfter(3L, 2);
+    }
+
+    @Test
+    @DisplayName("Should only push new events without an offset")
+    void shouldOnlyPushNewEventsWithoutOffset() throws IOException {
+        changeFeed.subscribe(null, sink);
+        runTasks();
+        changeFeed.committed(event(4));
+        runTasks();
+
+        assertEquals(List.of(4L), received);
+        verify(outboxRepository).findAfter(eq(3L), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should not send twice an event committed while catching up")
+    void shouldNotSendTwiceEventCommittedWhileReplaying() throws IOException {
+        OutboxEvent committedMeanwhile = event(4);
+        when(outboxRepository.findAfter(3L, 2)).thenAnswer(invocation -> {
+            changeFeed.committed(committedMeanwhile);
+            return List.of(committedMeanwhile);
+        });
+
+        changeFeed.subscribe(null, sink);
+        runTasks();
+
+        assertEquals(List.of(4L), received);
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber that falls too far behind")
+    void shouldDropSlowSubscriber() throws IOException {
+        changeFeed.subscribe(null, sink);
+        for (long id = 4; id <= 7; id++) {
+            changeFeed.committed(event(id));
+        }
+
+        assertTrue(closed);
+        assertEquals(0, changeFeed.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber that is gone")
+    void shouldDropGoneSubscriber() throws IOException {
+        changeFeed.subscribe(null, new ChangeFeed.ChangeSink() {
+            @Override
+            public void send(ChangeFeed.Change change) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        });
+        runTasks();
+        changeFeed.committed(event(4));
+        runTasks();
+
+        assertTrue(closed);
+        assertEquals(0, changeFeed.getSubscriberCount());
+    }
+}
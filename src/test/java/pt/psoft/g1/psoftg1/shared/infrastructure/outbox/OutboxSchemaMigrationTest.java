@@ -0,0 +1,63 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OutboxSchemaMigration, on an outbox table as created before
+ * payload codecs and then updated by Hibernate.
+ */
+@DisplayName("Outbox Schema Migration Unit Tests")
+class OutboxSchemaMigrationTest {
+
+    private final DriverManagerDataSource h2 = new DriverManagerDataSource(
+            "jdbc:h2:mem:outbox-migration;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbc = new JdbcTemplate(h2);
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE IF EXISTS outbox_events");
+    }
+
+    private void createLegacyTable() {
+        jdbc.execute("CREATE TABLE outbox_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "payload TEXT NOT NULL, payload_data VARBINARY(1048576), content_type VARCHAR(100), "
+                + "content_encoding VARCHAR(50))");
+    }
+
+    @Test
+    @DisplayName("Should move legacy payloads to payload_data and drop the old column")
+    void shouldMigrateLegacyPayloads() {
+        createLegacyTable();
+        jdbc.update("INSERT INTO outbox_events (payload) VALUES ('{\"isbn\":\"9780134685991\"}')");
+
+        new OutboxSchemaMigration(h2).migrate();
+
+        Map<String, Object> row = jdbc.queryForMap("SELECT * FROM outbox_events");
+        assertFalse(row.containsKey("PAYLOAD"));
+        assertEquals("{\"isbn\":\"9780134685991\"}",
+                new String((byte[]) row.get("PAYLOAD_DATA"), StandardCharsets.UTF_8));
+        assertEquals("application/json", row.get("CONTENT_TYPE"));
+        assertEquals("UTF-8", row.get("CONTENT_ENCODING"));
+        // New events no longer need the old column
+        jdbc.update("INSERT INTO outbox_events (payload_data, content_type) VALUES (X'7B7D', 'application/json')");
+    }
+
+    @Test
+    @DisplayName("Should leave an up to date table alone")
+    void shouldSkipCurrentSchema() {
+        jdbc.execute("CREATE TABLE outbox_events (id BIGINT PRIMARY KEY, payload_data VARBINARY(100))");
+
+        new OutboxSchemaMigration(h2).migrate();
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class));
+    }
+}
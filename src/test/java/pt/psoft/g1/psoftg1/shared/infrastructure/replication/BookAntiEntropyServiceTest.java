@@ -0,0 +1,77 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewAMQP;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewMapper;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BookAntiEntropyService repairs.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookAntiEntropyService Unit Tests")
+class BookAntiEntropyServiceTest {
+
+    private static final String ISBN = "9780134685991";
+    private static final int DEPTH = 2;
+
+    @Mock
+    private BookDigestService digestService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private BookViewMapper bookViewMapper;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private BookAntiEntropyService antiEntropyService;
+
+    @BeforeEach
+    void setUp() {
+        antiEntropyService = new BookAntiEntropyService(digestService, bookRepository, tombstoneRepository,
+                bookViewMapper, rabbitTemplate);
+        ReflectionTestUtils.setField(antiEntropyService, "instanceId", "local");
+        when(digestService.getTreeHeight()).thenReturn(10);
+        when(digestService.level(DEPTH)).thenReturn(new long[1 << DEPTH]);
+    }
+
+    @Test
+    @DisplayName("Should push a missed delete as a delete instead of re-creating the book")
+    void shouldPushTombstonesAsDeletes() {
+        when(digestService.isbnsUnder(DEPTH, 0)).thenReturn(List.of(ISBN));
+        when(bookRepository.findByIsbnIn(List.of(ISBN))).thenReturn(List.of());
+        when(tombstoneRepository.findAllById(List.of(ISBN))).thenReturn(List.of(new BookTombstone(ISBN, 4L)));
+        BookDigestView peerDigest = new BookDigestView("peer", 10, DEPTH, new long[] { 1L, 0L, 0L, 0L });
+
+        antiEntropyService.handleDigest(peerDigest);
+        verifyNoInteractions(rabbitTemplate);
+        antiEntropyService.handleDigest(peerDigest);
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitmqConfig.BOOK_SYNC_EXCHANGE), eq(BookEvents.BOOK_DELETED),
+                argThat((BookViewAMQP view) -> ISBN.equals(view.getIsbn()) && view.getVersion() == 4L),
+                any(MessagePostProcessor.class));
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), eq(BookEvents.BOOK_UPDATED), any(Object.class),
+                any(MessagePostProcessor.class));
+    }
+}
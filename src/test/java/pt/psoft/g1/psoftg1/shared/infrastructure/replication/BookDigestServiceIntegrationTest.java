@@ -0,0 +1,141 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for BookDigestService and BookDigestEntityListener.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Book Digest Integration Tests")
+class BookDigestServiceIntegrationTest {
+
+    private static final String ISBN = "9781617294945";
+
+    @Autowired
+    private BookDigestService digestService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private BookTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.deleteAll(bookRepository.findByIsbnIn(List.of(ISBN))));
+        tombstoneRepository.deleteAll();
+    }
+
+    private void saveBook() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = genreRepository.findByString("Digest")
+                    .orElseGet(() -> genreRepository.save(new Genre("Digest")));
+            bookRepository.save(Book.replicaOf(ISBN, "Digest Book", "A book", genre));
+        });
+    }
+
+    @Test
+    @DisplayName("Should follow book writes and match a rebuild from the database")
+    void shouldTrackWrites() {
+        long emptyRoot = digestService.root();
+        int books = digestService.size();
+
+        saveBook();
+        long savedRoot = digestService.root();
+        assertNotEquals(emptyRoot, savedRoot);
+        assertEquals(books + 1, digestService.size());
+
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.updateIfNewer(ISBN, "Digest Book", "A book",
+                        genreRepository.findByString("Digest").orElseThrow(), 7L));
+        digestService.bookSaved(ISBN, 7L);
+        long updatedRoot = digestService.root();
+        assertNotEquals(savedRoot, updatedRoot);
+
+        digestService.rebuild();
+        assertEquals(updatedRoot, digestService.root());
+
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.deleteAll(bookRepository.findByIsbnIn(List.of(ISBN))));
+        assertEquals(emptyRoot, digestService.root());
+        assertEquals(books, digestService.size());
+    }
+
+    @Test
+    @DisplayName("Should follow tombstones apart from books and match a rebuild from the database")
+    void shouldTrackTombstones() {
+        long emptyRoot = digestService.root();
+        int books = digestService.size();
+        saveBook();
+        long savedRoot = digestService.root();
+
+        // Deleting the book and writing its tombstone, flushed in either order
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.deleteAll(bookRepository.findByIsbnIn(List.of(ISBN)));
+            tombstoneRepository.save(new BookTombstone(ISBN, 0L));
+        });
+        long deletedRoot = digestService.root();
+        assertNotEquals(emptyRoot, deletedRoot);
+        assertNotEquals(savedRoot, deletedRoot);
+        assertEquals(books, digestService.size());
+
+        digestService.rebuild();
+        assertEquals(deletedRoot, digestService.root());
+
+        tombstoneRepository.deleteAll();
+        assertEquals(emptyRoot, digestService.root());
+    }
+
+    @Test
+    @DisplayName("Should list the books under a node of a level")
+    void shouldListIsbnsUnderNode() {
+        saveBook();
+
+        int depth = 4;
+        int node = -1;
+        for (int index = 0; index < 1 << depth; index++) {
+            if (digestService.isbnsUnder(depth, index).contains(ISBN)) {
+                assertEquals(-1, node);
+                node = index;
+            }
+        }
+        assertNotEquals(-1, node);
+    }
+
+    @Test
+    @DisplayName("Should ignore changes rolled back")
+    void shouldIgnoreRollback() {
+        long root = digestService.root();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = genreRepository.findByString("Digest")
+                    .orElseGet(() -> genreRepository.save(new Genre("Digest")));
+            bookRepository.save(Book.replicaOf(ISBN, "Digest Book", "A book", genre));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(root, digestService.root());
+    }
+}
@@ -0,0 +1,153 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.replication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.infrastructure.idempotency.ProcessedEventStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for CatalogSnapshotWriter and CatalogSnapshotLoader.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Catalog Snapshot Integration Tests")
+class CatalogSnapshotIntegrationTest {
+
+    private static final String ISBN = "9789720706386";
+    private static final String LOADED_ISBN = "9780306406157";
+
+    @Autowired
+    private CatalogSnapshotWriter snapshotWriter;
+
+    @Autowired
+    private CatalogSnapshotLoader snapshotLoader;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    private Long authorNumber;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = genreRepository.findByString("Snapshot")
+                    .orElseGet(() -> genreRepository.save(new Genre("Snapshot")));
+            Author author = authorRepository.save(new Author("Snapshot Author", "Writes snapshots", null));
+            authorNumber = author.getAuthorNumber();
+            bookRepository.save(Book.replicaOf(ISBN, "Snapshot Book", "A book", genre, List.of(author), null));
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.updateIfNewer(ISBN, "Snapshot Book", "A book",
+                        genreRepository.findByString("Snapshot").orElseThrow(), 3L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Book> books = bookRepository.findByIsbnIn(List.of(ISBN, LOADED_ISBN));
+            List<Author> authors = books.stream().flatMap(book -> book.getAuthors().stream()).toList();
+            bookRepository.deleteAll(books);
+            authors.forEach(authorRepository::delete);
+        });
+    }
+
+    private byte[] writeSnapshot() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshotWriter.write(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Should write books with their authors, version and the outbox watermark")
+    void shouldWriteSnapshot() throws Exception {
+        JsonNode snapshot = objectMapper.readTree(writeSnapshot());
+
+        assertTrue(snapshot.has("outboxHighWatermark"));
+        assertTrue(snapshot.get("genres").toString().contains("\"Snapshot\""));
+        JsonNode book = null;
+        for (JsonNode node : snapshot.get("books")) {
+            if (ISBN.equals(node.get("isbn").asText())) {
+                book = node;
+            }
+        }
+        assertNotNull(book);
+        assertEquals(3, book.get("version").asLong());
+        assertEquals(authorNumber, book.get("authorNumbers").get(0).asLong());
+    }
+
+    @Test
+    @DisplayName("Should load a snapshot keeping versions and author links, and seed the producer watermark")
+    void shouldLoadSnapshot() throws Exception {
+        String snapshot = """
+                { "producerId": "peer-1", "outboxHighWatermark": 500000,
+                  "genres": [ "Snapshot" ],
+                  "authors": [ { "authorNumber": 77, "name": "Loaded Author", "bio": "Bio", "version": 2 } ],
+                  "books": [ { "isbn": "%s", "title": "Loaded Book", "description": null, "genre": "Snapshot",
+                               "version": 5, "authorNumbers": [ 77 ] } ] }
+                """.formatted(LOADED_ISBN);
+
+        CatalogSnapshotLoader.Result result = snapshotLoader
+                .load(new ByteArrayInputStream(snapshot.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new CatalogSnapshotLoader.Result("peer-1", 500000, 1, 1, 1), result);
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findByIsbn(LOADED_ISBN).orElseThrow();
+            assertEquals(5L, book.getVersion());
+            assertEquals("Loaded Book", book.getTitle().toString());
+            assertEquals("Loaded Author", book.getAuthors().get(0).getName());
+        });
+        // Events long before the snapshot are dropped on any shard, later ones applied
+        assertTrue(processedEventStore.isDuplicate("peer-1", "books.sync.0", "1"));
+        assertFalse(processedEventStore.isDuplicate("peer-1", "books.sync.0", "500001"));
+    }
+
+    @Test
+    @DisplayName("Should read back what the writer produces")
+    void shouldRoundTrip() throws Exception {
+        JsonNode snapshot = objectMapper.readTree(writeSnapshot());
+        for (JsonNode book : snapshot.get("books")) {
+            BookSnapshotView view = objectMapper.treeToValue(book, BookSnapshotView.class);
+            if (ISBN.equals(view.isbn())) {
+                assertEquals(3L, view.version());
+                assertEquals(List.of(authorNumber), view.authorNumbers());
+                return;
+            }
+        }
+        fail("Book missing from snapshot");
+    }
+}
@@ -0,0 +1,96 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.retry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DelayedRetryPublisher.
+ */
+@DisplayName("DelayedRetryPublisher Unit Tests")
+class DelayedRetryPublisherTest {
+
+    private static final String SHARD_QUEUE = "spring.gen-shard0";
+
+    private RabbitTemplate rabbitTemplate;
+    private DelayedRetryPublisher retryPublisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        retryPublisher = new DelayedRetryPublisher(rabbitTemplate, "retry", List.of("delay-1s", "delay-10s"), "dlq");
+    }
+
+    private static Message received(int retries) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(SHARD_QUEUE);
+        properties.setReceivedRoutingKey(retries == 0 ? "book.updated" : SHARD_QUEUE);
+        if (retries > 0) {
+            properties.setHeader(DelayedRetryPublisher.RETRY_COUNT_HEADER, retries);
+            properties.setHeader(DelayedRetryPublisher.ORIGINAL_ROUTING_KEY_HEADER, "book.updated");
+            properties.setHeader("x-death", List.of());
+        }
+        return new Message(new byte[0], properties);
+    }
+
+    @Nested
+    @DisplayName("Retry Tests")
+    class RetryTests {
+
+        @Test
+        @DisplayName("Should send the first retry to the shortest delay queue, returning to the shard queue")
+        void shouldSendFirstRetryToShortestDelay() {
+            Message message = received(0);
+
+            retryPublisher.retry(message);
+
+            verify(rabbitTemplate).send("retry", SHARD_QUEUE, message);
+            MessageProperties properties = message.getMessageProperties();
+            assertEquals("delay-1s", properties.getHeader(DelayedRetryPublisher.RETRY_TARGET_HEADER));
+            assertEquals(1, (Integer) properties.getHeader(DelayedRetryPublisher.RETRY_COUNT_HEADER));
+            assertEquals("book.updated", properties.getHeader(DelayedRetryPublisher.ORIGINAL_ROUTING_KEY_HEADER));
+        }
+
+        @Test
+        @DisplayName("Should move to the next tier and keep the original routing key")
+        void shouldMoveToNextTier() {
+            Message message = received(1);
+
+            retryPublisher.retry(message);
+
+            verify(rabbitTemplate).send("retry", SHARD_QUEUE, message);
+            MessageProperties properties = message.getMessageProperties();
+            assertEquals("delay-10s", properties.getHeader(DelayedRetryPublisher.RETRY_TARGET_HEADER));
+            assertEquals("book.updated", DelayedRetryPublisher.originalRoutingKey(properties));
+            assertFalse(properties.getHeaders().containsKey("x-death"));
+        }
+
+        @Test
+        @DisplayName("Should dead-letter once every tier was tried")
+        void shouldDeadLetterWhenTiersExhausted() {
+            Message message = received(2);
+
+            retryPublisher.retry(message);
+
+            verify(rabbitTemplate).send("", "dlq", message);
+            verify(rabbitTemplate, never()).send(eq("retry"), anyString(), any(Message.class));
+            assertNotNull(message.getMessageProperties().getHeader(DelayedRetryPublisher.DEAD_LETTER_REASON_HEADER));
+        }
+    }
+
+    @Test
+    @DisplayName("Should use the received routing key of a message that was never retried")
+    void shouldUseReceivedRoutingKeyWhenNotRetried() {
+        assertEquals("book.updated", DelayedRetryPublisher.originalRoutingKey(received(0).getMessageProperties()));
+    }
+}
@@ -0,0 +1,211 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource and ReplicationHeartbeat, over
+ * in-memory H2 databases standing for the primary and two replicas, with
+ * replication simulated by writing the heartbeat to the replicas by hand.
+ */
+@DisplayName("Replica Routing DataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private static final long MAX_LAG = 5_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private DataSource primary;
+    private DataSource replica1;
+    private DataSource replica2;
+    private ReplicaRoutingDataSource routing;
+    private ReplicationHeartbeat heartbeat;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("routing-primary");
+        replica1 = h2("routing-replica-1");
+        replica2 = h2("routing-replica-2");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routing = new ReplicaRoutingDataSource(primary, replicas, MAX_LAG, clock::get);
+        heartbeat = new ReplicationHeartbeat(routing, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadConsistency.clear();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        for (DataSource dataSource : new DataSource[] { primary, replica1, replica2 }) {
+            new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS " + ReplicationHeartbeat.TABLE);
+        }
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    /** Replicates the primary's heartbeat to a replica, as of a time. */
+    private void replicate(DataSource replica, long heartbeatAt) {
+        JdbcTemplate jdbc = new JdbcTemplate(replica);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + ReplicationHeartbeat.TABLE
+                + " (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        jdbc.update("MERGE INTO " + ReplicationHeartbeat.TABLE + " (id, beat_at) KEY (id) VALUES (1, ?)",
+                heartbeatAt);
+    }
+
+    private String readFrom() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        return connectedTo();
+    }
+
+    private String connectedTo() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            String name = url.substring("jdbc:h2:mem:".length());
+            return name.contains(";") ? name.substring(0, name.indexOf(';')) : name;
+        }
+    }
+
+    @Nested
+    @DisplayName("Routing")
+    class Routing {
+
+        @Test
+        @DisplayName("Should send read-only transactions to up-to-date replicas in turn")
+        void shouldReadFromReplicas() throws SQLException {
+            replicate(replica1, clock.get());
+            replicate(replica2, clock.get());
+            heartbeat.beat();
+
+            String first = readFrom();
+            String second = readFrom();
+
+            assertNotEquals(first, second);
+            assertTrue(first.startsWith("routing-replica"));
+            assertTrue(second.startsWith("routing-replica"));
+        }
+
+        @Test
+        @DisplayName("Should send other transactions to the primary")
+        void shouldWriteToPrimary() throws SQLException {
+            replicate(replica1, clock.get());
+            heartbeat.beat();
+
+            assertEquals("routing-primary", connectedTo());
+            assertEquals(1, routing.stats().writes());
+        }
+
+        @Test
+        @DisplayName("Should read from the primary while no replica has been checked")
+        void shouldReadFromPrimaryBeforeHeartbeat() throws SQLException {
+            replicate(replica1, clock.get());
+
+            assertEquals("routing-primary", readFrom());
+            assertEquals(1, routing.stats().primaryReads());
+        }
+
+        @Test
+        @DisplayName("Should read from the primary when a write in the same request requires it")
+        void shouldReadFromPrimaryWhenRequired() throws SQLException {
+            replicate(replica1, clock.get());
+            heartbeat.beat();
+            ReadConsistency.requirePrimary();
+
+            assertEquals("routing-primary", readFrom());
+        }
+    }
+
+    @Nested
+    @DisplayName("Replication lag")
+    class ReplicationLag {
+
+        @Test
+        @DisplayName("Should skip replicas lagging more than the max lag")
+        void shouldSkipLaggingReplica() throws SQLException {
+            replicate(replica1, clock.get() - MAX_LAG - 1);
+            replicate(replica2, clock.get());
+            heartbeat.beat();
+
+            assertEquals("routing-replica-2", readFrom());
+            assertEquals("routing-replica-2", readFrom());
+        }
+
+        @Test
+        @DisplayName("Should fall back to the primary once every replica lags")
+        void shouldFallBackWhenAllLag() throws SQLException {
+            replicate(replica1, clock.get());
+            replicate(replica2, clock.get());
+            heartbeat.beat();
+
+            clock.addAndGet(MAX_LAG + 1);
+
+            assertEquals("routing-primary", readFrom());
+            assertFalse(routing.stats().replicas().get(0).eligible());
+        }
+
+        @Test
+        @DisplayName("Should take a replica without heartbeat out of rotation")
+        void shouldSkipReplicaWithoutHeartbeat() throws SQLException {
+            replicate(replica2, clock.get());
+            heartbeat.beat();
+
+            assertEquals("routing-replica-2", readFrom());
+            assertEquals(-1, routing.stats().replicas().get(0).lagMillis());
+        }
+
+        @Test
+        @DisplayName("Should write the heartbeat to the primary")
+        void shouldWriteHeartbeat() {
+            heartbeat.beat();
+            clock.addAndGet(1_000);
+            heartbeat.beat();
+
+            assertEquals(clock.get(), new JdbcTemplate(primary).queryForObject(
+                    "SELECT beat_at FROM " + ReplicationHeartbeat.TABLE + " WHERE id = 1", Long.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Read your writes")
+    class ReadYourWrites {
+
+        @Test
+        @DisplayName("Should only read from replicas that replicated the client's last write")
+        void shouldReadFromReplicaPastToken() throws SQLException {
+            replicate(replica1, clock.get() - 100);
+            replicate(replica2, clock.get());
+            heartbeat.beat();
+            ReadConsistency.requireReplicatedSince(clock.get() - 50);
+
+            assertEquals("routing-replica-2", readFrom());
+            assertEquals("routing-replica-2", readFrom());
+        }
+
+        @Test
+        @DisplayName("Should read from the primary while no replica has the client's last write")
+        void shouldReadFromPrimaryBeforeReplication() throws SQLException {
+            replicate(replica1, clock.get());
+            replicate(replica2, clock.get());
+            heartbeat.beat();
+            ReadConsistency.requireReplicatedSince(clock.get() + 1);
+
+            assertEquals("routing-primary", readFrom());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the routing of read-only transactions to replicas:
+ * replica-1 is the primary database itself (no lag), replica-2 an empty
+ * database that never got the heartbeat.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary-it;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=jdbc:h2:mem:routing-primary-it;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:routing-empty-it;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.heartbeat-interval=3600000" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Replica Routing Integration Tests")
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicationHeartbeat heartbeat;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should serve read-only repository calls from the up-to-date replica")
+    void shouldReadFromReplica() {
+        heartbeat.beat();
+        ReplicaRoutingDataSource.Stats before = routingDataSource.stats();
+
+        genreRepository.findAll();
+
+        ReplicaRoutingDataSource.Stats after = routingDataSource.stats();
+        assertEquals(before.replicas().get(0).reads() + 1, after.replicas().get(0).reads());
+        assertEquals(0, after.replicas().get(1).reads());
+        assertFalse(after.replicas().get(1).eligible());
+    }
+
+    @Test
+    @DisplayName("Should return a read-after token from writes")
+    void shouldReturnReadAfterToken() throws Exception {
+        long before = System.currentTimeMillis();
+
+        String token = mockMvc.perform(delete("/api/diagnostics/event-latency"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().exists(ReadConsistency.READ_AFTER_HEADER))
+                .andReturn().getResponse().getHeader(ReadConsistency.READ_AFTER_HEADER);
+
+        assertTrue(Long.parseLong(token) >= before);
+    }
+
+    @Test
+    @DisplayName("Should report the connections handed out per replica")
+    void shouldReportRoutingStats() throws Exception {
+        mockMvc.perform(get("/api/diagnostics/datasource-routing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replicas[0].name").value("replica-1"))
+                .andExpect(jsonPath("$.replicas[1].name").value("replica-2"));
+    }
+}
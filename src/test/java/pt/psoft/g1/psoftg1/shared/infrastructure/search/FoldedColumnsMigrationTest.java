@@ -0,0 +1,86 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.search;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the folded search columns and their backfill.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Folded Columns Migration Integration Tests")
+class FoldedColumnsMigrationTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        Genre genre = genreRepository.save(new Genre("Littérature Jeunesse"));
+        Author author = authorRepository.save(new Author("Antoine de Saint-Exupéry", "Aviator", null));
+        bookRepository.save(new Book("9780156012195", "Le Petit Prince", null, genre,
+                new ArrayList<>(List.of(author)), null));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should find books by prefix ignoring case and accents")
+    void shouldSearchIgnoringCaseAndAccents() {
+        assertEquals(1, bookRepository.findByAuthorName("antoine de saint-exup").size());
+        assertEquals(1, bookRepository.findByAuthorName("ANTOINE DE SAINT-EXUPÉRY").size());
+        assertEquals(1, bookRepository.findByTitle("le petit").size());
+        assertEquals(1, bookRepository.findByGenre("litterature").size());
+        assertEquals(1, authorRepository.searchByNameNameStartsWith("Antoine").size());
+        assertTrue(bookRepository.findByTitle("Petit").isEmpty());
+        assertTrue(bookRepository.findByTitle("le_petit").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should fill in the folded columns of rows stored without them")
+    void shouldBackfillFoldedColumns() {
+        entityManager.createNativeQuery("UPDATE BOOK SET TITLE_FOLDED = NULL").executeUpdate();
+        entityManager.createNativeQuery("UPDATE AUTHOR SET NAME_FOLDED = NULL").executeUpdate();
+        assertTrue(bookRepository.findByTitle("le petit").isEmpty());
+
+        FoldedColumnsMigration migration = new FoldedColumnsMigration(dataSource, entityManagerFactory, 1);
+        long filled = FoldedColumnsMigration.COLUMNS.stream().mapToLong(migration::backfill).sum();
+
+        assertEquals(2, filled);
+        assertEquals(1, bookRepository.findByTitle("le petit").size());
+        assertEquals(1, bookRepository.findByAuthorName("antoine").size());
+    }
+}
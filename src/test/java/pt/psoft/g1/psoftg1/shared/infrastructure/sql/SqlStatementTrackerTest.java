@@ -0,0 +1,162 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SqlStatementTracker and TracingDataSource.
+ */
+@DisplayName("SQL Statement Tracker Unit Tests")
+class SqlStatementTrackerTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private static SqlStatementTracker.StatementStats statsOf(SqlStatementTracker tracker, String sql) {
+        return tracker.statements().stream()
+                .filter(stats -> stats.sql().equals(sql))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Nested
+    @DisplayName("Statement Shapes")
+    class Shapes {
+
+        @Test
+        @DisplayName("Should replace literals and collapse IN lists and whitespace")
+        void shouldNormalizeSql() {
+            assertEquals("select b1_0.pk from book b1_0 where b1_0.title like ? and b1_0.version > ? "
+                    + "and b1_0.genre_pk in (...)",
+                    SqlStatementTracker.shapeOf("select b1_0.pk from book b1_0\n  where b1_0.title like 'It''s%'"
+                            + " and b1_0.version > 42 and b1_0.genre_pk in (?, ?,?)"));
+        }
+
+        @Test
+        @DisplayName("Should aggregate executions of the same shape")
+        void shouldAggregateSameShape() {
+            SqlStatementTracker tracker = new SqlStatementTracker(Duration.ofSeconds(1), 10, 100);
+
+            tracker.record("select * from book where pk = 1", List.of(), 2 * MILLIS, 1, false);
+            tracker.record("select * from book where pk = 2", List.of(), 4 * MILLIS, 0, false);
+            tracker.record("select * from book where pk = 3", List.of(), MILLIS, 0, true);
+
+            SqlStatementTracker.StatementStats stats = statsOf(tracker, "select * from book where pk = ?");
+            assertEquals(3, stats.executions());
+            assertEquals(1, stats.failures());
+            assertEquals(1, stats.rows());
+            assertEquals(7, stats.totalMillis(), 0.5);
+            assertEquals(4000, stats.latencyMicros().max());
+        }
+
+        @Test
+        @DisplayName("Should count shapes beyond the limit together")
+        void shouldCapShapes() {
+            SqlStatementTracker tracker = new SqlStatementTracker(Duration.ofSeconds(1), 10, 2);
+
+            tracker.record("select a from t1", List.of(), MILLIS, 0, false);
+            tracker.record("select a from t2", List.of(), MILLIS, 0, false);
+            tracker.record("select a from t3", List.of(), MILLIS, 0, false);
+            tracker.record("select a from t4", List.of(), MILLIS, 0, false);
+
+            assertEquals(3, tracker.statements().size());
+            assertEquals(2, statsOf(tracker, SqlStatementTracker.OTHER_SHAPE).executions());
+        }
+    }
+
+    @Nested
+    @DisplayName("Slow Query Log")
+    class SlowQueryLog {
+
+        @Test
+        @DisplayName("Should keep the latest slow queries, newest first")
+        void shouldKeepLatestSlowQueries() {
+            SqlStatementTracker tracker = new SqlStatementTracker(Duration.ofMillis(10), 2, 100);
+
+            tracker.record("select 'a'", List.of(), 5 * MILLIS, 0, false);
+            tracker.record("select 1", List.of(), 11 * MILLIS, 0, false);
+            tracker.record("select 2", List.of(), 12 * MILLIS, 0, false);
+            tracker.record("select 3", List.of(), 13 * MILLIS, 0, false);
+
+            List<SqlStatementTracker.SlowQuery> slow = tracker.slowQueries();
+            assertEquals(2, slow.size());
+            assertEquals(13, slow.get(0).millis());
+            assertEquals(12, slow.get(1).millis());
+        }
+
+        @Test
+        @DisplayName("Should mask bind parameters to their type and size")
+        void shouldMaskParameters() {
+            assertEquals("String(8)", SqlStatementTracker.mask("Exupéry%"));
+            assertEquals("Long", SqlStatementTracker.mask(42L));
+            assertEquals("byte[3]", SqlStatementTracker.mask(new byte[3]));
+            assertEquals("null", SqlStatementTracker.mask(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tracing DataSource")
+    class Tracing {
+
+        private final DriverManagerDataSource h2 = new DriverManagerDataSource(
+                "jdbc:h2:mem:sql-tracing;DB_CLOSE_DELAY=-1", "sa", "");
+        private final SqlStatementTracker tracker = new SqlStatementTracker(Duration.ZERO, 10, 100);
+        private final TracingDataSource dataSource = new TracingDataSource(h2, tracker);
+
+        @AfterEach
+        void tearDown() {
+            new JdbcTemplate(h2).execute("DROP TABLE IF EXISTS traced");
+        }
+
+        @Test
+        @DisplayName("Should record rows read and updated, with masked parameters")
+        void shouldRecordStatements() throws SQLException {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("CREATE TABLE traced (id INT PRIMARY KEY, name VARCHAR(50))");
+            jdbc.update("INSERT INTO traced VALUES (1, 'Saint-Exupéry'), (2, 'Saramago'), (3, 'Pessoa')");
+
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT id FROM traced WHERE name LIKE ? OR id = ?")) {
+                statement.setString(1, "Sa%");
+                statement.setInt(2, 3);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        // read every row
+                    }
+                }
+            }
+
+            assertEquals(3, statsOf(tracker, "INSERT INTO traced VALUES (?, ?), (?, ?), (?, ?)").rows());
+            SqlStatementTracker.StatementStats select = statsOf(tracker,
+                    "SELECT id FROM traced WHERE name LIKE ? OR id = ?");
+            assertEquals(1, select.executions());
+            assertEquals(3, select.rows());
+            SqlStatementTracker.SlowQuery slow = tracker.slowQueries().get(0);
+            assertEquals(List.of("String(3)", "Integer"), slow.parameters());
+            assertEquals(3, tracker.connectionWait().count());
+        }
+
+        @Test
+        @DisplayName("Should record failed statements")
+        void shouldRecordFailures() {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+            assertThrows(RuntimeException.class, () -> jdbc.queryForList("SELECT * FROM missing_table"));
+
+            assertEquals(1, statsOf(tracker, "SELECT * FROM missing_table").failures());
+        }
+    }
+}
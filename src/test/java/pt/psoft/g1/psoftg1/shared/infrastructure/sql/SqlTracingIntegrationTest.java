@@ -0,0 +1,51 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.sql;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the SQL statistics of the application's DataSource.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("SQL Tracing Integration Tests")
+class SqlTracingIntegrationTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should report the native author name search per statement shape")
+    void shouldReportNativeQueryShape() throws Exception {
+        bookRepository.findByAuthorName("Saramago");
+
+        mockMvc.perform(get("/api/diagnostics/sql"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.connectionWaitMicros.count").isNumber())
+                .andExpect(jsonPath("$.statements[*].sql", hasItem(containsString("WHERE a.NAME_FOLDED LIKE ?"))));
+    }
+
+    @Test
+    @DisplayName("Should list the slow queries")
+    void shouldListSlowQueries() throws Exception {
+        mockMvc.perform(get("/api/diagnostics/sql/slow"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+}
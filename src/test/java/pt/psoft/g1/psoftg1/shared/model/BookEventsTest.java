@@ -31,4 +31,14 @@ class BookEventsTest {
         // TODO: Implement test
         // assertEquals("book.deleted", BookEvents.BOOK_DELETED);
     }
+
+    @Test
+    @DisplayName("shardOf should be stable and within the bucket range")
+    void shardOfShouldBeStableAndInRange() {
+        for (String isbn : new String[] { "9780134685991", "9781617294945", "", "x" }) {
+            int shard = BookEvents.shardOf(isbn);
+            assertTrue(shard >= 0 && shard < BookEvents.SHARD_BUCKETS);
+            assertEquals(shard, BookEvents.shardOf(new String(isbn)));
+        }
+    }
 }
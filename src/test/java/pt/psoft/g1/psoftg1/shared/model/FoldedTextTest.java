@@ -0,0 +1,56 @@
+package pt.psoft.g1.psoftg1.shared.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FoldedText.
+ */
+@DisplayName("FoldedText Tests")
+class FoldedTextTest {
+
+    @Nested
+    @DisplayName("fold Tests")
+    class FoldTests {
+
+        @Test
+        @DisplayName("Should ignore case and accents")
+        void shouldIgnoreCaseAndAccents() {
+            assertEquals("exupery", FoldedText.fold("Exupéry"));
+            assertEquals("exupery", FoldedText.fold("EXUPERY"));
+            assertEquals("sao paulo", FoldedText.fold("São Paulo"));
+        }
+
+        @Test
+        @DisplayName("Should collapse and strip whitespace")
+        void shouldCollapseWhitespace() {
+            assertEquals("j r r tolkien", FoldedText.fold("  J  R\tR Tolkien "));
+        }
+
+        @Test
+        @DisplayName("Should truncate to the column size")
+        void shouldTruncateToColumnSize() {
+            assertEquals("ffi", FoldedText.fold("ﬃx", 3));
+        }
+    }
+
+    @Nested
+    @DisplayName("prefixPattern Tests")
+    class PrefixPatternTests {
+
+        @Test
+        @DisplayName("Should match the folded prefix")
+        void shouldMatchFoldedPrefix() {
+            assertEquals("saint-exup%", FoldedText.prefixPattern("Saint-Exup"));
+        }
+
+        @Test
+        @DisplayName("Should escape LIKE wildcards")
+        void shouldEscapeWildcards() {
+            assertEquals("100\\% pure\\_java\\\\%", FoldedText.prefixPattern("100% Pure_Java\\"));
+        }
+    }
+}
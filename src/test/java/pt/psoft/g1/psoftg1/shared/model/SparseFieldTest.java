@@ -0,0 +1,38 @@
+package pt.psoft.g1.psoftg1.shared.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookField;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SparseField.parse.
+ */
+@DisplayName("SparseField Tests")
+class SparseFieldTest {
+
+    @Test
+    @DisplayName("Should select nothing, meaning all fields, when no list is given")
+    void shouldSelectNothingWhenNoListGiven() {
+        assertTrue(SparseField.parse(null, BookField.class).isEmpty());
+        assertTrue(SparseField.parse(" ", BookField.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should parse field names ignoring blanks and spaces")
+    void shouldParseFieldNames() {
+        assertEquals(EnumSet.of(BookField.ISBN, BookField.TITLE, BookField.AUTHORS),
+                SparseField.parse("title, isbn,,authors", BookField.class));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown field names")
+    void shouldRejectUnknownFieldNames() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> SparseField.parse("isbn,price", BookField.class));
+        assertEquals("Unknown field: price", exception.getMessage());
+    }
+}
@@ -0,0 +1,56 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.configuration.RabbitmqConfig;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxCommitTimes;
+import pt.psoft.g1.psoftg1.shared.infrastructure.outbox.OutboxEvent;
+import pt.psoft.g1.psoftg1.shared.model.BookEvents;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for OutboxEventService.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("OutboxEventService Integration Tests")
+class OutboxEventServiceIntegrationTest {
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private OutboxCommitTimes commitTimes;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Should write an event with one insert and still know when it committed")
+    void shouldWriteEventWithSingleInsert() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        OutboxEvent event = transactionTemplate.execute(status -> outboxEventService.saveEvent("Book",
+                "9780134685991", "BookCreatedEvent", Map.of("isbn", "9780134685991"),
+                RabbitmqConfig.EVENTS_EXCHANGE, BookEvents.BOOK_CREATED));
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertNotNull(commitTimes.committedAt(event.getId()));
+    }
+}